@@ -0,0 +1,227 @@
+package org.rishbootdev.chaincode.batch;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import org.hyperledger.fabric.shim.ChaincodeException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A parsed and validated batch of creates, updates and links. The batch is
+ * either a JSON array of items or newline-delimited JSON with one item per
+ * line. Items look like
+ * {@code {"op":"create","entity":"patient","data":{...}}} or
+ * {@code {"op":"link","link":"hospital-patient","from":"H1","to":"P1"}}.
+ * Every item is checked before any is applied, and all problems are
+ * reported together.
+ */
+public final class BatchRequest {
+
+    public static final int MAX_ITEMS = 500;
+    public static final int MAX_BATCH_BYTES = 1_000_000;
+
+    public static final String CREATE = "create";
+    public static final String UPDATE = "update";
+    public static final String LINK = "link";
+
+    /** Entity names accepted by create and update, with the data field holding each one's id. */
+    public static final Map<String, String> ID_FIELDS;
+
+    /** Link names, each {@code parent-child}. */
+    public static final Set<String> LINKS = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(
+            "hospital-doctor", "hospital-patient", "hospital-record", "hospital-lab",
+            "doctor-patient", "doctor-record", "pharma-medicine", "lab-report", "prescription-medicine")));
+
+    static {
+        Map<String, String> ids = new LinkedHashMap<>();
+        ids.put("hospital", "hospitalId");
+        ids.put("doctor", "doctorId");
+        ids.put("patient", "patientId");
+        ids.put("record", "recordId");
+        ids.put("prescription", "prescriptionId");
+        ids.put("medicine", "id");
+        ids.put("pharma", "pharmaId");
+        ids.put("lab", "labId");
+        ids.put("labReport", "reportId");
+        ID_FIELDS = Collections.unmodifiableMap(ids);
+    }
+
+    /** One validated item. Links carry {@code from} and {@code to}; the others an id and data. */
+    public static final class Item {
+        private final int index;
+        private final String op;
+        private final String entity;
+        private final String id;
+        private final String from;
+        private final String to;
+        private final JsonObject data;
+
+        private Item(int index, String op, String entity, String id, String from, String to, JsonObject data) {
+            this.index = index;
+            this.op = op;
+            this.entity = entity;
+            this.id = id;
+            this.from = from;
+            this.to = to;
+            this.data = data;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public String getOp() {
+            return op;
+        }
+
+        public String getEntity() {
+            return entity;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getFrom() {
+            return from;
+        }
+
+        public String getTo() {
+            return to;
+        }
+
+        public JsonObject getData() {
+            return data;
+        }
+
+        public String getString(String field) {
+            JsonElement value = data.get(field);
+            return value == null || value.isJsonNull() ? null : value.getAsString();
+        }
+    }
+
+    private BatchRequest() {
+    }
+
+    public static List<Item> parse(String batch) {
+        if (batch == null || batch.trim().isEmpty()) {
+            throw new ChaincodeException("Batch is empty");
+        }
+        int bytes = batch.getBytes(StandardCharsets.UTF_8).length;
+        if (bytes > MAX_BATCH_BYTES) {
+            throw new ChaincodeException("Batch too large: " + bytes + " bytes (max " + MAX_BATCH_BYTES + ")");
+        }
+        List<JsonElement> elements = elements(batch.trim());
+        if (elements.size() > MAX_ITEMS) {
+            throw new ChaincodeException("Too many batch items: " + elements.size() + " (max " + MAX_ITEMS + ")");
+        }
+
+        List<String> errors = new ArrayList<>();
+        List<Item> items = new ArrayList<>();
+        Set<String> created = new HashSet<>();
+        for (int i = 0; i < elements.size(); i++) {
+            Item item = item(i, elements.get(i), errors);
+            if (item == null) {
+                continue;
+            }
+            if (CREATE.equals(item.op) && !created.add(item.entity + "/" + item.id)) {
+                errors.add("item " + i + ": " + item.entity + " " + item.id + " is created twice");
+                continue;
+            }
+            items.add(item);
+        }
+        if (!errors.isEmpty()) {
+            throw new ChaincodeException("Invalid batch: " + String.join("; ", errors));
+        }
+        return items;
+    }
+
+    private static List<JsonElement> elements(String batch) {
+        List<JsonElement> elements = new ArrayList<>();
+        try {
+            if (batch.startsWith("[")) {
+                for (JsonElement element : JsonParser.parseString(batch).getAsJsonArray()) {
+                    elements.add(element);
+                }
+                return elements;
+            }
+            String[] lines = batch.split("\r?\n");
+            for (int line = 0; line < lines.length; line++) {
+                if (lines[line].trim().isEmpty()) {
+                    continue;
+                }
+                try {
+                    elements.add(JsonParser.parseString(lines[line]));
+                } catch (JsonParseException e) {
+                    throw new ChaincodeException("Malformed batch line " + (line + 1) + ": " + e.getMessage());
+                }
+            }
+        } catch (JsonParseException | IllegalStateException e) {
+            throw new ChaincodeException("Expected a JSON array or newline-delimited JSON: " + e.getMessage());
+        }
+        return elements;
+    }
+
+    private static Item item(int index, JsonElement element, List<String> errors) {
+        if (!element.isJsonObject()) {
+            errors.add("item " + index + ": expected an object");
+            return null;
+        }
+        JsonObject object = element.getAsJsonObject();
+        String op = string(object, "op");
+        if (LINK.equals(op)) {
+            String link = string(object, "link");
+            String from = string(object, "from");
+            String to = string(object, "to");
+            if (!LINKS.contains(link)) {
+                errors.add("item " + index + ": unknown link '" + link + "'");
+                return null;
+            }
+            if (from == null || to == null) {
+                errors.add("item " + index + ": link needs from and to");
+                return null;
+            }
+            return new Item(index, op, link, null, from, to, null);
+        }
+        if (!CREATE.equals(op) && !UPDATE.equals(op)) {
+            errors.add("item " + index + ": unknown op '" + op + "'");
+            return null;
+        }
+        String entity = string(object, "entity");
+        if (!ID_FIELDS.containsKey(entity)) {
+            errors.add("item " + index + ": unknown entity '" + entity + "'");
+            return null;
+        }
+        JsonElement data = object.get("data");
+        if (data == null || !data.isJsonObject()) {
+            errors.add("item " + index + ": " + op + " needs a data object");
+            return null;
+        }
+        String id = string(data.getAsJsonObject(), ID_FIELDS.get(entity));
+        if (id == null) {
+            errors.add("item " + index + ": " + entity + " data needs " + ID_FIELDS.get(entity));
+            return null;
+        }
+        return new Item(index, op, entity, id, null, null, data.getAsJsonObject());
+    }
+
+    private static String string(JsonObject object, String field) {
+        JsonElement value = object.get(field);
+        if (value == null || !value.isJsonPrimitive() || !value.getAsJsonPrimitive().isString()
+                || value.getAsString().isEmpty()) {
+            return null;
+        }
+        return value.getAsString();
+    }
+}
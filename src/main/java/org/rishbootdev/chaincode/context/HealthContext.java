@@ -0,0 +1,28 @@
+package org.rishbootdev.chaincode.context;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.rishbootdev.chaincode.state.UnitOfWork;
+
+/**
+ * The transaction context every contract runs with. Its stub is a
+ * {@link UnitOfWork} over the peer's, so helpers that take the stub share
+ * one read cache and one write buffer for the whole transaction.
+ */
+public class HealthContext extends Context {
+
+    private final UnitOfWork unitOfWork;
+
+    public HealthContext(ChaincodeStub stub) {
+        this(new UnitOfWork(stub));
+    }
+
+    private HealthContext(UnitOfWork unitOfWork) {
+        super(unitOfWork);
+        this.unitOfWork = unitOfWork;
+    }
+
+    public UnitOfWork getUnitOfWork() {
+        return unitOfWork;
+    }
+}
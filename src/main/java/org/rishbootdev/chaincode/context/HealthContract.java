@@ -0,0 +1,24 @@
+package org.rishbootdev.chaincode.context;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.contract.ContractInterface;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+
+/**
+ * Runs each transaction in a {@link HealthContext} and sends its buffered
+ * writes to the peer once the transaction function returns.
+ */
+public interface HealthContract extends ContractInterface {
+
+    @Override
+    default Context createContext(ChaincodeStub stub) {
+        return new HealthContext(stub);
+    }
+
+    @Override
+    default void afterTransaction(Context ctx, Object result) {
+        if (ctx instanceof HealthContext) {
+            ((HealthContext) ctx).getUnitOfWork().flush();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package org.rishbootdev.chaincode.contracts;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.contract.annotation.Contract;
+import org.hyperledger.fabric.contract.annotation.Info;
+import org.hyperledger.fabric.contract.annotation.Transaction;
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.rishbootdev.chaincode.batch.BatchRequest;
+import org.rishbootdev.chaincode.context.HealthContext;
+import org.rishbootdev.chaincode.context.HealthContract;
+import org.rishbootdev.chaincode.json.JsonSupport;
+import org.rishbootdev.chaincode.state.UnitOfWork;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+/**
+ * Applies a batch of creates, updates and links in one transaction, so
+ * onboarding does not pay endorsement and ordering once per entity. Each
+ * item runs through the same transaction function a single submit would
+ * use, against the transaction's {@link UnitOfWork}; a document rewritten
+ * by several items reaches the ledger once, in its final state.
+ *
+ * <p>With {@code atomic} set, the first failing item fails the whole
+ * transaction. Otherwise the failed item's writes are rolled back to the
+ * savepoint taken before it and the rest still apply. The response has
+ * the shape {@code {applied, failed, results}} with one result per item.</p>
+ */
+@Contract(
+        name = "BatchContract",
+        info = @Info(
+                title = "BatchContract",
+                description = "Applies batches of creates, updates and links in one transaction",
+                version = "1.0.0"
+        )
+)
+public class BatchContract implements HealthContract {
+
+    private final Gson gson = JsonSupport.gson();
+
+    private final HospitalContract hospitals = new HospitalContract();
+    private final DoctorContract doctors = new DoctorContract();
+    private final PatientContract patients = new PatientContract();
+    private final RecordContract records = new RecordContract();
+    private final PrescriptionContract prescriptions = new PrescriptionContract();
+    private final MedicineContract medicines = new MedicineContract();
+    private final PharmaContract pharmas = new PharmaContract();
+    private final LabContract labs = new LabContract();
+
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public String submitBatch(Context ctx, String batch, boolean atomic) {
+        if (!(ctx instanceof HealthContext)) {
+            throw new ChaincodeException("Batches need a HealthContext");
+        }
+        UnitOfWork unit = ((HealthContext) ctx).getUnitOfWork();
+        List<BatchRequest.Item> items = BatchRequest.parse(batch);
+
+        int applied = 0;
+        StringWriter out = new StringWriter();
+        try {
+            JsonWriter writer = gson.newJsonWriter(out);
+            writer.beginObject();
+            writer.name("results").beginArray();
+            for (BatchRequest.Item item : items) {
+                int savepoint = unit.savepoint();
+                String error = null;
+                try {
+                    apply(ctx, item);
+                    applied++;
+                } catch (RuntimeException e) {
+                    if (atomic) {
+                        throw new ChaincodeException("Batch item " + item.getIndex() + " failed: " + e.getMessage());
+                    }
+                    unit.rollback(savepoint);
+                    error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                }
+                writeResult(writer, item, error);
+            }
+            writer.endArray();
+            writer.name("applied").value(applied);
+            writer.name("failed").value(items.size() - applied);
+            writer.endObject();
+            writer.flush();
+        } catch (IOException e) {
+            throw new ChaincodeException("Error writing batch report: " + e.getMessage());
+        }
+        return out.toString();
+    }
+
+    private void apply(Context ctx, BatchRequest.Item item) {
+        if (BatchRequest.LINK.equals(item.getOp())) {
+            link(ctx, item.getEntity(), item.getFrom(), item.getTo());
+            return;
+        }
+        boolean create = BatchRequest.CREATE.equals(item.getOp());
+        String json = item.getData().toString();
+        switch (item.getEntity()) {
+            case "hospital":
+                if (create) {
+                    hospitals.createHospitalBody(ctx, json);
+                } else {
+                    hospitals.updateHospitalBody(ctx, json);
+                }
+                break;
+            case "doctor":
+                if (create) {
+                    doctors.createDoctor(ctx, json);
+                } else {
+                    doctors.updateDoctor(ctx, json);
+                }
+                break;
+            case "patient":
+                if (create) {
+                    patients.createPatient(ctx, json);
+                } else {
+                    patients.updatePatient(ctx, json);
+                }
+                break;
+            case "record":
+                if (create) {
+                    records.createPatientRecord(ctx, json);
+                } else {
+                    records.updatePatientRecord(ctx, item.getId(), json);
+                }
+                break;
+            case "prescription":
+                if (create) {
+                    prescriptions.createPrescription(ctx, json);
+                } else {
+                    prescriptions.updatePrescription(ctx, json);
+                }
+                break;
+            case "medicine":
+                if (create) {
+                    medicines.createMedicine(ctx, json);
+                } else {
+                    medicines.updateMedicine(ctx, json);
+                }
+                break;
+            case "pharma":
+                if (create) {
+                    pharmas.createPharma(ctx, json);
+                } else {
+                    pharmas.updatePharma(ctx, json);
+                }
+                break;
+            case "lab":
+                if (create) {
+                    labs.createLab(ctx, item.getId(), item.getString("name"), item.getString("hospitalId"));
+                } else {
+                    labs.updateLab(ctx, item.getId(), item.getString("name"));
+                }
+                break;
+            case "labReport":
+                if (create) {
+                    labs.createLabReport(ctx, item.getId(), item.getString("patientId"), item.getString("testType"),
+                            item.getString("testResult"), item.getString("labId"), item.getString("testDate"),
+                            item.getString("remarks"));
+                } else {
+                    labs.updateLabReport(ctx, item.getId(), item.getString("testType"), item.getString("testResult"),
+                            item.getString("testDate"), item.getString("remarks"));
+                }
+                break;
+            default:
+                throw new ChaincodeException("Unknown entity: " + item.getEntity());
+        }
+    }
+
+    private void link(Context ctx, String link, String from, String to) {
+        switch (link) {
+            case "hospital-doctor":
+                hospitals.addDoctorToHospital(ctx, from, to);
+                break;
+            case "hospital-patient":
+                hospitals.addPatientToHospital(ctx, from, to);
+                break;
+            case "hospital-record":
+                hospitals.addRecordToHospital(ctx, from, to);
+                break;
+            case "hospital-lab":
+                hospitals.addLabToHospital(ctx, from, to);
+                break;
+            case "doctor-patient":
+                doctors.addPatientToDoctor(ctx, from, to);
+                break;
+            case "doctor-record":
+                doctors.addRecordToDoctor(ctx, from, to);
+                break;
+            case "pharma-medicine":
+                pharmas.addMedicineToPharma(ctx, from, to);
+                break;
+            case "lab-report":
+                labs.addReportToLab(ctx, from, to);
+                break;
+            case "prescription-medicine":
+                prescriptions.addMedicineToPrescription(ctx, from, to);
+                break;
+            default:
+                throw new ChaincodeException("Unknown link: " + link);
+        }
+    }
+
+    private static void writeResult(JsonWriter writer, BatchRequest.Item item, String error) throws IOException {
+        writer.beginObject();
+        writer.name("index").value(item.getIndex());
+        writer.name("op").value(item.getOp());
+        writer.name("entity").value(item.getEntity());
+        if (BatchRequest.LINK.equals(item.getOp())) {
+            writer.name("from").value(item.getFrom());
+            writer.name("to").value(item.getTo());
+        } else {
+            writer.name("id").value(item.getId());
+        }
+        writer.name("status").value(error == null ? "applied" : "failed");
+        if (error != null) {
+            writer.name("error").value(error);
+        }
+        writer.endObject();
+    }
+}
@@ -2,12 +2,23 @@ package org.rishbootdev.chaincode.contracts;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
-import org.hyperledger.fabric.contract.ContractInterface;
 import org.hyperledger.fabric.contract.annotation.Default;
 import org.hyperledger.fabric.contract.annotation.Info;
+import org.rishbootdev.chaincode.context.HealthContract;
+import org.rishbootdev.chaincode.index.Cascade;
+import org.rishbootdev.chaincode.index.Indexes;
+import org.rishbootdev.chaincode.json.JsonSupport;
+import org.rishbootdev.chaincode.query.Aggregates;
+import org.rishbootdev.chaincode.query.BatchRead;
+import org.rishbootdev.chaincode.query.JsonArrayResponse;
+import org.rishbootdev.chaincode.query.Pages;
+import org.rishbootdev.chaincode.query.Projection;
+import org.rishbootdev.chaincode.model.CascadeResult;
 import org.rishbootdev.chaincode.model.Doctor;
 import org.rishbootdev.chaincode.model.Patient;
+import org.rishbootdev.chaincode.model.Prescription;
 import org.rishbootdev.chaincode.model.Record;
+import org.rishbootdev.chaincode.state.Ledger;
 import org.hyperledger.fabric.contract.Context;
 import org.hyperledger.fabric.contract.annotation.Contract;
 import org.hyperledger.fabric.contract.annotation.Transaction;
@@ -16,7 +27,9 @@ import org.hyperledger.fabric.shim.ledger.KeyValue;
 import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
 
 import java.util.ArrayList;
-import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
 
 @Contract(
         name = "DoctorContract",
@@ -27,12 +40,21 @@ import java.util.List;
         )
 )
 @Default
-public class DoctorContract implements ContractInterface {
+public class DoctorContract implements HealthContract {
 
-    private final Gson gson = new Gson();
+    private final Gson gson = JsonSupport.gson();
     private static final String DOCTOR_PREFIX = "DOCTOR_";
     private static final String PATIENT_PREFIX = "PATIENT_";
     private static final String RECORD_PREFIX = "RECORD_";
+    private static final String PRESC_PREFIX = "PRESC_";
+    private static final String SUMMARY_FIELDS = "doctorId,name,specialization,hospitalId";
+
+    private static final Map<String, String> LINKED_LISTS = new LinkedHashMap<>();
+
+    static {
+        LINKED_LISTS.put("patientId", Indexes.DOCTOR_PATIENT);
+        LINKED_LISTS.put("recordId", Indexes.DOCTOR_RECORD);
+    }
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
     public void createDoctor(Context ctx, String doctorJson) {
@@ -44,23 +66,25 @@ public class DoctorContract implements ContractInterface {
         }
 
         String key = DOCTOR_PREFIX + doctor.getDoctorId();
-        if (!stub.getStringState(key).isEmpty()) {
+        if (Ledger.exists(stub, key)) {
             throw new RuntimeException("Doctor already exists: " + doctor.getDoctorId());
         }
 
-        if (doctor.getPatientIds() == null) doctor.setPatientIds(new ArrayList<>());
-        if (doctor.getRecordIds() == null) doctor.setRecordIds(new ArrayList<>());
+        doctor.setPatientIds(new ArrayList<>());
+        doctor.setRecordIds(new ArrayList<>());
 
-        stub.putStringState(key, gson.toJson(doctor));
+        Ledger.put(stub, key, doctor);
+        Indexes.add(stub, Indexes.HOSPITAL_DOCTOR, doctor.getHospitalId(), doctor.getDoctorId());
     }
 
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public String getDoctorById(Context ctx, String doctorId) {
-        String state = ctx.getStub().getStringState(DOCTOR_PREFIX + doctorId);
-        if (state == null || state.isEmpty()) {
+        ChaincodeStub stub = ctx.getStub();
+        String state = Ledger.getJson(stub, DOCTOR_PREFIX + doctorId, Doctor.class);
+        if (state == null) {
             throw new RuntimeException("Doctor not found: " + doctorId);
         }
-        return state;
+        return Indexes.withLinks(stub, doctorId, state, LINKED_LISTS);
     }
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
@@ -69,14 +93,15 @@ public class DoctorContract implements ContractInterface {
         Doctor doctor = gson.fromJson(doctorJson, Doctor.class);
 
         String key = DOCTOR_PREFIX + doctor.getDoctorId();
-        if (stub.getStringState(key).isEmpty()) {
+        Doctor previous = Ledger.get(stub, key, Doctor.class);
+        if (previous == null) {
             throw new RuntimeException("Doctor not found: " + doctor.getDoctorId());
         }
 
-        if (doctor.getPatientIds() == null) doctor.setPatientIds(new ArrayList<>());
-        if (doctor.getRecordIds() == null) doctor.setRecordIds(new ArrayList<>());
-
-        stub.putStringState(key, gson.toJson(doctor));
+        doctor.setPatientIds(new ArrayList<>());
+        doctor.setRecordIds(new ArrayList<>());
+        Ledger.put(stub, key, doctor);
+        Indexes.move(stub, Indexes.HOSPITAL_DOCTOR, previous.getHospitalId(), doctor.getHospitalId(), doctor.getDoctorId());
         return "Doctor updated: " + doctor.getDoctorId();
     }
 
@@ -84,80 +109,106 @@ public class DoctorContract implements ContractInterface {
     public String deleteDoctor(Context ctx, String doctorId) {
         ChaincodeStub stub = ctx.getStub();
         String key = DOCTOR_PREFIX + doctorId;
+        Doctor doctor = Ledger.get(stub, key, Doctor.class);
 
-        if (stub.getStringState(key).isEmpty()) {
+        if (doctor == null) {
             throw new RuntimeException("Doctor not found: " + doctorId);
         }
-
+        Indexes.remove(stub, Indexes.HOSPITAL_DOCTOR, doctor.getHospitalId(), doctorId);
         stub.delState(key);
         return "Doctor deleted successfully: " + doctorId;
     }
 
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public CascadeResult deleteDoctorCascade(Context ctx, String doctorId) {
+        return cascadeDelete(ctx, doctorId, Cascade.unbounded(ctx.getStub()));
+    }
+
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public CascadeResult deleteDoctorCascadePage(Context ctx, String doctorId, int pageSize) {
+        return cascadeDelete(ctx, doctorId, Cascade.page(ctx.getStub(), pageSize));
+    }
+
+    private CascadeResult cascadeDelete(Context ctx, String doctorId, Cascade cascade) {
+        ChaincodeStub stub = ctx.getStub();
+        boolean exists = Ledger.exists(stub, DOCTOR_PREFIX + doctorId);
+        cascade.each(Indexes.DOCTOR_PATIENT, doctorId, patientId -> {
+            Patient patient = Ledger.get(stub, PATIENT_PREFIX + patientId, Patient.class);
+            if (patient != null && doctorId.equals(patient.getDoctorId())) {
+                patient.setDoctorId(null);
+                Ledger.put(stub, PATIENT_PREFIX + patientId, patient);
+            }
+        });
+        cascade.each(Indexes.DOCTOR_RECORD, doctorId, recordId -> {
+            Record record = Ledger.get(stub, RECORD_PREFIX + recordId, Record.class);
+            if (record != null && doctorId.equals(record.getDoctorId())) {
+                record.setDoctorId(null);
+                Ledger.put(stub, RECORD_PREFIX + recordId, record);
+            }
+        });
+        cascade.each(Indexes.DOCTOR_PRESCRIPTION, doctorId, prescriptionId -> {
+            Prescription prescription = Ledger.get(stub, PRESC_PREFIX + prescriptionId, Prescription.class);
+            if (prescription != null && doctorId.equals(prescription.getDoctorId())) {
+                prescription.setDoctorId(null);
+                Ledger.put(stub, PRESC_PREFIX + prescriptionId, prescription);
+            }
+        });
+        if (!exists && cascade.getProcessed() == 0) {
+            throw new RuntimeException("Doctor not found: " + doctorId);
+        }
+        if (exists && cascade.isComplete()) {
+            deleteDoctor(ctx, doctorId);
+        }
+        return new CascadeResult(doctorId, cascade.getProcessed(), cascade.isComplete());
+    }
+
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public String getAllDoctors(Context ctx) {
         ChaincodeStub stub = ctx.getStub();
-        List<Doctor> doctors = new ArrayList<>();
+        JsonArrayResponse doctors = new JsonArrayResponse(gson);
 
         try (QueryResultsIterator<KeyValue> results = stub.getStateByRange("", "")) {
             for (KeyValue kv : results) {
                 if (kv.getKey().startsWith(DOCTOR_PREFIX)) {
                     try {
-                        Doctor doc = gson.fromJson(kv.getStringValue(), Doctor.class);
-                        if (doc != null && doc.getDoctorId() != null) {
-                            doctors.add(doc);
-                        }
+                        doctors.addStored(Ledger.getStoredIf(kv, Doctor.class, "doctorId",
+                                Objects::nonNull), Doctor.class);
                     } catch (JsonSyntaxException ignore) {}
                 }
             }
         } catch (Exception e) {
             throw new RuntimeException("Error fetching doctors: " + e.getMessage());
         }
-        return gson.toJson(doctors);
+        return doctors.toJson();
     }
 
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public String GetRecordsByDoctor(Context ctx, String doctorId) {
         ChaincodeStub stub = ctx.getStub();
-        List<Record> records = new ArrayList<>();
+        JsonArrayResponse records = new JsonArrayResponse(gson);
 
-        try (QueryResultsIterator<KeyValue> results = stub.getStateByRange("", "")) {
-            for (KeyValue kv : results) {
-                if (kv.getKey().startsWith(RECORD_PREFIX)) {
-                    try {
-                        Record record = gson.fromJson(kv.getStringValue(), Record.class);
-                        if (record != null && doctorId.equals(record.getDoctorId())) {
-                            records.add(record);
-                        }
-                    } catch (JsonSyntaxException ignore) {}
-                }
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("Error fetching records: " + e.getMessage());
+        for (String recordId : Indexes.ids(stub, Indexes.DOCTOR_RECORD, doctorId)) {
+            try {
+                records.addStored(Ledger.getStoredIf(stub, RECORD_PREFIX + recordId, Record.class,
+                        "doctorId", doctorId::equals), Record.class);
+            } catch (JsonSyntaxException ignore) {}
         }
-        return gson.toJson(records);
+        return records.toJson();
     }
 
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public String GetPatientsByDoctor(Context ctx, String doctorId) {
         ChaincodeStub stub = ctx.getStub();
-        List<Patient> patients = new ArrayList<>();
+        JsonArrayResponse patients = new JsonArrayResponse(gson);
 
-        try (QueryResultsIterator<KeyValue> patientResults = stub.getStateByRange("", "")) {
-            for (KeyValue kv : patientResults) {
-                if (kv.getKey().startsWith(PATIENT_PREFIX)) {
-                    try {
-                        Patient patient = gson.fromJson(kv.getStringValue(), Patient.class);
-                        if (patient != null && doctorId.equals(patient.getDoctorId())) {
-                            patients.add(patient);
-                        }
-                    } catch (JsonSyntaxException ignore) {}
-                }
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("Error retrieving patients: " + e.getMessage());
+        for (String patientId : Indexes.ids(stub, Indexes.DOCTOR_PATIENT, doctorId)) {
+            try {
+                patients.addStored(Ledger.getStoredIf(stub, PATIENT_PREFIX + patientId, Patient.class,
+                        "doctorId", doctorId::equals), Patient.class);
+            } catch (JsonSyntaxException ignore) {}
         }
 
-        return gson.toJson(patients);
+        return patients.toJson();
     }
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
@@ -177,11 +228,12 @@ public class DoctorContract implements ContractInterface {
         doctor.setContact(contact);
 
         String key = DOCTOR_PREFIX + doctorId;
-        if (!stub.getStringState(key).isEmpty()) {
+        if (Ledger.exists(stub, key)) {
             throw new RuntimeException("Doctor already exists: " + doctorId);
         }
 
-        stub.putStringState(key, gson.toJson(doctor));
+        Ledger.put(stub, key, doctor);
+        Indexes.add(stub, Indexes.HOSPITAL_DOCTOR, hospitalId, doctorId);
         return "Doctor registered successfully: " + name;
     }
 
@@ -189,145 +241,148 @@ public class DoctorContract implements ContractInterface {
     public void addPatientToDoctor(Context ctx, String doctorId, String patientId) {
         ChaincodeStub stub = ctx.getStub();
 
-        String doctorKey = DOCTOR_PREFIX + doctorId;
-        String doctorJson = stub.getStringState(doctorKey);
-        if (doctorJson == null || doctorJson.isEmpty()) {
+        if (!Ledger.exists(stub, DOCTOR_PREFIX + doctorId)) {
             throw new RuntimeException("Doctor not found: " + doctorId);
         }
-        Doctor doctor = gson.fromJson(doctorJson, Doctor.class);
-        if (doctor.getPatientIds() == null) doctor.setPatientIds(new ArrayList<>());
-        if (!doctor.getPatientIds().contains(patientId)) {
-            doctor.getPatientIds().add(patientId);
-            stub.putStringState(doctorKey, gson.toJson(doctor));
-        }
 
         String patientKey = PATIENT_PREFIX + patientId;
-        String patientJson = stub.getStringState(patientKey);
-        if (patientJson == null || patientJson.isEmpty()) {
+        Patient patient = Ledger.get(stub, patientKey, Patient.class);
+        if (patient == null) {
             throw new RuntimeException("Patient not found: " + patientId);
         }
-        Patient patient = gson.fromJson(patientJson, Patient.class);
-        patient.setDoctorId(doctorId);
-        stub.putStringState(patientKey, gson.toJson(patient));
+        String previousDoctorId = patient.getDoctorId();
+        if (!doctorId.equals(previousDoctorId)) {
+            patient.setDoctorId(doctorId);
+            Ledger.put(stub, patientKey, patient);
+            Indexes.move(stub, Indexes.DOCTOR_PATIENT, previousDoctorId, doctorId, patientId);
+        } else {
+            Indexes.add(stub, Indexes.DOCTOR_PATIENT, doctorId, patientId);
+        }
     }
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
     public void removePatientFromDoctor(Context ctx, String doctorId, String patientId) {
         ChaincodeStub stub = ctx.getStub();
 
-        String doctorKey = DOCTOR_PREFIX + doctorId;
-        String doctorJson = stub.getStringState(doctorKey);
-        if (doctorJson == null || doctorJson.isEmpty()) {
+        if (!Ledger.exists(stub, DOCTOR_PREFIX + doctorId)) {
             throw new RuntimeException("Doctor not found: " + doctorId);
         }
-        Doctor doctor = gson.fromJson(doctorJson, Doctor.class);
-        if (doctor.getPatientIds() != null && doctor.getPatientIds().remove(patientId)) {
-            stub.putStringState(doctorKey, gson.toJson(doctor));
-        }
 
         String patientKey = PATIENT_PREFIX + patientId;
-        String patientJson = stub.getStringState(patientKey);
-        if (patientJson != null && !patientJson.isEmpty()) {
-            Patient patient = gson.fromJson(patientJson, Patient.class);
+        Patient patient = Ledger.get(stub, patientKey, Patient.class);
+        if (patient != null) {
             if (doctorId.equals(patient.getDoctorId())) {
                 patient.setDoctorId(null);
-                stub.putStringState(patientKey, gson.toJson(patient));
+                Ledger.put(stub, patientKey, patient);
             }
         }
+        Indexes.remove(stub, Indexes.DOCTOR_PATIENT, doctorId, patientId);
     }
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
     public void addRecordToDoctor(Context ctx, String doctorId, String recordId) {
         ChaincodeStub stub = ctx.getStub();
 
-        String doctorKey = DOCTOR_PREFIX + doctorId;
-        String doctorJson = stub.getStringState(doctorKey);
-        if (doctorJson == null || doctorJson.isEmpty()) {
+        if (!Ledger.exists(stub, DOCTOR_PREFIX + doctorId)) {
             throw new RuntimeException("Doctor not found: " + doctorId);
         }
-        Doctor doctor = gson.fromJson(doctorJson, Doctor.class);
-        if (doctor.getRecordIds() == null) doctor.setRecordIds(new ArrayList<>());
-        if (!doctor.getRecordIds().contains(recordId)) {
-            doctor.getRecordIds().add(recordId);
-            stub.putStringState(doctorKey, gson.toJson(doctor));
+
+        String recordKey = RECORD_PREFIX + recordId;
+        Record record = Ledger.get(stub, recordKey, Record.class);
+        if (record == null) {
+            throw new RuntimeException("Record not found: " + recordId);
+        }
+        String previousDoctorId = record.getDoctorId();
+        if (!doctorId.equals(previousDoctorId)) {
+            record.setDoctorId(doctorId);
+            Ledger.put(stub, recordKey, record);
+            Indexes.move(stub, Indexes.DOCTOR_RECORD, previousDoctorId, doctorId, recordId);
+        } else {
+            Indexes.add(stub, Indexes.DOCTOR_RECORD, doctorId, recordId);
         }
     }
     @Transaction(intent = Transaction.TYPE.SUBMIT)
     public void removeRecordFromDoctor(Context ctx, String doctorId, String recordId) {
         ChaincodeStub stub = ctx.getStub();
 
-        String doctorKey = DOCTOR_PREFIX + doctorId;
-        String doctorJson = stub.getStringState(doctorKey);
-        if (doctorJson == null || doctorJson.isEmpty()) {
+        if (!Ledger.exists(stub, DOCTOR_PREFIX + doctorId)) {
             throw new RuntimeException("Doctor not found: " + doctorId);
         }
-        Doctor doctor = gson.fromJson(doctorJson, Doctor.class);
-        if (doctor.getRecordIds() != null && doctor.getRecordIds().remove(recordId)) {
-            stub.putStringState(doctorKey, gson.toJson(doctor));
+
+        String recordKey = RECORD_PREFIX + recordId;
+        Record record = Ledger.get(stub, recordKey, Record.class);
+        if (record != null && doctorId.equals(record.getDoctorId())) {
+            record.setDoctorId(null);
+            Ledger.put(stub, recordKey, record);
         }
+        Indexes.remove(stub, Indexes.DOCTOR_RECORD, doctorId, recordId);
     }
 
 
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public String getAllDoctorsFast(Context ctx) {
-        ChaincodeStub stub = ctx.getStub();
-        List<Doctor> doctors = new ArrayList<>();
+        return JsonArrayResponse.ofRange(ctx.getStub(), gson, DOCTOR_PREFIX, DOCTOR_PREFIX + "~",
+                Doctor.class, "doctorId", Objects::nonNull);
+    }
 
-        try (QueryResultsIterator<KeyValue> results = stub.getStateByRange(DOCTOR_PREFIX, DOCTOR_PREFIX + "~")) {
-            for (KeyValue kv : results) {
-                try {
-                    Doctor doc = gson.fromJson(kv.getStringValue(), Doctor.class);
-                    if (doc != null && doc.getDoctorId() != null) {
-                        doctors.add(doc);
-                    }
-                } catch (JsonSyntaxException ignore) {}
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("Error fetching doctors: " + e.getMessage());
-        }
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String GetRecordsByDoctorFast(Context ctx, String doctorId) {
+        return GetRecordsByDoctor(ctx, doctorId);
+    }
 
-        return gson.toJson(doctors);
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String GetPatientsByDoctorFast(Context ctx, String doctorId) {
+        return GetPatientsByDoctor(ctx, doctorId);
     }
 
     @Transaction(intent = Transaction.TYPE.EVALUATE)
-    public String GetRecordsByDoctorFast(Context ctx, String doctorId) {
-        ChaincodeStub stub = ctx.getStub();
-        List<Record> records = new ArrayList<>();
+    public String getAllDoctorsPaged(Context ctx, int pageSize, String bookmark) {
+        return Pages.fetch(ctx.getStub(), gson, DOCTOR_PREFIX, pageSize, bookmark, Doctor.class,
+                "doctorId", Objects::nonNull);
+    }
 
-        try (QueryResultsIterator<KeyValue> results = stub.getStateByRange(RECORD_PREFIX, RECORD_PREFIX + "~")) {
-            for (KeyValue kv : results) {
-                try {
-                    Record record = gson.fromJson(kv.getStringValue(), Record.class);
-                    if (record != null && doctorId.equals(record.getDoctorId())) {
-                        records.add(record);
-                    }
-                } catch (JsonSyntaxException ignore) {}
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("Error fetching records: " + e.getMessage());
-        }
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String listDoctorIds(Context ctx, int pageSize, String bookmark) {
+        return Pages.fetchIds(ctx.getStub(), gson, DOCTOR_PREFIX, pageSize, bookmark);
+    }
 
-        return gson.toJson(records);
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String listDoctorSummaries(Context ctx, String fields, int pageSize, String bookmark) {
+        return Pages.fetchFields(ctx.getStub(), gson, DOCTOR_PREFIX, Doctor.class, Projection.fields(fields, SUMMARY_FIELDS),
+                pageSize, bookmark);
     }
 
     @Transaction(intent = Transaction.TYPE.EVALUATE)
-    public String GetPatientsByDoctorFast(Context ctx, String doctorId) {
-        ChaincodeStub stub = ctx.getStub();
-        List<Patient> patients = new ArrayList<>();
+    public long countDoctors(Context ctx) {
+        return Aggregates.count(ctx.getStub(), DOCTOR_PREFIX);
+    }
 
-        try (QueryResultsIterator<KeyValue> results = stub.getStateByRange(PATIENT_PREFIX, PATIENT_PREFIX + "~")) {
-            for (KeyValue kv : results) {
-                try {
-                    Patient patient = gson.fromJson(kv.getStringValue(), Patient.class);
-                    if (patient != null && doctorId.equals(patient.getDoctorId())) {
-                        patients.add(patient);
-                    }
-                } catch (JsonSyntaxException ignore) {}
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("Error retrieving patients: " + e.getMessage());
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public long countRecordsByDoctor(Context ctx, String doctorId) {
+        return Indexes.size(ctx.getStub(), Indexes.DOCTOR_RECORD, doctorId);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public long countPatientsByDoctor(Context ctx, String doctorId) {
+        return Indexes.count(ctx.getStub(), Indexes.DOCTOR_PATIENT, doctorId);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String listDoctorLinks(Context ctx, String doctorId, String entity, int pageSize, String bookmark) {
+        String index;
+        switch (entity == null ? "" : entity.toLowerCase()) {
+            case "patients": index = Indexes.DOCTOR_PATIENT; break;
+            case "records": index = Indexes.DOCTOR_RECORD; break;
+            case "prescriptions": index = Indexes.DOCTOR_PRESCRIPTION; break;
+            default: throw new RuntimeException("Unsupported entity for doctor links: " + entity);
         }
+        return Pages.fetchLinks(ctx.getStub(), gson, index, doctorId, pageSize, bookmark);
+    }
 
-        return gson.toJson(patients);
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getDoctorsByIds(Context ctx, String idsJson) {
+        ChaincodeStub stub = ctx.getStub();
+        return BatchRead.byIds(stub, gson, DOCTOR_PREFIX, Doctor.class, idsJson,
+                (id, doctor) -> Indexes.withLinks(stub, id, doctor, LINKED_LISTS));
     }
 }
@@ -3,16 +3,25 @@ package org.rishbootdev.chaincode.contracts;
 import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
 import org.hyperledger.fabric.contract.Context;
-import org.hyperledger.fabric.contract.ContractInterface;
 import org.hyperledger.fabric.contract.annotation.*;
-import org.hyperledger.fabric.shim.ledger.KeyValue;
 import org.hyperledger.fabric.shim.ChaincodeException;
 import org.hyperledger.fabric.shim.ChaincodeStub;
-import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.rishbootdev.chaincode.context.HealthContract;
+import org.rishbootdev.chaincode.index.Cascade;
+import org.rishbootdev.chaincode.index.Indexes;
+import org.rishbootdev.chaincode.json.JsonSupport;
+import org.rishbootdev.chaincode.query.Aggregates;
+import org.rishbootdev.chaincode.query.BatchRead;
+import org.rishbootdev.chaincode.query.JsonArrayResponse;
+import org.rishbootdev.chaincode.query.Pages;
+import org.rishbootdev.chaincode.query.Projection;
+import org.rishbootdev.chaincode.state.Ledger;
 import org.rishbootdev.chaincode.model.*;
 
 import java.util.ArrayList;
-import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
 
 @Contract(
         name = "HospitalContract",
@@ -23,15 +32,25 @@ import java.util.List;
         )
 )
 @Default
-public class HospitalContract implements ContractInterface {
+public class HospitalContract implements HealthContract {
 
-    private final Gson gson = new Gson();
+    private final Gson gson = JsonSupport.gson();
 
     private static final String HOSP_PREFIX = "HOSPITAL_";
     private static final String DOCTOR_PREFIX = "DOCTOR_";
     private static final String PATIENT_PREFIX = "PATIENT_";
     private static final String LAB_PREFIX = "LAB_";
     private static final String RECORD_PREFIX = "RECORD_";
+    private static final String SUMMARY_FIELDS = "hospitalId,name,address";
+
+    private static final Map<String, String> LINKED_LISTS = new LinkedHashMap<>();
+
+    static {
+        LINKED_LISTS.put("doctorIds", Indexes.HOSPITAL_DOCTOR);
+        LINKED_LISTS.put("patientIds", Indexes.HOSPITAL_PATIENT);
+        LINKED_LISTS.put("recordId", Indexes.HOSPITAL_RECORD);
+        LINKED_LISTS.put("labId", Indexes.HOSPITAL_LAB);
+    }
 
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
@@ -39,8 +58,7 @@ public class HospitalContract implements ContractInterface {
         ChaincodeStub stub = ctx.getStub();
         String key = HOSP_PREFIX + hospitalId;
 
-        String existing = stub.getStringState(key);
-        if (existing != null && !existing.isEmpty()) {
+        if (Ledger.exists(stub, key)) {
             throw new ChaincodeException("Hospital already exists with ID: " + hospitalId);
         }
 
@@ -55,21 +73,27 @@ public class HospitalContract implements ContractInterface {
                 new ArrayList<>()
         );
 
-        stub.putStringState(key, gson.toJson(hospital));
+        Ledger.put(stub, key, hospital);
         return hospital;
     }
 
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public Hospital readHospital(Context ctx, String hospitalId) {
         ChaincodeStub stub = ctx.getStub();
-        String key = HOSP_PREFIX + hospitalId;
+        Hospital hospital = loadHospital(ctx, hospitalId);
+        return new Hospital(hospital.getHospitalId(), hospital.getName(), hospital.getAddress(), hospital.getLicense(),
+                Indexes.ids(stub, Indexes.HOSPITAL_DOCTOR, hospitalId),
+                Indexes.ids(stub, Indexes.HOSPITAL_PATIENT, hospitalId),
+                Indexes.ids(stub, Indexes.HOSPITAL_RECORD, hospitalId),
+                Indexes.ids(stub, Indexes.HOSPITAL_LAB, hospitalId));
+    }
 
-        String hospitalJSON = stub.getStringState(key);
-        if (hospitalJSON == null || hospitalJSON.isEmpty()) {
+    private Hospital loadHospital(Context ctx, String hospitalId) {
+        Hospital hospital = Ledger.get(ctx.getStub(), HOSP_PREFIX + hospitalId, Hospital.class);
+        if (hospital == null) {
             throw new ChaincodeException("Hospital not found: " + hospitalId);
         }
-
-        return gson.fromJson(hospitalJSON, Hospital.class);
+        return hospital;
     }
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
@@ -77,33 +101,31 @@ public class HospitalContract implements ContractInterface {
         ChaincodeStub stub = ctx.getStub();
         String key = HOSP_PREFIX + hospitalId;
 
-        Hospital hospital = readHospital(ctx, hospitalId);
+        Hospital hospital = loadHospital(ctx, hospitalId);
         hospital.setName(name);
         hospital.setAddress(address);
 
-        stub.putStringState(key, gson.toJson(hospital));
+        Ledger.put(stub, key, hospital);
         return hospital;
     }
     @Transaction(intent = Transaction.TYPE.SUBMIT)
     public Hospital addDoctorToHospital(Context ctx, String hospitalId, String doctorId) {
         ChaincodeStub stub = ctx.getStub();
 
-        Hospital hospital = readHospital(ctx, hospitalId);
-        String doctorJSON = stub.getStringState(DOCTOR_PREFIX + doctorId);
-
-        if (doctorJSON == null || doctorJSON.isEmpty()) {
+        Hospital hospital = loadHospital(ctx, hospitalId);
+        Doctor doctor = Ledger.get(stub, DOCTOR_PREFIX + doctorId, Doctor.class);
+        if (doctor == null) {
             throw new ChaincodeException("Doctor not found: " + doctorId);
         }
 
-        Doctor doctor = gson.fromJson(doctorJSON, Doctor.class);
-
-        if (!hospital.getDoctorIds().contains(doctorId)) {
-            hospital.getDoctorIds().add(doctorId);
+        String previousHospitalId = doctor.getHospitalId();
+        if (!hospitalId.equals(previousHospitalId)) {
+            doctor.setHospitalId(hospitalId);
+            Ledger.put(stub, DOCTOR_PREFIX + doctorId, doctor);
+            Indexes.move(stub, Indexes.HOSPITAL_DOCTOR, previousHospitalId, hospitalId, doctorId);
+        } else {
+            Indexes.add(stub, Indexes.HOSPITAL_DOCTOR, hospitalId, doctorId);
         }
-        doctor.setHospitalId(hospitalId);
-
-        stub.putStringState(HOSP_PREFIX + hospitalId, gson.toJson(hospital));
-        stub.putStringState(DOCTOR_PREFIX + doctorId, gson.toJson(doctor));
 
         return hospital;
     }
@@ -112,22 +134,20 @@ public class HospitalContract implements ContractInterface {
     public Hospital addPatientToHospital(Context ctx, String hospitalId, String patientId) {
         ChaincodeStub stub = ctx.getStub();
 
-        Hospital hospital = readHospital(ctx, hospitalId);
-        String patientJSON = stub.getStringState(PATIENT_PREFIX + patientId);
-
-        if (patientJSON == null || patientJSON.isEmpty()) {
+        Hospital hospital = loadHospital(ctx, hospitalId);
+        Patient patient = Ledger.get(stub, PATIENT_PREFIX + patientId, Patient.class);
+        if (patient == null) {
             throw new ChaincodeException("Patient not found: " + patientId);
         }
 
-        Patient patient = gson.fromJson(patientJSON, Patient.class);
-
-        if (!hospital.getPatientIds().contains(patientId)) {
-            hospital.getPatientIds().add(patientId);
+        String previousHospitalId = patient.getHospitalId();
+        if (!hospitalId.equals(previousHospitalId)) {
+            patient.setHospitalId(hospitalId);
+            Ledger.put(stub, PATIENT_PREFIX + patientId, patient);
+            Indexes.move(stub, Indexes.HOSPITAL_PATIENT, previousHospitalId, hospitalId, patientId);
+        } else {
+            Indexes.add(stub, Indexes.HOSPITAL_PATIENT, hospitalId, patientId);
         }
-        patient.setHospitalId(hospitalId);
-
-        stub.putStringState(HOSP_PREFIX + hospitalId, gson.toJson(hospital));
-        stub.putStringState(PATIENT_PREFIX + patientId, gson.toJson(patient));
 
         return hospital;
     }
@@ -136,22 +156,20 @@ public class HospitalContract implements ContractInterface {
     public Hospital addRecordToHospital(Context ctx, String hospitalId, String recordId) {
         ChaincodeStub stub = ctx.getStub();
 
-        Hospital hospital = readHospital(ctx, hospitalId);
-        String recordJSON = stub.getStringState(RECORD_PREFIX + recordId);
-
-        if (recordJSON == null || recordJSON.isEmpty()) {
+        Hospital hospital = loadHospital(ctx, hospitalId);
+        org.rishbootdev.chaincode.model.Record record = Ledger.get(stub, RECORD_PREFIX + recordId, org.rishbootdev.chaincode.model.Record.class);
+        if (record == null) {
             throw new ChaincodeException("Record not found: " + recordId);
         }
 
-        org.rishbootdev.chaincode.model.Record record = gson.fromJson(recordJSON,  org.rishbootdev.chaincode.model.Record.class);
-
-        if (!hospital.getRecordIds().contains(recordId)) {
-            hospital.getRecordIds().add(recordId);
+        String previousHospitalId = record.getHospitalId();
+        if (!hospitalId.equals(previousHospitalId)) {
+            record.setHospitalId(hospitalId);
+            Ledger.put(stub, RECORD_PREFIX + recordId, record);
+            Indexes.move(stub, Indexes.HOSPITAL_RECORD, previousHospitalId, hospitalId, recordId);
+        } else {
+            Indexes.add(stub, Indexes.HOSPITAL_RECORD, hospitalId, recordId);
         }
-        record.setHospitalId(hospitalId);
-
-        stub.putStringState(HOSP_PREFIX + hospitalId, gson.toJson(hospital));
-        stub.putStringState(RECORD_PREFIX + recordId, gson.toJson(record));
 
         return hospital;
     }
@@ -163,26 +181,25 @@ public class HospitalContract implements ContractInterface {
         String hospitalKey = HOSP_PREFIX + hospitalId;
         String labKey = LAB_PREFIX + labId;
 
-        String hospitalJSON = stub.getStringState(hospitalKey);
-        if (hospitalJSON == null || hospitalJSON.isEmpty()) {
+        Hospital hospital = Ledger.get(stub, hospitalKey, Hospital.class);
+        if (hospital == null) {
             throw new ChaincodeException("Hospital not found: " + hospitalId);
         }
-        Hospital hospital = gson.fromJson(hospitalJSON, Hospital.class);
 
-        String labJSON = stub.getStringState(labKey);
-        if (labJSON == null || labJSON.isEmpty()) {
+        Lab lab = Ledger.get(stub, labKey, Lab.class);
+        if (lab == null) {
             throw new ChaincodeException("Lab not found: " + labId);
         }
-        Lab lab = gson.fromJson(labJSON, Lab.class);
 
-        if (!hospital.getLabIds().contains(labId)) {
-            hospital.getLabIds().add(labId);
+        String previousHospitalId = lab.getHospitalId();
+        if (!hospitalId.equals(previousHospitalId)) {
+            lab.setHospitalId(hospitalId);
+            Ledger.put(stub, labKey, lab);
+            Indexes.move(stub, Indexes.HOSPITAL_LAB, previousHospitalId, hospitalId, labId);
+        } else {
+            Indexes.add(stub, Indexes.HOSPITAL_LAB, hospitalId, labId);
         }
 
-        lab.setHospitalId(hospitalId);
-        stub.putStringState(hospitalKey, gson.toJson(hospital));
-        stub.putStringState(labKey, gson.toJson(lab));
-
         return hospital;
     }
 
@@ -196,21 +213,21 @@ public class HospitalContract implements ContractInterface {
         }
 
         String key = HOSP_PREFIX + hospital.getHospitalId();
-        String existing = stub.getStringState(key);
-        if (existing != null && !existing.isEmpty()) {
+        if (Ledger.exists(stub, key)) {
             throw new ChaincodeException("Hospital already exists: " + hospital.getHospitalId());
         }
 
-        stub.putStringState(key, gson.toJson(hospital));
+        Ledger.put(stub, key, withoutLinks(hospital));
     }
 
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public String getHospitalById(Context ctx, String hospitalId) {
-        String state = ctx.getStub().getStringState(HOSP_PREFIX + hospitalId);
-        if (state == null || state.isEmpty()) {
+        ChaincodeStub stub = ctx.getStub();
+        String state = Ledger.getJson(stub, HOSP_PREFIX + hospitalId, Hospital.class);
+        if (state == null) {
             throw new ChaincodeException("Hospital not found: " + hospitalId);
         }
-        return state;
+        return Indexes.withLinks(stub, hospitalId, state, LINKED_LISTS);
     }
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
@@ -219,12 +236,11 @@ public class HospitalContract implements ContractInterface {
         Hospital hospital = gson.fromJson(hospitalJson, Hospital.class);
 
         String key = HOSP_PREFIX + hospital.getHospitalId();
-        String existing = stub.getStringState(key);
-        if (existing == null || existing.isEmpty()) {
+        if (!Ledger.exists(stub, key)) {
             throw new ChaincodeException("Hospital not found: " + hospital.getHospitalId());
         }
 
-        stub.putStringState(key, gson.toJson(hospital));
+        Ledger.put(stub, key, withoutLinks(hospital));
     }
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
@@ -232,103 +248,98 @@ public class HospitalContract implements ContractInterface {
         ChaincodeStub stub = ctx.getStub();
         String key = HOSP_PREFIX + hospitalId;
 
-        String existing = stub.getStringState(key);
-        if (existing == null || existing.isEmpty()) {
+        if (!Ledger.exists(stub, key)) {
             throw new ChaincodeException("Hospital not found: " + hospitalId);
         }
 
         stub.delState(key);
     }
 
-    @Transaction(intent = Transaction.TYPE.EVALUATE)
-    public String getAllHospitals(Context ctx) {
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public CascadeResult deleteHospitalCascade(Context ctx, String hospitalId) {
+        return cascadeDelete(ctx, hospitalId, Cascade.unbounded(ctx.getStub()));
+    }
+
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public CascadeResult deleteHospitalCascadePage(Context ctx, String hospitalId, int pageSize) {
+        return cascadeDelete(ctx, hospitalId, Cascade.page(ctx.getStub(), pageSize));
+    }
+
+    private CascadeResult cascadeDelete(Context ctx, String hospitalId, Cascade cascade) {
         ChaincodeStub stub = ctx.getStub();
-        List<Hospital> hospitals = new ArrayList<>();
-
-        try (QueryResultsIterator<KeyValue> results = stub.getStateByRange(HOSP_PREFIX, HOSP_PREFIX + "z")) {
-            for (KeyValue kv : results) {
-                try {
-                    Hospital h = gson.fromJson(kv.getStringValue(), Hospital.class);
-                    if (h != null) hospitals.add(h);
-                } catch (JsonSyntaxException ignored) {}
+        boolean exists = Ledger.exists(stub, HOSP_PREFIX + hospitalId);
+        cascade.each(Indexes.HOSPITAL_DOCTOR, hospitalId, doctorId -> {
+            Doctor doctor = Ledger.get(stub, DOCTOR_PREFIX + doctorId, Doctor.class);
+            if (doctor != null && hospitalId.equals(doctor.getHospitalId())) {
+                doctor.setHospitalId(null);
+                Ledger.put(stub, DOCTOR_PREFIX + doctorId, doctor);
+            }
+        });
+        cascade.each(Indexes.HOSPITAL_PATIENT, hospitalId, patientId -> {
+            Patient patient = Ledger.get(stub, PATIENT_PREFIX + patientId, Patient.class);
+            if (patient != null && hospitalId.equals(patient.getHospitalId())) {
+                patient.setHospitalId(null);
+                Ledger.put(stub, PATIENT_PREFIX + patientId, patient);
+            }
+        });
+        cascade.each(Indexes.HOSPITAL_RECORD, hospitalId, recordId -> {
+            org.rishbootdev.chaincode.model.Record record =
+                    Ledger.get(stub, RECORD_PREFIX + recordId, org.rishbootdev.chaincode.model.Record.class);
+            if (record != null && hospitalId.equals(record.getHospitalId())) {
+                record.setHospitalId(null);
+                Ledger.put(stub, RECORD_PREFIX + recordId, record);
+            }
+        });
+        cascade.each(Indexes.HOSPITAL_LAB, hospitalId, labId -> {
+            Lab lab = Ledger.get(stub, LAB_PREFIX + labId, Lab.class);
+            if (lab != null && hospitalId.equals(lab.getHospitalId())) {
+                lab.setHospitalId(null);
+                Ledger.put(stub, LAB_PREFIX + labId, lab);
             }
-        } catch (Exception e) {
-            throw new ChaincodeException("Error retrieving hospitals: " + e.getMessage());
+        });
+        if (!exists && cascade.getProcessed() == 0) {
+            throw new ChaincodeException("Hospital not found: " + hospitalId);
+        }
+        if (exists && cascade.isComplete()) {
+            stub.delState(HOSP_PREFIX + hospitalId);
         }
+        return new CascadeResult(hospitalId, cascade.getProcessed(), cascade.isComplete());
+    }
 
-        return gson.toJson(hospitals);
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getAllHospitals(Context ctx) {
+        return JsonArrayResponse.ofRange(ctx.getStub(), gson, HOSP_PREFIX, HOSP_PREFIX + "z",
+                Hospital.class);
     }
 
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public String getDoctorsByHospital(Context ctx, String hospitalId) {
-        ChaincodeStub stub = ctx.getStub();
-        List<Doctor> doctors = new ArrayList<>();
-
-        try (QueryResultsIterator<KeyValue> results = stub.getStateByRange(DOCTOR_PREFIX, DOCTOR_PREFIX + "z")) {
-            for (KeyValue kv : results) {
-                Doctor doctor = gson.fromJson(kv.getStringValue(), Doctor.class);
-                if (doctor != null && hospitalId.equals(doctor.getHospitalId())) {
-                    doctors.add(doctor);
-                }
-            }
-        } catch (Exception e) {
-            throw new ChaincodeException("Error retrieving doctors: " + e.getMessage());
-        }
-        return gson.toJson(doctors);
+        return readIndexed(ctx.getStub(), Indexes.HOSPITAL_DOCTOR, hospitalId,
+                DOCTOR_PREFIX, Doctor.class);
     }
 
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public String getPatientsByHospital(Context ctx, String hospitalId) {
-        ChaincodeStub stub = ctx.getStub();
-        List<Patient> patients = new ArrayList<>();
-
-        try (QueryResultsIterator<KeyValue> results = stub.getStateByRange(PATIENT_PREFIX, PATIENT_PREFIX + "z")) {
-            for (KeyValue kv : results) {
-                Patient patient = gson.fromJson(kv.getStringValue(), Patient.class);
-                if (patient != null && hospitalId.equals(patient.getHospitalId())) {
-                    patients.add(patient);
-                }
-            }
-        } catch (Exception e) {
-            throw new ChaincodeException("Error retrieving patients: " + e.getMessage());
-        }
-        return gson.toJson(patients);
+        return readIndexed(ctx.getStub(), Indexes.HOSPITAL_PATIENT, hospitalId,
+                PATIENT_PREFIX, Patient.class);
     }
 
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public String getAllLabs(Context ctx) {
-        ChaincodeStub stub = ctx.getStub();
-        List<Lab> labs = new ArrayList<>();
-
-        try (QueryResultsIterator<KeyValue> results = stub.getStateByRange(LAB_PREFIX, LAB_PREFIX + "z")) {
-            for (KeyValue kv : results) {
-                Lab lab = gson.fromJson(kv.getStringValue(), Lab.class);
-                if (lab != null) {
-                    labs.add(lab);
-                }
-            }
-        } catch (Exception e) {
-            throw new ChaincodeException("Error retrieving labs: " + e.getMessage());
-        }
-        return gson.toJson(labs);
+        return JsonArrayResponse.ofRange(ctx.getStub(), gson, LAB_PREFIX, LAB_PREFIX + "z",
+                Lab.class);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getLabsByHospital(Context ctx, String hospitalId) {
+        return readIndexed(ctx.getStub(), Indexes.HOSPITAL_LAB, hospitalId,
+                LAB_PREFIX, Lab.class);
     }
 
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public String getRecordsByHospital(Context ctx, String hospitalId) {
-        ChaincodeStub stub = ctx.getStub();
-        List< org.rishbootdev.chaincode.model.Record> records = new ArrayList<>();
-
-        try (QueryResultsIterator<KeyValue> results = stub.getStateByRange(RECORD_PREFIX, RECORD_PREFIX + "z")) {
-            for (KeyValue kv : results) {
-                org.rishbootdev.chaincode.model.Record rec = gson.fromJson(kv.getStringValue(),  org.rishbootdev.chaincode.model.Record.class);
-                if (rec != null && hospitalId.equals(rec.getHospitalId())) {
-                    records.add(rec);
-                }
-            }
-        } catch (Exception e) {
-            throw new ChaincodeException("Error retrieving records: " + e.getMessage());
-        }
-        return gson.toJson(records);
+        return readIndexed(ctx.getStub(), Indexes.HOSPITAL_RECORD,
+                hospitalId, RECORD_PREFIX, org.rishbootdev.chaincode.model.Record.class);
     }
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
@@ -341,33 +352,109 @@ public class HospitalContract implements ContractInterface {
         }
 
         String key = HOSP_PREFIX + hospital.getHospitalId();
-        String existing = stub.getStringState(key);
-        if (existing != null && !existing.isEmpty()) {
+        if (Ledger.exists(stub, key)) {
             throw new ChaincodeException("Hospital already exists: " + hospital.getHospitalId());
         }
 
-        stub.putStringState(key, gson.toJson(hospital));
+        Ledger.put(stub, key, withoutLinks(hospital));
         return "Hospital registered successfully: " + hospital.getName();
     }
 
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public String getHospitalPatients(Context ctx) {
-        ChaincodeStub stub = ctx.getStub();
-        List<Patient> patients = new ArrayList<>();
-
-        try (QueryResultsIterator<KeyValue> results = stub.getStateByRange(PATIENT_PREFIX, PATIENT_PREFIX + "z")) {
-            for (KeyValue kv : results) {
-                try {
-                    Patient patient = gson.fromJson(kv.getStringValue(), Patient.class);
-                    if (patient != null && patient.getPatientId() != null) {
-                        patients.add(patient);
-                    }
-                } catch (JsonSyntaxException ignored) {}
-            }
-        } catch (Exception e) {
-            throw new ChaincodeException("Error retrieving hospital patients: " + e.getMessage());
+        return JsonArrayResponse.ofRange(ctx.getStub(), gson, PATIENT_PREFIX, PATIENT_PREFIX + "z",
+                Patient.class, "patientId", Objects::nonNull);
+    }
+
+    private String readIndexed(ChaincodeStub stub, String index, String hospitalId,
+                               String prefix, Class<?> type) {
+        JsonArrayResponse items = new JsonArrayResponse(gson);
+        for (String id : Indexes.ids(stub, index, hospitalId)) {
+            try {
+                items.addStored(Ledger.getStoredIf(stub, prefix + id, type, "hospitalId", hospitalId::equals), type);
+            } catch (JsonSyntaxException ignored) {}
+        }
+        return items.toJson();
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getAllHospitalsPaged(Context ctx, int pageSize, String bookmark) {
+        return Pages.fetch(ctx.getStub(), gson, HOSP_PREFIX, pageSize, bookmark, Hospital.class,
+                "hospitalId", Objects::nonNull);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String listHospitalIds(Context ctx, int pageSize, String bookmark) {
+        return Pages.fetchIds(ctx.getStub(), gson, HOSP_PREFIX, pageSize, bookmark);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String listHospitalSummaries(Context ctx, String fields, int pageSize, String bookmark) {
+        return Pages.fetchFields(ctx.getStub(), gson, HOSP_PREFIX, Hospital.class, Projection.fields(fields, SUMMARY_FIELDS),
+                pageSize, bookmark);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public long countHospitals(Context ctx) {
+        return Aggregates.count(ctx.getStub(), HOSP_PREFIX);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public long countDoctorsByHospital(Context ctx, String hospitalId) {
+        return Indexes.count(ctx.getStub(), Indexes.HOSPITAL_DOCTOR, hospitalId);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public long countPatientsByHospital(Context ctx, String hospitalId) {
+        return Indexes.size(ctx.getStub(), Indexes.HOSPITAL_PATIENT, hospitalId);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public long countRecordsByHospital(Context ctx, String hospitalId) {
+        return Indexes.count(ctx.getStub(), Indexes.HOSPITAL_RECORD, hospitalId);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public long countLabsByHospital(Context ctx, String hospitalId) {
+        return Indexes.count(ctx.getStub(), Indexes.HOSPITAL_LAB, hospitalId);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String countByHospital(Context ctx, String entity) {
+        return gson.toJson(Indexes.countByOwner(ctx.getStub(), linkIndex(entity)));
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String listHospitalLinks(Context ctx, String hospitalId, String entity, int pageSize, String bookmark) {
+        return Pages.fetchLinks(ctx.getStub(), gson, linkIndex(entity), hospitalId, pageSize, bookmark);
+    }
+
+    /**
+     * Links live in the edge store; lists sent in a hospital body are not
+     * stored, so the document stays small.
+     */
+    private static Hospital withoutLinks(Hospital hospital) {
+        hospital.setDoctorIds(new ArrayList<>());
+        hospital.setPatientIds(new ArrayList<>());
+        hospital.setRecordIds(new ArrayList<>());
+        hospital.setLabIds(new ArrayList<>());
+        return hospital;
+    }
+
+    private String linkIndex(String entity) {
+        switch (entity == null ? "" : entity.toLowerCase()) {
+            case "doctors": return Indexes.HOSPITAL_DOCTOR;
+            case "patients": return Indexes.HOSPITAL_PATIENT;
+            case "records": return Indexes.HOSPITAL_RECORD;
+            case "labs": return Indexes.HOSPITAL_LAB;
+            default: throw new ChaincodeException("Unsupported entity for grouping: " + entity);
         }
+    }
 
-        return gson.toJson(patients);
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getHospitalsByIds(Context ctx, String idsJson) {
+        ChaincodeStub stub = ctx.getStub();
+        return BatchRead.byIds(stub, gson, HOSP_PREFIX, Hospital.class, idsJson,
+                (id, hospital) -> Indexes.withLinks(stub, id, hospital, LINKED_LISTS));
     }
 }
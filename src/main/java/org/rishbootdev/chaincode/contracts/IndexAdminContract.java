@@ -0,0 +1,219 @@
+package org.rishbootdev.chaincode.contracts;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.contract.annotation.Contract;
+import org.hyperledger.fabric.contract.annotation.Info;
+import org.hyperledger.fabric.contract.annotation.Transaction;
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.rishbootdev.chaincode.context.HealthContract;
+import org.rishbootdev.chaincode.index.IndexDefinition;
+import org.rishbootdev.chaincode.index.IndexRegistry;
+import org.rishbootdev.chaincode.index.Indexes;
+import org.rishbootdev.chaincode.json.JsonSupport;
+import org.rishbootdev.chaincode.model.IndexJob;
+import org.rishbootdev.chaincode.state.Ledger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rebuilds secondary indexes over data that predates them. Each submit handles
+ * one bounded page and checkpoints the last key it reached, so a job over
+ * millions of keys is driven by repeated submits that each stay well inside
+ * the execution timeout.
+ *
+ * <p>Fabric rejects writes in a transaction that ran a paginated query, so
+ * pages are bounded reads over {@code getStateByRange} that resume from the
+ * stored key instead of from a pagination bookmark.</p>
+ *
+ * <p>The migrations that move embedded id lists into the edge store run the
+ * same way, as a backfill over the parent documents. A migration refuses to
+ * start until the owner-field indexes it relies on have been backfilled.</p>
+ *
+ * <p>A rebuild purges the whole index before backfilling it, so from its
+ * first page until the job is done the index is missing entries and queries
+ * served from it return partial results. Run rebuilds when those queries
+ * can tolerate that, or use {@code backfillIndex}, which only adds entries.</p>
+ *
+ * <p>Timestamps are transaction timestamps, so a job's timing fields measure
+ * the whole submit cycle, not the chaincode's own work on a page.</p>
+ *
+ * <p>Purging a counted edge set decrements its counters as it goes, so a
+ * rebuild leaves them exact. {@code recountIndex} resets one owner's counter
+ * from its edges, for data linked before the counter existed.</p>
+ */
+@Contract(
+        name = "IndexAdminContract",
+        info = @Info(
+                title = "IndexAdminContract",
+                description = "Backfills and rebuilds secondary indexes in resumable pages",
+                version = "1.0.0"
+        )
+)
+public class IndexAdminContract implements HealthContract {
+
+    private final Gson gson = JsonSupport.gson();
+
+    private static final String JOB_PREFIX = "INDEXJOB_";
+    private static final int DEFAULT_PAGE_SIZE = 200;
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String listIndexes(Context ctx) {
+        return gson.toJson(IndexRegistry.names());
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public IndexJob getIndexJob(Context ctx, String indexName) {
+        IndexRegistry.get(indexName);
+        IndexJob job = readJob(ctx.getStub(), indexName);
+        if (job == null) {
+            throw new ChaincodeException("No job for index: " + indexName);
+        }
+        return job;
+    }
+
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public IndexJob backfillIndex(Context ctx, String indexName, int pageSize) {
+        return runPage(ctx.getStub(), IndexRegistry.get(indexName), IndexJob.PHASE_BACKFILL, pageSize);
+    }
+
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public IndexJob rebuildIndex(Context ctx, String indexName, int pageSize) {
+        return runPage(ctx.getStub(), IndexRegistry.get(indexName), IndexJob.PHASE_PURGE, pageSize);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String listMigrations(Context ctx) {
+        return gson.toJson(IndexRegistry.migrationNames());
+    }
+
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public IndexJob migrateEmbeddedLinks(Context ctx, String migrationName, int pageSize) {
+        ChaincodeStub stub = ctx.getStub();
+        IndexDefinition migration = IndexRegistry.migration(migrationName);
+        for (String indexName : migration.getPrerequisites()) {
+            IndexJob job = readJob(stub, indexName);
+            if (job == null || !IndexJob.PHASE_DONE.equals(job.getPhase())) {
+                throw new ChaincodeException("Migration " + migrationName + " needs index " + indexName
+                        + " backfilled first");
+            }
+        }
+        return runPage(stub, migration, IndexJob.PHASE_BACKFILL, pageSize);
+    }
+
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public long recountIndex(Context ctx, String indexName, String owner) {
+        IndexRegistry.get(indexName);
+        if (!Indexes.isCounted(indexName)) {
+            throw new ChaincodeException("Index has no counter: " + indexName);
+        }
+        return Indexes.recount(ctx.getStub(), indexName, owner);
+    }
+
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public String resetIndexJob(Context ctx, String indexName) {
+        IndexRegistry.get(indexName);
+        ctx.getStub().delState(JOB_PREFIX + indexName);
+        return "Index job reset: " + indexName;
+    }
+
+    private IndexJob runPage(ChaincodeStub stub, IndexDefinition definition, String startPhase, int pageSize) {
+        int limit = pageSize <= 0 ? DEFAULT_PAGE_SIZE : Math.min(pageSize, MAX_PAGE_SIZE);
+        long now = stub.getTxTimestamp().toEpochMilli();
+
+        IndexJob job = readJob(stub, definition.getName());
+        if (job == null) {
+            job = new IndexJob();
+            job.setIndexName(definition.getName());
+            job.setPhase(startPhase);
+            job.setStartedAt(now);
+            job.setUpdatedAt(now);
+        }
+        if (IndexJob.PHASE_DONE.equals(job.getPhase())) {
+            return job;
+        }
+
+        int fetched;
+        int written = 0;
+        if (IndexJob.PHASE_PURGE.equals(job.getPhase())) {
+            fetched = purgePage(stub, definition, limit);
+            job.setPurged(job.getPurged() + fetched);
+            if (fetched < limit) {
+                job.setPhase(IndexJob.PHASE_BACKFILL);
+                job.setLastKey(null);
+            }
+        } else {
+            String prefix = definition.getSourcePrefix();
+            String start = job.getLastKey() == null ? prefix : job.getLastKey() + "\u0000";
+            List<KeyValue> page = readPage(stub, start, prefix + "\uFFFF", limit);
+            fetched = page.size();
+            for (KeyValue kv : page) {
+                try {
+                    written += definition.write(stub, kv.getValue());
+                } catch (JsonSyntaxException ignored) {}
+            }
+            if (!page.isEmpty()) {
+                job.setLastKey(page.get(page.size() - 1).getKey());
+            }
+            job.setProcessed(job.getProcessed() + fetched);
+            job.setWritten(job.getWritten() + written);
+            if (fetched < limit) {
+                job.setPhase(IndexJob.PHASE_DONE);
+            }
+        }
+
+        long total = now - job.getStartedAt();
+        job.setPages(job.getPages() + 1);
+        job.setLastPageFetched(fetched);
+        job.setLastPageWritten(written);
+        job.setMillisSincePreviousPage(now - job.getUpdatedAt());
+        job.setAverageKeysPerSecond(total > 0 ? (job.getProcessed() + job.getPurged()) * 1000L / total : 0);
+        job.setUpdatedAt(now);
+
+        Ledger.put(stub, JOB_PREFIX + definition.getName(), job);
+        return job;
+    }
+
+    private int purgePage(ChaincodeStub stub, IndexDefinition definition, int limit) {
+        List<String> keys = new ArrayList<>();
+        try (QueryResultsIterator<KeyValue> results = definition.openEntries(stub)) {
+            for (KeyValue kv : results) {
+                keys.add(kv.getKey());
+                if (keys.size() >= limit) break;
+            }
+        } catch (Exception e) {
+            throw new ChaincodeException("Error reading index " + definition.getName() + ": " + e.getMessage());
+        }
+        for (String key : keys) {
+            if (Indexes.isCounted(definition.getName())) {
+                Indexes.removeKey(stub, key);
+            } else {
+                stub.delState(key);
+            }
+        }
+        return keys.size();
+    }
+
+    private List<KeyValue> readPage(ChaincodeStub stub, String start, String end, int limit) {
+        List<KeyValue> page = new ArrayList<>();
+        try (QueryResultsIterator<KeyValue> results = stub.getStateByRange(start, end)) {
+            for (KeyValue kv : results) {
+                page.add(kv);
+                if (page.size() >= limit) break;
+            }
+        } catch (Exception e) {
+            throw new ChaincodeException("Error reading " + start + ": " + e.getMessage());
+        }
+        return page;
+    }
+
+    private IndexJob readJob(ChaincodeStub stub, String indexName) {
+        return Ledger.get(stub, JOB_PREFIX + indexName, IndexJob.class);
+    }
+}
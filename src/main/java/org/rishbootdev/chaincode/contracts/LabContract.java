@@ -3,16 +3,26 @@ package org.rishbootdev.chaincode.contracts;
 import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
 import org.hyperledger.fabric.contract.Context;
-import org.hyperledger.fabric.contract.ContractInterface;
 import org.hyperledger.fabric.contract.annotation.*;
 import org.hyperledger.fabric.shim.ChaincodeException;
 import org.hyperledger.fabric.shim.ChaincodeStub;
 import org.hyperledger.fabric.shim.ledger.KeyValue;
 import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.rishbootdev.chaincode.context.HealthContract;
+import org.rishbootdev.chaincode.index.Indexes;
+import org.rishbootdev.chaincode.json.JsonSupport;
+import org.rishbootdev.chaincode.query.Aggregates;
+import org.rishbootdev.chaincode.query.BatchRead;
+import org.rishbootdev.chaincode.query.Pages;
+import org.rishbootdev.chaincode.query.Projection;
+import org.rishbootdev.chaincode.state.Ledger;
 import org.rishbootdev.chaincode.model.*;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 @Contract(
         name = "LabContract",
@@ -23,48 +33,62 @@ import java.util.List;
         )
 )
 @Default
-public class LabContract implements ContractInterface {
+public class LabContract implements HealthContract {
 
-    private final Gson gson = new Gson();
+    private final Gson gson = JsonSupport.gson();
+    private static final String LAB_SUMMARY_FIELDS = "labId,name,hospitalId";
+    private static final String REPORT_SUMMARY_FIELDS = "reportId,patientId,labId,testType,testDate";
+    private static final Map<String, String> LINKED_LISTS = Collections.singletonMap("reportIds", Indexes.LAB_REPORT);
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
     public Lab createLab(Context ctx, String labId, String name, String hospitalId) {
         ChaincodeStub stub = ctx.getStub();
         String labKey = "LAB_" + labId;
-        if (!stub.getStringState(labKey).isEmpty()) {
+        if (Ledger.exists(stub, labKey)) {
             throw new ChaincodeException("Lab already exists with ID: " + labId);
         }
         Lab lab = new Lab(labId, name,hospitalId, new ArrayList<>());
-        stub.putStringState(labKey, gson.toJson(lab));
+        Ledger.put(stub, labKey, lab);
+        Indexes.add(stub, Indexes.HOSPITAL_LAB, hospitalId, labId);
         return lab;
     }
 
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public Lab readLab(Context ctx, String labId) {
-        String json = ctx.getStub().getStringState("LAB_" + labId);
-        if (json == null || json.isEmpty()) {
+        Lab lab = loadLab(ctx, labId);
+        return new Lab(lab.getLabId(), lab.getName(), lab.getHospitalId(),
+                Indexes.ids(ctx.getStub(), Indexes.LAB_REPORT, labId));
+    }
+
+    private Lab loadLab(Context ctx, String labId) {
+        Lab lab = Ledger.get(ctx.getStub(), "LAB_" + labId, Lab.class);
+        if (lab == null) {
             throw new ChaincodeException("Lab not found: " + labId);
         }
-        return gson.fromJson(json, Lab.class);
+        return lab;
     }
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
     public Lab updateLab(Context ctx, String labId, String name) {
-        Lab lab = readLab(ctx, labId);
+        Lab lab = loadLab(ctx, labId);
         lab.setName(name);
-        ctx.getStub().putStringState("LAB_" + labId, gson.toJson(lab));
+        Ledger.put(ctx.getStub(), "LAB_" + labId, lab);
         return lab;
     }
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
     public String deleteLab(Context ctx, String labId) {
         ChaincodeStub stub = ctx.getStub();
-        Lab lab = readLab(ctx, labId);
-        if (lab.getReportIds() != null) {
-            for (String reportId : lab.getReportIds()) {
-                stub.delState("REPORT_" + reportId);
+        Lab lab = loadLab(ctx, labId);
+        for (String reportId : Indexes.ids(stub, Indexes.LAB_REPORT, labId)) {
+            LabReport report = Ledger.get(stub, "REPORT_" + reportId, LabReport.class);
+            if (report != null) {
+                Indexes.remove(stub, Indexes.PATIENT_REPORT, report.getPatientId(), reportId);
             }
+            Indexes.remove(stub, Indexes.LAB_REPORT, labId, reportId);
+            stub.delState("REPORT_" + reportId);
         }
+        Indexes.remove(stub, Indexes.HOSPITAL_LAB, lab.getHospitalId(), labId);
         stub.delState("LAB_" + labId);
         return "Deleted Lab with ID: " + labId;
     }
@@ -76,7 +100,7 @@ public class LabContract implements ContractInterface {
         try (QueryResultsIterator<KeyValue> results = stub.getStateByRange("LAB_", "LAB_~")) {
             for (KeyValue kv : results) {
                 try {
-                    Lab lab = gson.fromJson(kv.getStringValue(), Lab.class);
+                    Lab lab = Ledger.get(kv, Lab.class);
                     if (lab != null && lab.getLabId() != null) {
                         labs.add(lab);
                     }
@@ -94,22 +118,21 @@ public class LabContract implements ContractInterface {
                                      String testDate, String remarks) {
         ChaincodeStub stub = ctx.getStub();
         String reportKey = "REPORT_" + reportId;
-        if (!stub.getStringState(reportKey).isEmpty()) {
+        if (Ledger.exists(stub, reportKey)) {
             throw new ChaincodeException("Lab Report already exists with ID: " + reportId);
         }
-        Lab lab = readLab(ctx, labId);
-        LabReport report = new LabReport(reportId, patientId, testType, testResult, labId, testDate, remarks);
-        if (!lab.getReportIds().contains(reportId)) {
-            lab.getReportIds().add(reportId);
+        if (!Ledger.exists(stub, "LAB_" + labId)) {
+            throw new ChaincodeException("Lab not found: " + labId);
         }
-        stub.putStringState("LAB_" + labId, gson.toJson(lab));
-        stub.putStringState(reportKey, gson.toJson(report));
+        LabReport report = new LabReport(reportId, patientId, testType, testResult, labId, testDate, remarks);
+        Ledger.put(stub, reportKey, report);
+        Indexes.add(stub, Indexes.LAB_REPORT, labId, reportId);
+        Indexes.add(stub, Indexes.PATIENT_REPORT, patientId, reportId);
 
-        String patientJSON = stub.getStringState("PATIENT_" + patientId);
-        if (patientJSON != null && !patientJSON.isEmpty()) {
-            Patient patient = gson.fromJson(patientJSON, Patient.class);
+        Patient patient = Ledger.get(stub, "PATIENT_" + patientId, Patient.class);
+        if (patient != null) {
             patient.setLabReportId(reportId);
-            stub.putStringState("PATIENT_" + patientId, gson.toJson(patient));
+            Ledger.put(stub, "PATIENT_" + patientId, patient);
         }
 
         return report;
@@ -117,11 +140,11 @@ public class LabContract implements ContractInterface {
 
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public LabReport readLabReport(Context ctx, String reportId) {
-        String json = ctx.getStub().getStringState("REPORT_" + reportId);
-        if (json == null || json.isEmpty()) {
+        LabReport labReport = Ledger.get(ctx.getStub(), "REPORT_" + reportId, LabReport.class);
+        if (labReport == null) {
             throw new ChaincodeException("Report not found: " + reportId);
         }
-        return gson.fromJson(json, LabReport.class);
+        return labReport;
     }
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
@@ -132,7 +155,8 @@ public class LabContract implements ContractInterface {
         report.setTestResult(testResult);
         report.setTestDate(testDate);
         report.setRemarks(remarks);
-        ctx.getStub().putStringState("REPORT_" + reportId, gson.toJson(report));
+        Ledger.put(ctx.getStub(), "REPORT_" + reportId, report);
+        Indexes.add(ctx.getStub(), Indexes.PATIENT_REPORT, report.getPatientId(), reportId);
         return report;
     }
 
@@ -140,13 +164,8 @@ public class LabContract implements ContractInterface {
     public String deleteLabReport(Context ctx, String reportId) {
         ChaincodeStub stub = ctx.getStub();
         LabReport report = readLabReport(ctx, reportId);
-        String labId = report.getLabId();
-        String labJSON = stub.getStringState("LAB_" + labId);
-        if (labJSON != null && !labJSON.isEmpty()) {
-            Lab lab = gson.fromJson(labJSON, Lab.class);
-            lab.getReportIds().remove(reportId);
-            stub.putStringState("LAB_" + labId, gson.toJson(lab));
-        }
+        Indexes.remove(stub, Indexes.LAB_REPORT, report.getLabId(), reportId);
+        Indexes.remove(stub, Indexes.PATIENT_REPORT, report.getPatientId(), reportId);
         stub.delState("REPORT_" + reportId);
         return "Deleted report with ID: " + reportId;
     }
@@ -158,7 +177,7 @@ public class LabContract implements ContractInterface {
         try (QueryResultsIterator<KeyValue> results = stub.getStateByRange("REPORT_", "REPORT_~")) {
             for (KeyValue kv : results) {
                 try {
-                    LabReport report = gson.fromJson(kv.getStringValue(), LabReport.class);
+                    LabReport report = Ledger.get(kv, LabReport.class);
                     if (report != null && report.getReportId() != null) {
                         reports.add(report);
                     }
@@ -173,32 +192,33 @@ public class LabContract implements ContractInterface {
     @Transaction(intent = Transaction.TYPE.SUBMIT)
     public Lab addReportToLab(Context ctx, String labId, String reportId) {
         ChaincodeStub stub = ctx.getStub();
-        Lab lab = readLab(ctx, labId);
+        Lab lab = loadLab(ctx, labId);
         LabReport report = readLabReport(ctx, reportId);
-        if (!lab.getReportIds().contains(reportId)) {
-            lab.getReportIds().add(reportId);
+        String previousLabId = report.getLabId();
+        if (!labId.equals(previousLabId)) {
+            report.setLabId(labId);
+            Ledger.put(stub, "REPORT_" + reportId, report);
+            Indexes.remove(stub, Indexes.LAB_REPORT, previousLabId, reportId);
         }
-        report.setLabId(labId);
-        stub.putStringState("LAB_" + labId, gson.toJson(lab));
-        stub.putStringState("REPORT_" + reportId, gson.toJson(report));
+        Indexes.add(stub, Indexes.LAB_REPORT, labId, reportId);
         return lab;
     }
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
     public String addLabToHospital(Context ctx, String hospitalId, String labId) {
         ChaincodeStub stub = ctx.getStub();
-        String hospitalJSON = stub.getStringState("HOSPITAL_" + hospitalId);
-        if (hospitalJSON == null || hospitalJSON.isEmpty()) {
+        if (!Ledger.exists(stub, "HOSPITAL_" + hospitalId)) {
             throw new ChaincodeException("Hospital not found: " + hospitalId);
         }
-        Hospital hospital = gson.fromJson(hospitalJSON, Hospital.class);
-        Lab lab = readLab(ctx, labId);
-        if (!hospital.getLabIds().contains(labId)) {
-            hospital.getLabIds().add(labId);
+        Lab lab = loadLab(ctx, labId);
+        String previousHospitalId = lab.getHospitalId();
+        if (!hospitalId.equals(previousHospitalId)) {
+            lab.setHospitalId(hospitalId);
+            Ledger.put(stub, "LAB_" + labId, lab);
+            Indexes.move(stub, Indexes.HOSPITAL_LAB, previousHospitalId, hospitalId, labId);
+        } else {
+            Indexes.add(stub, Indexes.HOSPITAL_LAB, hospitalId, labId);
         }
-        lab.setHospitalId(hospitalId);
-        stub.putStringState("HOSPITAL_" + hospitalId, gson.toJson(hospital));
-        stub.putStringState("LAB_" + labId, gson.toJson(lab));
         return "Added Lab " + labId + " to Hospital " + hospitalId;
     }
 
@@ -206,18 +226,83 @@ public class LabContract implements ContractInterface {
     public List<LabReport> getReportsByPatient(Context ctx, String patientId) {
         ChaincodeStub stub = ctx.getStub();
         List<LabReport> reports = new ArrayList<>();
-        try (QueryResultsIterator<KeyValue> results = stub.getStateByRange("REPORT_", "REPORT_~")) {
-            for (KeyValue kv : results) {
-                try {
-                    LabReport report = gson.fromJson(kv.getStringValue(), LabReport.class);
-                    if (report != null && patientId.equals(report.getPatientId())) {
-                        reports.add(report);
-                    }
-                } catch (JsonSyntaxException ignored) {}
-            }
-        } catch (Exception e) {
-            throw new ChaincodeException(e.getMessage());
+        for (String reportId : Indexes.ids(stub, Indexes.PATIENT_REPORT, patientId)) {
+            try {
+                LabReport report = Ledger.getIf(stub, "REPORT_" + reportId, LabReport.class, "patientId", patientId::equals);
+                if (report != null) {
+                    reports.add(report);
+                }
+            } catch (JsonSyntaxException ignored) {}
         }
         return reports;
     }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getAllLabsPaged(Context ctx, int pageSize, String bookmark) {
+        return Pages.fetch(ctx.getStub(), gson, "LAB_", pageSize, bookmark, Lab.class,
+                "labId", Objects::nonNull);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getAllLabReportsPaged(Context ctx, int pageSize, String bookmark) {
+        return Pages.fetch(ctx.getStub(), gson, "REPORT_", pageSize, bookmark, LabReport.class,
+                "reportId", Objects::nonNull);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String listLabIds(Context ctx, int pageSize, String bookmark) {
+        return Pages.fetchIds(ctx.getStub(), gson, "LAB_", pageSize, bookmark);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String listLabSummaries(Context ctx, String fields, int pageSize, String bookmark) {
+        return Pages.fetchFields(ctx.getStub(), gson, "LAB_", Lab.class, Projection.fields(fields, LAB_SUMMARY_FIELDS),
+                pageSize, bookmark);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String listLabReportIds(Context ctx, int pageSize, String bookmark) {
+        return Pages.fetchIds(ctx.getStub(), gson, "REPORT_", pageSize, bookmark);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String listLabReportSummaries(Context ctx, String fields, int pageSize, String bookmark) {
+        return Pages.fetchFields(ctx.getStub(), gson, "REPORT_", LabReport.class, Projection.fields(fields, REPORT_SUMMARY_FIELDS),
+                pageSize, bookmark);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public long countLabs(Context ctx) {
+        return Aggregates.count(ctx.getStub(), "LAB_");
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public long countLabReports(Context ctx) {
+        return Aggregates.count(ctx.getStub(), "REPORT_");
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public long countReportsByLab(Context ctx, String labId) {
+        if (!Ledger.exists(ctx.getStub(), "LAB_" + labId)) {
+            throw new ChaincodeException("Lab not found: " + labId);
+        }
+        return Indexes.size(ctx.getStub(), Indexes.LAB_REPORT, labId);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String listReportIdsByLab(Context ctx, String labId, int pageSize, String bookmark) {
+        return Pages.fetchLinks(ctx.getStub(), gson, Indexes.LAB_REPORT, labId, pageSize, bookmark);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getLabsByIds(Context ctx, String idsJson) {
+        ChaincodeStub stub = ctx.getStub();
+        return BatchRead.byIds(stub, gson, "LAB_", Lab.class, idsJson,
+                (id, lab) -> Indexes.withLinks(stub, id, lab, LINKED_LISTS));
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getLabReportsByIds(Context ctx, String idsJson) {
+        return BatchRead.byIds(ctx.getStub(), gson, "REPORT_", LabReport.class, idsJson);
+    }
 }
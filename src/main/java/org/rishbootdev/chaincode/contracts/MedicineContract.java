@@ -1,9 +1,10 @@
 package org.rishbootdev.chaincode.contracts;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 import com.google.gson.JsonSyntaxException;
 import org.hyperledger.fabric.contract.Context;
-import org.hyperledger.fabric.contract.ContractInterface;
 import org.hyperledger.fabric.contract.annotation.Contract;
 import org.hyperledger.fabric.contract.annotation.Default;
 import org.hyperledger.fabric.contract.annotation.Info;
@@ -12,11 +13,22 @@ import org.hyperledger.fabric.shim.ChaincodeStub;
 import org.hyperledger.fabric.shim.ledger.KeyValue;
 import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
 import org.hyperledger.fabric.shim.ChaincodeException;
+import org.rishbootdev.chaincode.context.HealthContract;
+import org.rishbootdev.chaincode.index.Indexes;
+import org.rishbootdev.chaincode.index.NameIndex;
+import org.rishbootdev.chaincode.json.JsonSupport;
+import org.rishbootdev.chaincode.query.Aggregates;
+import org.rishbootdev.chaincode.query.BatchRead;
+import org.rishbootdev.chaincode.query.Pages;
+import org.rishbootdev.chaincode.query.Projection;
 import org.rishbootdev.chaincode.model.Medicine;
 import org.rishbootdev.chaincode.model.Pharma;
+import org.rishbootdev.chaincode.state.DeltaCounter;
+import org.rishbootdev.chaincode.state.Ledger;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Contract(
         name = "MedicineContract",
@@ -27,11 +39,13 @@ import java.util.List;
         )
 )
 @Default
-public class MedicineContract implements ContractInterface {
+public class MedicineContract implements HealthContract {
 
-    private final Gson gson = new Gson();
+    private final Gson gson = JsonSupport.gson();
     private static final String MED_PREFIX = "MEDICINE_";
     private static final String PHARMA_PREFIX = "PHARMA_";
+    private static final String SUMMARY_FIELDS = "id,name,stock";
+    private static final int MAX_COMPACTED_DELTAS = 1000;
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
     public Medicine createMedicine(Context ctx, String medicineJson) {
@@ -42,35 +56,37 @@ public class MedicineContract implements ContractInterface {
         if (medicine.getId() == null || medicine.getId().isEmpty()) {
             throw new ChaincodeException("Medicine ID cannot be empty");
         }
-        if (!stub.getStringState(key).isEmpty()) {
+        if (Ledger.exists(stub, key)) {
             throw new ChaincodeException("Medicine already exists: " + medicine.getId());
         }
 
-        stub.putStringState(key, gson.toJson(medicine));
+        Ledger.put(stub, key, medicine);
+        NameIndex.add(stub, NameIndex.MEDICINE, medicine.getName(), medicine.getId());
         return medicine;
     }
 
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public Medicine readMedicine(Context ctx, String medicineId) {
         String key = MED_PREFIX + medicineId;
-        String json = ctx.getStub().getStringState(key);
-        if (json == null || json.isEmpty()) {
+        Medicine medicine = Ledger.get(ctx.getStub(), key, Medicine.class);
+        if (medicine == null) {
             throw new ChaincodeException("Medicine not found: " + medicineId);
         }
-        return gson.fromJson(json, Medicine.class);
+        return withPendingStock(ctx.getStub(), medicine);
     }
 
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public List<Medicine> getAllMedicines(Context ctx) {
         ChaincodeStub stub = ctx.getStub();
         List<Medicine> medicines = new ArrayList<>();
+        Map<String, Long> pending = DeltaCounter.pendingAll(stub, DeltaCounter.STOCK);
 
         try (QueryResultsIterator<KeyValue> results = stub.getStateByRange(MED_PREFIX, MED_PREFIX + "\uFFFF")) {
             for (KeyValue kv : results) {
                 try {
-                    Medicine med = gson.fromJson(kv.getStringValue(), Medicine.class);
+                    Medicine med = Ledger.get(kv, Medicine.class);
                     if (med != null && med.getId() != null) {
-                        medicines.add(med);
+                        medicines.add(withStockDelta(med, pending.getOrDefault(med.getId(), 0L)));
                     }
                 } catch (JsonSyntaxException ignored) {}
             }
@@ -89,12 +105,13 @@ public class MedicineContract implements ContractInterface {
         if (medicine.getId() == null || medicine.getId().isEmpty()) {
             throw new ChaincodeException("Medicine ID cannot be empty");
         }
-        String existing = stub.getStringState(key);
-        if (existing == null || existing.isEmpty()) {
+        Medicine previous = Ledger.get(stub, key, Medicine.class);
+        if (previous == null) {
             throw new ChaincodeException("Medicine not found: " + medicine.getId());
         }
-
-        stub.putStringState(key, gson.toJson(medicine));
+        discardPendingStock(stub, medicine.getId());
+        Ledger.put(stub, key, medicine);
+        NameIndex.move(stub, NameIndex.MEDICINE, previous.getName(), medicine.getName(), medicine.getId());
         return medicine;
     }
 
@@ -102,66 +119,100 @@ public class MedicineContract implements ContractInterface {
     public String deleteMedicine(Context ctx, String medicineId) {
         ChaincodeStub stub = ctx.getStub();
         String key = MED_PREFIX + medicineId;
-        String existing = stub.getStringState(key);
+        Medicine medicine = Ledger.get(stub, key, Medicine.class);
 
-        if (existing == null || existing.isEmpty()) {
+        if (medicine == null) {
             throw new ChaincodeException("Medicine not found: " + medicineId);
         }
 
-        try (QueryResultsIterator<KeyValue> results = stub.getStateByRange(PHARMA_PREFIX, PHARMA_PREFIX + "\uFFFF")) {
-            for (KeyValue kv : results) {
-                try {
-                    Pharma pharma = gson.fromJson(kv.getStringValue(), Pharma.class);
-                    if (pharma != null && pharma.getMedicineIds() != null &&
-                            pharma.getMedicineIds().contains(medicineId)) {
-                        pharma.getMedicineIds().remove(medicineId);
-                        stub.putStringState(PHARMA_PREFIX + pharma.getPharmaId(), gson.toJson(pharma));
-                    }
-                } catch (Exception ignored) {}
-            }
-        } catch (Exception e) {
-            throw new ChaincodeException(e.getMessage());
+        for (String pharmaId : Indexes.ids(stub, Indexes.MEDICINE_PHARMA, medicineId)) {
+            Indexes.remove(stub, Indexes.PHARMA_MEDICINE, pharmaId, medicineId);
+            Indexes.remove(stub, Indexes.MEDICINE_PHARMA, medicineId, pharmaId);
         }
-
+        discardPendingStock(stub, medicineId);
+        NameIndex.remove(stub, NameIndex.MEDICINE, medicine.getName(), medicineId);
         stub.delState(key);
         return "Deleted Medicine " + medicineId;
     }
 
     @Transaction(intent = Transaction.TYPE.EVALUATE)
-    public List<Medicine> searchMedicineByName(Context ctx, String name) throws Exception {
+    public List<Medicine> searchMedicineByName(Context ctx, String name) {
         ChaincodeStub stub = ctx.getStub();
-        List<Medicine> found = new ArrayList<>();
+        return readMedicines(stub, NameIndex.exact(stub, NameIndex.MEDICINE, name, NameIndex.MAX_LIMIT));
+    }
 
-        try (QueryResultsIterator<KeyValue> results = stub.getStateByRange(MED_PREFIX, MED_PREFIX + "\uFFFF")) {
-            for (KeyValue kv : results) {
-                try {
-                    Medicine med = gson.fromJson(kv.getStringValue(), Medicine.class);
-                    if (med != null && med.getName() != null &&
-                            med.getName().equalsIgnoreCase(name)) {
-                        found.add(med);
-                    }
-                } catch (Exception ignored) {}
-            }
-        }
-        if (found.isEmpty()) {
-            throw new ChaincodeException("No medicine found with name: " + name);
-        }
-        return found;
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public List<Medicine> searchMedicineByNamePrefix(Context ctx, String prefix, int limit) {
+        ChaincodeStub stub = ctx.getStub();
+        return readMedicines(stub, NameIndex.prefix(stub, NameIndex.MEDICINE, prefix, limit));
     }
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
     public Medicine updateMedicineStock(Context ctx, String medicineId, int newStock) {
         ChaincodeStub stub = ctx.getStub();
         String key = MED_PREFIX + medicineId;
-        String json = stub.getStringState(key);
+        Medicine med = Ledger.get(stub, key, Medicine.class);
+        if (med == null) {
+            throw new ChaincodeException("Medicine not found: " + medicineId);
+        }
+        discardPendingStock(stub, medicineId);
+        med.setStock(newStock);
+        Ledger.put(stub, key, med);
+        return med;
+    }
 
-        if (json == null || json.isEmpty()) {
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public String incrementMedicineStock(Context ctx, String medicineId, int quantity) {
+        ChaincodeStub stub = ctx.getStub();
+        if (quantity <= 0) {
+            throw new ChaincodeException("Quantity must be positive: " + quantity);
+        }
+        Medicine med = Ledger.get(stub, MED_PREFIX + medicineId, Medicine.class);
+        if (med == null) {
             throw new ChaincodeException("Medicine not found: " + medicineId);
         }
+        stockOf(medicineId, (long) med.getStock() + quantity);
+        DeltaCounter.add(stub, DeltaCounter.STOCK, medicineId, quantity);
+        return "Stock of " + medicineId + " increased by " + quantity;
+    }
 
-        Medicine med = gson.fromJson(json, Medicine.class);
-        med.setStock(newStock);
-        stub.putStringState(key, gson.toJson(med));
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public String decrementMedicineStock(Context ctx, String medicineId, int quantity, boolean requireNonNegative) {
+        ChaincodeStub stub = ctx.getStub();
+        if (quantity <= 0) {
+            throw new ChaincodeException("Quantity must be positive: " + quantity);
+        }
+        if (requireNonNegative) {
+            long available = readMedicine(ctx, medicineId).getStock();
+            if (available < quantity) {
+                throw new ChaincodeException("Insufficient stock for " + medicineId + ": " + available
+                        + " available, " + quantity + " requested");
+            }
+        } else if (!Ledger.exists(stub, MED_PREFIX + medicineId)) {
+            throw new ChaincodeException("Medicine not found: " + medicineId);
+        }
+        DeltaCounter.add(stub, DeltaCounter.STOCK, medicineId, -quantity);
+        return "Stock of " + medicineId + " decreased by " + quantity;
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public int getMedicineStock(Context ctx, String medicineId) {
+        return readMedicine(ctx, medicineId).getStock();
+    }
+
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public Medicine compactMedicineStock(Context ctx, String medicineId) {
+        ChaincodeStub stub = ctx.getStub();
+        String key = MED_PREFIX + medicineId;
+        Medicine med = Ledger.get(stub, key, Medicine.class);
+        if (med == null) {
+            throw new ChaincodeException("Medicine not found: " + medicineId);
+        }
+        DeltaCounter.Folded folded = DeltaCounter.fold(stub, DeltaCounter.STOCK, medicineId, MAX_COMPACTED_DELTAS);
+        if (folded.getCount() > 0) {
+            med.setStock(stockOf(medicineId, med.getStock() + folded.getSum()));
+            Ledger.put(stub, key, med);
+        }
         return med;
     }
 
@@ -172,22 +223,17 @@ public class MedicineContract implements ContractInterface {
         String pharmaKey = PHARMA_PREFIX + pharmaId;
         String medKey = MED_PREFIX + medicineId;
 
-        String pharmaJson = stub.getStringState(pharmaKey);
-        if (pharmaJson == null || pharmaJson.isEmpty()) {
+        Pharma pharma = Ledger.get(stub, pharmaKey, Pharma.class);
+        if (pharma == null) {
             throw new ChaincodeException("Pharma not found: " + pharmaId);
         }
 
-        String medJson = stub.getStringState(medKey);
-        if (medJson == null || medJson.isEmpty()) {
+        if (!Ledger.exists(stub, medKey)) {
             throw new ChaincodeException("Medicine not found: " + medicineId);
         }
 
-        Pharma pharma = gson.fromJson(pharmaJson, Pharma.class);
-        if (!pharma.getMedicineIds().contains(medicineId)) {
-            pharma.getMedicineIds().add(medicineId);
-        }
-
-        stub.putStringState(pharmaKey, gson.toJson(pharma));
+        Indexes.add(stub, Indexes.PHARMA_MEDICINE, pharmaId, medicineId);
+        Indexes.add(stub, Indexes.MEDICINE_PHARMA, medicineId, pharmaId);
         return pharma;
     }
 
@@ -195,15 +241,12 @@ public class MedicineContract implements ContractInterface {
     public Pharma removeMedicineFromPharma(Context ctx, String pharmaId, String medicineId) {
         ChaincodeStub stub = ctx.getStub();
         String pharmaKey = PHARMA_PREFIX + pharmaId;
-        String pharmaJson = stub.getStringState(pharmaKey);
-
-        if (pharmaJson == null || pharmaJson.isEmpty()) {
+        Pharma pharma = Ledger.get(stub, pharmaKey, Pharma.class);
+        if (pharma == null) {
             throw new ChaincodeException("Pharma not found: " + pharmaId);
         }
-
-        Pharma pharma = gson.fromJson(pharmaJson, Pharma.class);
-        pharma.getMedicineIds().remove(medicineId);
-        stub.putStringState(pharmaKey, gson.toJson(pharma));
+        Indexes.remove(stub, Indexes.PHARMA_MEDICINE, pharmaId, medicineId);
+        Indexes.remove(stub, Indexes.MEDICINE_PHARMA, medicineId, pharmaId);
         return pharma;
     }
 
@@ -211,22 +254,153 @@ public class MedicineContract implements ContractInterface {
     public List<Medicine> getMedicinesByPharma(Context ctx, String pharmaId) {
         ChaincodeStub stub = ctx.getStub();
         String pharmaKey = PHARMA_PREFIX + pharmaId;
-        String pharmaJson = stub.getStringState(pharmaKey);
-
-        if (pharmaJson == null || pharmaJson.isEmpty()) {
+        if (!Ledger.exists(stub, pharmaKey)) {
             throw new ChaincodeException("Pharma not found: " + pharmaId);
         }
-
-        Pharma pharma = gson.fromJson(pharmaJson, Pharma.class);
         List<Medicine> medicines = new ArrayList<>();
 
-        for (String medId : pharma.getMedicineIds()) {
-            String medJson = stub.getStringState(MED_PREFIX + medId);
-            if (medJson != null && !medJson.isEmpty()) {
-                medicines.add(gson.fromJson(medJson, Medicine.class));
+        for (String medId : Indexes.ids(stub, Indexes.PHARMA_MEDICINE, pharmaId)) {
+            Medicine medicine = Ledger.get(stub, MED_PREFIX + medId, Medicine.class);
+            if (medicine != null) {
+                medicines.add(withPendingStock(stub, medicine));
+            }
+        }
+
+        return medicines;
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public List<Pharma> getPharmasForMedicine(Context ctx, String medicineId) {
+        ChaincodeStub stub = ctx.getStub();
+        List<Pharma> pharmas = new ArrayList<>();
+
+        for (String pharmaId : Indexes.ids(stub, Indexes.MEDICINE_PHARMA, medicineId)) {
+            try {
+                Pharma pharma = Ledger.get(stub, PHARMA_PREFIX + pharmaId, Pharma.class);
+                if (pharma != null) {
+                    pharmas.add(pharma);
+                }
+            } catch (JsonSyntaxException ignored) {}
+        }
+
+        return pharmas;
+    }
+
+    /**
+     * Stock is the stored base plus deltas from increments and decrements
+     * not yet compacted. Every read adds them: single reads look up the
+     * medicine's own deltas, and scans over all medicines read every delta
+     * once. The result is a copy, so the cached entity keeps its stored base.
+     */
+    static Medicine withPendingStock(ChaincodeStub stub, Medicine medicine) {
+        return withStockDelta(medicine, DeltaCounter.pending(stub, DeltaCounter.STOCK, medicine.getId()));
+    }
+
+    /**
+     * Drops the pending deltas of a medicine whose stock is being replaced.
+     * Bounded like compaction, so a medicine with more deltas than one
+     * transaction should touch must be compacted first.
+     */
+    private static void discardPendingStock(ChaincodeStub stub, String medicineId) {
+        if (DeltaCounter.fold(stub, DeltaCounter.STOCK, medicineId, MAX_COMPACTED_DELTAS).hasRemaining()) {
+            throw new ChaincodeException("Medicine " + medicineId + " has more than " + MAX_COMPACTED_DELTAS
+                    + " pending stock changes; run compactMedicineStock first");
+        }
+    }
+
+    private static Medicine withStockDelta(Medicine medicine, long pending) {
+        return new Medicine(medicine.getName(), medicine.getId(), medicine.getManufacturer(),
+                medicine.getDosage(), stockOf(medicine.getId(), medicine.getStock() + pending),
+                medicine.getExpiryDate());
+    }
+
+    /**
+     * Checks that a stock level fits the model's {@code int}. Increments are
+     * only checked against the stored base, since reading the pending deltas
+     * would make concurrent increments conflict, so deltas can still add up
+     * past the bound; reads and compaction then fail here until the stock is
+     * reset with {@code updateMedicineStock}.
+     */
+    private static int stockOf(String medicineId, long stock) {
+        if (stock > Integer.MAX_VALUE || stock < Integer.MIN_VALUE) {
+            throw new ChaincodeException("Stock of " + medicineId + " is out of range: " + stock
+                    + "; reset it with updateMedicineStock");
+        }
+        return (int) stock;
+    }
+
+    private static JsonObject withPendingStock(ChaincodeStub stub, String medicineId, JsonObject medicine) {
+        JsonElement stock = medicine.get("stock");
+        if (stock != null && stock.isJsonPrimitive() && stock.getAsJsonPrimitive().isNumber()) {
+            long pending = DeltaCounter.pending(stub, DeltaCounter.STOCK, medicineId);
+            if (pending != 0) {
+                medicine.addProperty("stock", stockOf(medicineId, stock.getAsLong() + pending));
             }
         }
+        return medicine;
+    }
 
+    private List<Medicine> readMedicines(ChaincodeStub stub, List<String> medicineIds) {
+        List<Medicine> medicines = new ArrayList<>();
+        for (String medicineId : medicineIds) {
+            try {
+                Medicine med = Ledger.get(stub, MED_PREFIX + medicineId, Medicine.class);
+                if (med != null) {
+                    medicines.add(withPendingStock(stub, med));
+                }
+            } catch (JsonSyntaxException ignored) {}
+        }
         return medicines;
     }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getAllMedicinesPaged(Context ctx, int pageSize, String bookmark) {
+        ChaincodeStub stub = ctx.getStub();
+        return Pages.fetchAdjusted(stub, gson, MED_PREFIX, pageSize, bookmark, Medicine.class,
+                (id, medicine) -> medicine.has("id") && !medicine.get("id").isJsonNull()
+                        ? withPendingStock(stub, id, medicine) : null);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String listMedicineIds(Context ctx, int pageSize, String bookmark) {
+        return Pages.fetchIds(ctx.getStub(), gson, MED_PREFIX, pageSize, bookmark);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String listMedicineSummaries(Context ctx, String fields, int pageSize, String bookmark) {
+        ChaincodeStub stub = ctx.getStub();
+        return Pages.fetchFields(stub, gson, MED_PREFIX, Medicine.class, Projection.fields(fields, SUMMARY_FIELDS),
+                pageSize, bookmark, (id, medicine) -> withPendingStock(stub, id, medicine));
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public long countMedicines(Context ctx) {
+        return Aggregates.count(ctx.getStub(), MED_PREFIX);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getMedicineStockStats(Context ctx) {
+        ChaincodeStub stub = ctx.getStub();
+        return gson.toJson(Aggregates.intStats(stub, MED_PREFIX, Medicine.class, "stock",
+                DeltaCounter.pendingAll(stub, DeltaCounter.STOCK)));
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public long countMedicinesBelowStock(Context ctx, int threshold) {
+        ChaincodeStub stub = ctx.getStub();
+        return Aggregates.countBelow(stub, MED_PREFIX, Medicine.class, "stock", threshold,
+                DeltaCounter.pendingAll(stub, DeltaCounter.STOCK));
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public long countPharmasForMedicine(Context ctx, String medicineId) {
+        return Indexes.count(ctx.getStub(), Indexes.MEDICINE_PHARMA, medicineId);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getMedicinesByIds(Context ctx, String idsJson) {
+        ChaincodeStub stub = ctx.getStub();
+        return BatchRead.byIds(stub, gson, MED_PREFIX, Medicine.class, idsJson,
+                (id, medicine) -> withPendingStock(stub, id, medicine));
+    }
 }
@@ -3,7 +3,6 @@ package org.rishbootdev.chaincode.contracts;
 import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
 import org.hyperledger.fabric.contract.Context;
-import org.hyperledger.fabric.contract.ContractInterface;
 import org.hyperledger.fabric.contract.annotation.Contract;
 import org.hyperledger.fabric.contract.annotation.Default;
 import org.hyperledger.fabric.contract.annotation.Info;
@@ -12,13 +11,24 @@ import org.hyperledger.fabric.shim.ChaincodeException;
 import org.hyperledger.fabric.shim.ChaincodeStub;
 import org.hyperledger.fabric.shim.ledger.KeyValue;
 import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.rishbootdev.chaincode.context.HealthContract;
+import org.rishbootdev.chaincode.index.Cascade;
+import org.rishbootdev.chaincode.index.Indexes;
+import org.rishbootdev.chaincode.json.JsonSupport;
+import org.rishbootdev.chaincode.query.Aggregates;
+import org.rishbootdev.chaincode.query.BatchRead;
+import org.rishbootdev.chaincode.query.JsonArrayResponse;
+import org.rishbootdev.chaincode.query.Pages;
+import org.rishbootdev.chaincode.query.Projection;
+import org.rishbootdev.chaincode.model.CascadeResult;
 import org.rishbootdev.chaincode.model.Patient;
 import org.rishbootdev.chaincode.model.LabReport;
-import org.rishbootdev.chaincode.model.Doctor;
-import org.rishbootdev.chaincode.model.Hospital;
+import org.rishbootdev.chaincode.state.Ledger;
 
 import java.util.ArrayList;
-import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
 
 @Contract(
         name = "PatientContract",
@@ -29,14 +39,27 @@ import java.util.List;
         )
 )
 @Default
-public class PatientContract implements ContractInterface {
+public class PatientContract implements HealthContract {
 
-    private final Gson gson = new Gson();
+    private final Gson gson = JsonSupport.gson();
+    private final RecordContract records = new RecordContract();
+    private final PrescriptionContract prescriptions = new PrescriptionContract();
+    private final LabContract labs = new LabContract();
 
     private static final String PATIENT_PREFIX = "PATIENT_";
     private static final String REPORT_PREFIX = "REPORT_";
+    private static final String RECORD_PREFIX = "RECORD_";
+    private static final String PRESC_PREFIX = "PRESC_";
     private static final String DOCTOR_PREFIX = "DOCTOR_";
     private static final String HOSPITAL_PREFIX = "HOSPITAL_";
+    private static final String SUMMARY_FIELDS = "patientId,name,hospitalId,doctorId";
+
+    private static final Map<String, String> LINKED_LISTS = new LinkedHashMap<>();
+
+    static {
+        LINKED_LISTS.put("prescriptionIds", Indexes.PATIENT_PRESCRIPTION);
+        LINKED_LISTS.put("recordIds", Indexes.PATIENT_RECORD);
+    }
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
     public void createPatient(Context ctx, String patientJson) {
@@ -46,20 +69,23 @@ public class PatientContract implements ContractInterface {
             throw new ChaincodeException("Patient ID cannot be empty");
         }
         String key = PATIENT_PREFIX + patient.getPatientId();
-        if (!stub.getStringState(key).isEmpty()) {
+        if (Ledger.exists(stub, key)) {
             throw new ChaincodeException("Patient already exists: " + patient.getPatientId());
         }
-        stub.putStringState(key, gson.toJson(patient));
+        Ledger.put(stub, key, withoutLinks(patient));
+        Indexes.add(stub, Indexes.DOCTOR_PATIENT, patient.getDoctorId(), patient.getPatientId());
+        Indexes.add(stub, Indexes.HOSPITAL_PATIENT, patient.getHospitalId(), patient.getPatientId());
     }
 
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public String getPatient(Context ctx, String patientId) {
+        ChaincodeStub stub = ctx.getStub();
         String key = PATIENT_PREFIX + patientId;
-        String state = ctx.getStub().getStringState(key);
-        if (state == null || state.isEmpty()) {
+        String state = Ledger.getJson(stub, key, Patient.class);
+        if (state == null) {
             throw new ChaincodeException("Patient not found: " + patientId);
         }
-        return state;
+        return Indexes.withLinks(stub, patientId, state, LINKED_LISTS);
     }
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
@@ -67,49 +93,89 @@ public class PatientContract implements ContractInterface {
         ChaincodeStub stub = ctx.getStub();
         Patient updated = gson.fromJson(patientJson, Patient.class);
         String key = PATIENT_PREFIX + updated.getPatientId();
-        if (stub.getStringState(key).isEmpty()) {
+        Patient previous = Ledger.get(stub, key, Patient.class);
+        if (previous == null) {
             throw new ChaincodeException("Patient not found: " + updated.getPatientId());
         }
-        stub.putStringState(key, gson.toJson(updated));
+        Ledger.put(stub, key, withoutLinks(updated));
+        Indexes.move(stub, Indexes.DOCTOR_PATIENT, previous.getDoctorId(), updated.getDoctorId(), updated.getPatientId());
+        Indexes.move(stub, Indexes.HOSPITAL_PATIENT, previous.getHospitalId(), updated.getHospitalId(), updated.getPatientId());
     }
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
     public void deletePatient(Context ctx, String patientId) {
         ChaincodeStub stub = ctx.getStub();
         String key = PATIENT_PREFIX + patientId;
-        if (stub.getStringState(key).isEmpty()) {
+        Patient patient = Ledger.get(stub, key, Patient.class);
+        if (patient == null) {
             throw new ChaincodeException("Patient not found: " + patientId);
         }
-        try (QueryResultsIterator<KeyValue> results = stub.getStateByRange(REPORT_PREFIX, REPORT_PREFIX + "\uFFFF")) {
-            for (KeyValue kv : results) {
-                LabReport report = gson.fromJson(kv.getStringValue(), LabReport.class);
-                if (report != null && patientId.equals(report.getPatientId())) {
-                    stub.delState(kv.getKey());
-                }
+        for (String reportId : Indexes.ids(stub, Indexes.PATIENT_REPORT, patientId)) {
+            String reportKey = REPORT_PREFIX + reportId;
+            LabReport report = Ledger.get(stub, reportKey, LabReport.class);
+            if (report != null && patientId.equals(report.getPatientId())) {
+                Indexes.remove(stub, Indexes.LAB_REPORT, report.getLabId(), reportId);
+                stub.delState(reportKey);
             }
-        } catch (Exception e) {
-            throw new ChaincodeException("Error while deleting patient reports: " + e.getMessage());
+            Indexes.remove(stub, Indexes.PATIENT_REPORT, patientId, reportId);
         }
+        Indexes.remove(stub, Indexes.DOCTOR_PATIENT, patient.getDoctorId(), patientId);
+        Indexes.remove(stub, Indexes.HOSPITAL_PATIENT, patient.getHospitalId(), patientId);
         stub.delState(key);
     }
 
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public CascadeResult deletePatientCascade(Context ctx, String patientId) {
+        return cascadeDelete(ctx, patientId, Cascade.unbounded(ctx.getStub()));
+    }
+
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public CascadeResult deletePatientCascadePage(Context ctx, String patientId, int pageSize) {
+        return cascadeDelete(ctx, patientId, Cascade.page(ctx.getStub(), pageSize));
+    }
+
+    private CascadeResult cascadeDelete(Context ctx, String patientId, Cascade cascade) {
+        ChaincodeStub stub = ctx.getStub();
+        boolean exists = Ledger.exists(stub, PATIENT_PREFIX + patientId);
+        cascade.each(Indexes.PATIENT_RECORD, patientId, recordId -> {
+            if (Ledger.exists(stub, RECORD_PREFIX + recordId)) {
+                records.deletePatientRecord(ctx, recordId);
+            }
+        });
+        cascade.each(Indexes.PATIENT_PRESCRIPTION, patientId, prescriptionId -> {
+            if (Ledger.exists(stub, PRESC_PREFIX + prescriptionId)) {
+                prescriptions.deletePrescription(ctx, prescriptionId);
+            }
+        });
+        cascade.each(Indexes.PATIENT_REPORT, patientId, reportId -> {
+            if (Ledger.exists(stub, REPORT_PREFIX + reportId)) {
+                labs.deleteLabReport(ctx, reportId);
+            }
+        });
+        if (!exists && cascade.getProcessed() == 0) {
+            throw new ChaincodeException("Patient not found: " + patientId);
+        }
+        if (exists && cascade.isComplete()) {
+            deletePatient(ctx, patientId);
+        }
+        return new CascadeResult(patientId, cascade.getProcessed(), cascade.isComplete());
+    }
+
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public String getAllPatients(Context ctx) {
         ChaincodeStub stub = ctx.getStub();
-        List<Patient> patients = new ArrayList<>();
+        JsonArrayResponse patients = new JsonArrayResponse(gson);
         try (QueryResultsIterator<KeyValue> results = stub.getStateByRange(PATIENT_PREFIX, PATIENT_PREFIX + "\uFFFF")) {
             for (KeyValue kv : results) {
                 try {
-                    Patient patient = gson.fromJson(kv.getStringValue(), Patient.class);
-                    if (patient != null && patient.getPatientId() != null) {
-                        patients.add(patient);
-                    }
+                    patients.addStored(Ledger.getStoredIf(kv, Patient.class, "patientId",
+                            Objects::nonNull), Patient.class);
                 } catch (JsonSyntaxException ignored) {}
             }
         } catch (Exception e) {
             throw new ChaincodeException("Error fetching all patients: " + e.getMessage());
         }
-        return gson.toJson(patients);
+        return patients.toJson();
     }
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
@@ -117,46 +183,34 @@ public class PatientContract implements ContractInterface {
         ChaincodeStub stub = ctx.getStub();
         String patientKey = PATIENT_PREFIX + patientId;
         String doctorKey = DOCTOR_PREFIX + doctorId;
-        String patientJson = stub.getStringState(patientKey);
-        String doctorJson = stub.getStringState(doctorKey);
-        if (patientJson.isEmpty())
+        Patient patient = Ledger.get(stub, patientKey, Patient.class);
+        if (patient == null)
             throw new ChaincodeException("Patient not found: " + patientId);
-        if (doctorJson.isEmpty())
+        if (!Ledger.exists(stub, doctorKey))
             throw new ChaincodeException("Doctor not found: " + doctorId);
-
-        Patient patient = gson.fromJson(patientJson, Patient.class);
-        Doctor doctor = gson.fromJson(doctorJson, Doctor.class);
-        patient.setDoctorId(doctorId);
-        stub.putStringState(patientKey, gson.toJson(patient));
-        List<String> patientIds = doctor.getPatientIds();
-        if (!patientIds.contains(patientId)) {
-            patientIds.add(patientId);
-            doctor.setPatientIds(patientIds);
+        String previousDoctorId = patient.getDoctorId();
+        if (!doctorId.equals(previousDoctorId)) {
+            patient.setDoctorId(doctorId);
+            Ledger.put(stub, patientKey, patient);
+            Indexes.move(stub, Indexes.DOCTOR_PATIENT, previousDoctorId, doctorId, patientId);
+        } else {
+            Indexes.add(stub, Indexes.DOCTOR_PATIENT, doctorId, patientId);
         }
-        stub.putStringState(doctorKey, gson.toJson(doctor));
     }
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
     public void removeDoctorFromPatient(Context ctx, String patientId) {
         ChaincodeStub stub = ctx.getStub();
         String patientKey = PATIENT_PREFIX + patientId;
-        String patientJson = stub.getStringState(patientKey);
-        if (patientJson.isEmpty())
+        Patient patient = Ledger.get(stub, patientKey, Patient.class);
+        if (patient == null)
             throw new ChaincodeException("Patient not found: " + patientId);
-
-        Patient patient = gson.fromJson(patientJson, Patient.class);
         String doctorId = patient.getDoctorId();
         if (doctorId != null) {
-            String doctorKey = DOCTOR_PREFIX + doctorId;
-            String doctorJson = stub.getStringState(doctorKey);
-            if (!doctorJson.isEmpty()) {
-                Doctor doctor = gson.fromJson(doctorJson, Doctor.class);
-                doctor.getPatientIds().remove(patientId);
-                stub.putStringState(doctorKey, gson.toJson(doctor));
-            }
+            Indexes.remove(stub, Indexes.DOCTOR_PATIENT, doctorId, patientId);
         }
         patient.setDoctorId(null);
-        stub.putStringState(patientKey, gson.toJson(patient));
+        Ledger.put(stub, patientKey, patient);
     }
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
@@ -164,95 +218,153 @@ public class PatientContract implements ContractInterface {
         ChaincodeStub stub = ctx.getStub();
         String patientKey = PATIENT_PREFIX + patientId;
         String hospitalKey = HOSPITAL_PREFIX + hospitalId;
-        String patientJson = stub.getStringState(patientKey);
-        String hospitalJson = stub.getStringState(hospitalKey);
+        Patient patient = Ledger.get(stub, patientKey, Patient.class);
 
-        if (patientJson.isEmpty())
+        if (patient == null)
             throw new ChaincodeException("Patient not found: " + patientId);
-        if (hospitalJson.isEmpty())
+        if (!Ledger.exists(stub, hospitalKey))
             throw new ChaincodeException("Hospital not found: " + hospitalId);
-
-        Patient patient = gson.fromJson(patientJson, Patient.class);
-        Hospital hospital = gson.fromJson(hospitalJson, Hospital.class);
-        patient.setHospitalId(hospitalId);
-        stub.putStringState(patientKey, gson.toJson(patient));
-        List<String> patientIds = hospital.getPatientIds();
-        if (!patientIds.contains(patientId)) {
-            patientIds.add(patientId);
-            hospital.setPatientIds(patientIds);
+        String previousHospitalId = patient.getHospitalId();
+        if (!hospitalId.equals(previousHospitalId)) {
+            patient.setHospitalId(hospitalId);
+            Ledger.put(stub, patientKey, patient);
+            Indexes.move(stub, Indexes.HOSPITAL_PATIENT, previousHospitalId, hospitalId, patientId);
+        } else {
+            Indexes.add(stub, Indexes.HOSPITAL_PATIENT, hospitalId, patientId);
         }
-        stub.putStringState(hospitalKey, gson.toJson(hospital));
     }
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
     public void removeHospitalFromPatient(Context ctx, String patientId) {
         ChaincodeStub stub = ctx.getStub();
         String patientKey = PATIENT_PREFIX + patientId;
-        String patientJson = stub.getStringState(patientKey);
+        Patient patient = Ledger.get(stub, patientKey, Patient.class);
 
-        if (patientJson.isEmpty())
+        if (patient == null)
             throw new ChaincodeException("Patient not found: " + patientId);
 
-        Patient patient = gson.fromJson(patientJson, Patient.class);
-
         String hospitalId = patient.getHospitalId();
 
         if (hospitalId != null) {
-            String hospitalKey = HOSPITAL_PREFIX + hospitalId;
-            String hospitalJson = stub.getStringState(hospitalKey);
-            if (!hospitalJson.isEmpty()) {
-                Hospital hospital = gson.fromJson(hospitalJson, Hospital.class);
-                hospital.getPatientIds().remove(patientId);
-                stub.putStringState(hospitalKey, gson.toJson(hospital));
-            }
+            Indexes.remove(stub, Indexes.HOSPITAL_PATIENT, hospitalId, patientId);
         }
         patient.setHospitalId(null);
-        stub.putStringState(patientKey, gson.toJson(patient));
+        Ledger.put(stub, patientKey, patient);
     }
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
     public void linkReportToPatient(Context ctx, String patientId, String reportId) {
         ChaincodeStub stub = ctx.getStub();
         String patientKey = PATIENT_PREFIX + patientId;
-        String patientJson = stub.getStringState(patientKey);
+        Patient patient = Ledger.get(stub, patientKey, Patient.class);
 
-        if (patientJson.isEmpty())
+        if (patient == null)
             throw new ChaincodeException("Patient not found: " + patientId);
 
-        Patient patient = gson.fromJson(patientJson, Patient.class);
+        String reportKey = REPORT_PREFIX + reportId;
+        LabReport report = Ledger.get(stub, reportKey, LabReport.class);
+        if (report == null)
+            throw new ChaincodeException("Report not found: " + reportId);
+
+        String previousPatientId = report.getPatientId();
+        if (!patientId.equals(previousPatientId)) {
+            report.setPatientId(patientId);
+            Ledger.put(stub, reportKey, report);
+            Indexes.move(stub, Indexes.PATIENT_REPORT, previousPatientId, patientId, reportId);
+        } else {
+            Indexes.add(stub, Indexes.PATIENT_REPORT, patientId, reportId);
+        }
 
         patient.setLabReportId(reportId);
-        stub.putStringState(patientKey, gson.toJson(patient));
+        Ledger.put(stub, patientKey, patient);
     }
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
     public void unlinkReportFromPatient(Context ctx, String patientId) {
         ChaincodeStub stub = ctx.getStub();
         String patientKey = PATIENT_PREFIX + patientId;
-        String patientJson = stub.getStringState(patientKey);
+        Patient patient = Ledger.get(stub, patientKey, Patient.class);
 
-        if (patientJson.isEmpty())
+        if (patient == null)
             throw new ChaincodeException("Patient not found: " + patientId);
 
-        Patient patient = gson.fromJson(patientJson, Patient.class);
+        String reportId = patient.getLabReportId();
+        if (reportId != null) {
+            String reportKey = REPORT_PREFIX + reportId;
+            LabReport report = Ledger.get(stub, reportKey, LabReport.class);
+            if (report != null && patientId.equals(report.getPatientId())) {
+                report.setPatientId(null);
+                Ledger.put(stub, reportKey, report);
+            }
+            Indexes.remove(stub, Indexes.PATIENT_REPORT, patientId, reportId);
+        }
         patient.setLabReportId(null);
-        stub.putStringState(patientKey, gson.toJson(patient));
+        Ledger.put(stub, patientKey, patient);
     }
 
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public String getReportsByPatient(Context ctx, String patientId) {
         ChaincodeStub stub = ctx.getStub();
-        List<LabReport> reports = new ArrayList<>();
-        try (QueryResultsIterator<KeyValue> results = stub.getStateByRange(REPORT_PREFIX, REPORT_PREFIX + "\uFFFF")) {
-            for (KeyValue kv : results) {
-                LabReport report = gson.fromJson(kv.getStringValue(), LabReport.class);
-                if (report != null && patientId.equals(report.getPatientId())) {
-                    reports.add(report);
-                }
-            }
-        } catch (Exception e) {
-            throw new ChaincodeException("Error fetching reports: " + e.getMessage());
+        JsonArrayResponse reports = new JsonArrayResponse(gson);
+        for (String reportId : Indexes.ids(stub, Indexes.PATIENT_REPORT, patientId)) {
+            try {
+                reports.addStored(Ledger.getStoredIf(stub, REPORT_PREFIX + reportId, LabReport.class,
+                        "patientId", patientId::equals), LabReport.class);
+            } catch (JsonSyntaxException ignored) {}
+        }
+        return reports.toJson();
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getAllPatientsPaged(Context ctx, int pageSize, String bookmark) {
+        return Pages.fetch(ctx.getStub(), gson, PATIENT_PREFIX, pageSize, bookmark, Patient.class,
+                "patientId", Objects::nonNull);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String listPatientIds(Context ctx, int pageSize, String bookmark) {
+        return Pages.fetchIds(ctx.getStub(), gson, PATIENT_PREFIX, pageSize, bookmark);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String listPatientSummaries(Context ctx, String fields, int pageSize, String bookmark) {
+        return Pages.fetchFields(ctx.getStub(), gson, PATIENT_PREFIX, Patient.class, Projection.fields(fields, SUMMARY_FIELDS),
+                pageSize, bookmark);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public long countPatients(Context ctx) {
+        return Aggregates.count(ctx.getStub(), PATIENT_PREFIX);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public long countReportsByPatient(Context ctx, String patientId) {
+        return Indexes.count(ctx.getStub(), Indexes.PATIENT_REPORT, patientId);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getPatientsByIds(Context ctx, String idsJson) {
+        ChaincodeStub stub = ctx.getStub();
+        return BatchRead.byIds(stub, gson, PATIENT_PREFIX, Patient.class, idsJson,
+                (id, patient) -> Indexes.withLinks(stub, id, patient, LINKED_LISTS));
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String listPatientLinks(Context ctx, String patientId, String entity, int pageSize, String bookmark) {
+        String index;
+        switch (entity == null ? "" : entity.toLowerCase()) {
+            case "records": index = Indexes.PATIENT_RECORD; break;
+            case "prescriptions": index = Indexes.PATIENT_PRESCRIPTION; break;
+            case "reports": index = Indexes.PATIENT_REPORT; break;
+            default: throw new ChaincodeException("Unsupported entity for patient links: " + entity);
         }
-        return gson.toJson(reports);
+        return Pages.fetchLinks(ctx.getStub(), gson, index, patientId, pageSize, bookmark);
+    }
+
+    /** Record and prescription links live in the edge store, not the document. */
+    private static Patient withoutLinks(Patient patient) {
+        patient.setRecordIds(new ArrayList<>());
+        patient.setPrescriptionsIds(new ArrayList<>());
+        return patient;
     }
 }
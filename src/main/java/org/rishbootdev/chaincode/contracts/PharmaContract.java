@@ -3,7 +3,6 @@ package org.rishbootdev.chaincode.contracts;
 import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
 import org.hyperledger.fabric.contract.Context;
-import org.hyperledger.fabric.contract.ContractInterface;
 import org.hyperledger.fabric.contract.annotation.Contract;
 import org.hyperledger.fabric.contract.annotation.Default;
 import org.hyperledger.fabric.contract.annotation.Info;
@@ -12,10 +11,24 @@ import org.hyperledger.fabric.shim.ChaincodeException;
 import org.hyperledger.fabric.shim.ChaincodeStub;
 import org.hyperledger.fabric.shim.ledger.KeyValue;
 import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.rishbootdev.chaincode.context.HealthContract;
+import org.rishbootdev.chaincode.index.Indexes;
+import org.rishbootdev.chaincode.json.JsonSupport;
+import org.rishbootdev.chaincode.query.Aggregates;
+import org.rishbootdev.chaincode.query.BatchRead;
+import org.rishbootdev.chaincode.query.JsonArrayResponse;
+import org.rishbootdev.chaincode.query.Pages;
+import org.rishbootdev.chaincode.query.Projection;
 import org.rishbootdev.chaincode.model.Medicine;
 import org.rishbootdev.chaincode.model.Pharma;
+import org.rishbootdev.chaincode.state.Ledger;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Contract(
         name = "PharmaContract",
@@ -26,11 +39,13 @@ import java.util.List;
         )
 )
 @Default
-public class PharmaContract implements ContractInterface {
+public class PharmaContract implements HealthContract {
 
-    private final Gson gson = new Gson();
+    private final Gson gson = JsonSupport.gson();
     private static final String PHARMA_PREFIX = "PHARMA_";
     private static final String MEDICINE_PREFIX = "MEDICINE_";
+    private static final String SUMMARY_FIELDS = "pharmaId,name";
+    private static final Map<String, String> LINKED_LISTS = Collections.singletonMap("medicineId", Indexes.PHARMA_MEDICINE);
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
     public void createPharma(Context ctx, String pharmaJson) {
@@ -40,42 +55,43 @@ public class PharmaContract implements ContractInterface {
             throw new ChaincodeException("Pharma ID cannot be empty");
         }
         String key = PHARMA_PREFIX + pharma.getPharmaId();
-        if (!stub.getStringState(key).isEmpty()) {
+        if (Ledger.exists(stub, key)) {
             throw new ChaincodeException("Pharma already exists: " + pharma.getPharmaId());
         }
-        if (pharma.getMedicineIds() == null) {
-            pharma.setMedicineIds(new ArrayList<>());
+        List<String> medicineIds = pharma.getMedicineIds() == null ? new ArrayList<>() : pharma.getMedicineIds();
+        pharma.setMedicineIds(new ArrayList<>());
+        Ledger.put(stub, key, pharma);
+        for (String medicineId : medicineIds) {
+            link(stub, pharma.getPharmaId(), medicineId);
         }
-        stub.putStringState(key, gson.toJson(pharma));
     }
 
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public String getPharma(Context ctx, String pharmaId) {
+        ChaincodeStub stub = ctx.getStub();
         String key = PHARMA_PREFIX + pharmaId;
-        String json = ctx.getStub().getStringState(key);
-        if (json == null || json.isEmpty()) {
+        String json = Ledger.getJson(stub, key, Pharma.class);
+        if (json == null) {
             throw new ChaincodeException("Pharma not found: " + pharmaId);
         }
-        return json;
+        return Indexes.withLinks(stub, pharmaId, json, LINKED_LISTS);
     }
 
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public String getAllPharmas(Context ctx) {
         ChaincodeStub stub = ctx.getStub();
-        List<Pharma> pharmaList = new ArrayList<>();
+        JsonArrayResponse pharmaList = new JsonArrayResponse(gson);
         try (QueryResultsIterator<KeyValue> results = stub.getStateByRange(PHARMA_PREFIX, PHARMA_PREFIX + "\uFFFF")) {
             for (KeyValue kv : results) {
                 try {
-                    Pharma pharma = gson.fromJson(kv.getStringValue(), Pharma.class);
-                    if (pharma != null && pharma.getPharmaId() != null) {
-                        pharmaList.add(pharma);
-                    }
+                    pharmaList.addStored(Ledger.getStoredIf(kv, Pharma.class, "pharmaId",
+                            Objects::nonNull), Pharma.class);
                 } catch (JsonSyntaxException ignored) {}
             }
         } catch (Exception e) {
             throw new ChaincodeException("Error retrieving pharmas: " + e.getMessage());
         }
-        return gson.toJson(pharmaList);
+        return pharmaList.toJson();
     }
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
@@ -83,20 +99,40 @@ public class PharmaContract implements ContractInterface {
         ChaincodeStub stub = ctx.getStub();
         Pharma pharma = gson.fromJson(pharmaJson, Pharma.class);
         String key = PHARMA_PREFIX + pharma.getPharmaId();
-        if (stub.getStringState(key).isEmpty()) {
+        if (!Ledger.exists(stub, key)) {
             throw new ChaincodeException("Pharma not found: " + pharma.getPharmaId());
         }
-        stub.putStringState(key, gson.toJson(pharma));
+        List<String> medicineIds = pharma.getMedicineIds();
+        pharma.setMedicineIds(new ArrayList<>());
+        Ledger.put(stub, key, pharma);
+        if (medicineIds == null) {
+            return;
+        }
+
+        Set<String> oldIds = new HashSet<>(Indexes.ids(stub, Indexes.PHARMA_MEDICINE, pharma.getPharmaId()));
+        Set<String> newIds = new HashSet<>(medicineIds);
+        for (String medicineId : oldIds) {
+            if (!newIds.contains(medicineId)) {
+                unlink(stub, pharma.getPharmaId(), medicineId);
+            }
+        }
+        for (String medicineId : newIds) {
+            if (!oldIds.contains(medicineId)) {
+                link(stub, pharma.getPharmaId(), medicineId);
+            }
+        }
     }
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
     public void deletePharma(Context ctx, String pharmaId) {
         ChaincodeStub stub = ctx.getStub();
         String key = PHARMA_PREFIX + pharmaId;
-        String json = stub.getStringState(key);
-        if (json == null || json.isEmpty()) {
+        if (!Ledger.exists(stub, key)) {
             throw new ChaincodeException("Pharma not found: " + pharmaId);
         }
+        for (String medicineId : Indexes.ids(stub, Indexes.PHARMA_MEDICINE, pharmaId)) {
+            unlink(stub, pharmaId, medicineId);
+        }
         stub.delState(key);
     }
 
@@ -104,65 +140,95 @@ public class PharmaContract implements ContractInterface {
     public void addMedicineToPharma(Context ctx, String pharmaId, String medicineId) {
         ChaincodeStub stub = ctx.getStub();
         String pharmaKey = PHARMA_PREFIX + pharmaId;
-        String pharmaJson = stub.getStringState(pharmaKey);
-        if (pharmaJson == null || pharmaJson.isEmpty()) {
+        if (!Ledger.exists(stub, pharmaKey)) {
             throw new ChaincodeException("Pharma not found: " + pharmaId);
         }
         String medKey = MEDICINE_PREFIX + medicineId;
-        String medJson = stub.getStringState(medKey);
-        if (medJson == null || medJson.isEmpty()) {
+        if (!Ledger.exists(stub, medKey)) {
             throw new ChaincodeException("Medicine not found: " + medicineId);
         }
-        Pharma pharma = gson.fromJson(pharmaJson, Pharma.class);
-        List<String> medList = pharma.getMedicineIds();
-        if (medList == null) {
-            medList = new ArrayList<>();
-        }
-        if (!medList.contains(medicineId)) {
-            medList.add(medicineId);
-            pharma.setMedicineIds(medList);
-            stub.putStringState(pharmaKey, gson.toJson(pharma));
-        }
+        link(stub, pharmaId, medicineId);
     }
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
     public void removeMedicineFromPharma(Context ctx, String pharmaId, String medicineId) {
         ChaincodeStub stub = ctx.getStub();
         String pharmaKey = PHARMA_PREFIX + pharmaId;
-        String pharmaJson = stub.getStringState(pharmaKey);
-        if (pharmaJson == null || pharmaJson.isEmpty()) {
+        if (!Ledger.exists(stub, pharmaKey)) {
             throw new ChaincodeException("Pharma not found: " + pharmaId);
         }
-        Pharma pharma = gson.fromJson(pharmaJson, Pharma.class);
-        List<String> medList = pharma.getMedicineIds();
-        if (medList != null && medList.remove(medicineId)) {
-            pharma.setMedicineIds(medList);
-            stub.putStringState(pharmaKey, gson.toJson(pharma));
-        }
+        unlink(stub, pharmaId, medicineId);
     }
 
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public String getMedicinesByPharma(Context ctx, String pharmaId) {
         ChaincodeStub stub = ctx.getStub();
         String pharmaKey = PHARMA_PREFIX + pharmaId;
-        String pharmaJson = stub.getStringState(pharmaKey);
-        if (pharmaJson == null || pharmaJson.isEmpty()) {
+        if (!Ledger.exists(stub, pharmaKey)) {
             throw new ChaincodeException("Pharma not found: " + pharmaId);
         }
-        Pharma pharma = gson.fromJson(pharmaJson, Pharma.class);
-        List<String> medicineIds = pharma.getMedicineIds();
 
-        List<Medicine> medicines = new ArrayList<>();
-        if (medicineIds != null) {
-            for (String medId : medicineIds) {
-                String medJson = stub.getStringState(MEDICINE_PREFIX + medId);
-                if (medJson != null && !medJson.isEmpty()) {
-                    try {
-                        medicines.add(gson.fromJson(medJson, Medicine.class));
-                    } catch (JsonSyntaxException ignored) {}
+        JsonArrayResponse medicines = new JsonArrayResponse(gson);
+        for (String medId : Indexes.ids(stub, Indexes.PHARMA_MEDICINE, pharmaId)) {
+            try {
+                Medicine medicine = Ledger.getIf(stub, MEDICINE_PREFIX + medId, Medicine.class, "id", Objects::nonNull);
+                if (medicine != null) {
+                    medicines.add(MedicineContract.withPendingStock(stub, medicine));
                 }
-            }
+            } catch (JsonSyntaxException ignored) {}
         }
-        return gson.toJson(medicines);
+        return medicines.toJson();
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String listPharmaMedicineIds(Context ctx, String pharmaId, int pageSize, String bookmark) {
+        return Pages.fetchLinks(ctx.getStub(), gson, Indexes.PHARMA_MEDICINE, pharmaId, pageSize, bookmark);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getAllPharmasPaged(Context ctx, int pageSize, String bookmark) {
+        return Pages.fetch(ctx.getStub(), gson, PHARMA_PREFIX, pageSize, bookmark, Pharma.class,
+                "pharmaId", Objects::nonNull);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String listPharmaIds(Context ctx, int pageSize, String bookmark) {
+        return Pages.fetchIds(ctx.getStub(), gson, PHARMA_PREFIX, pageSize, bookmark);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String listPharmaSummaries(Context ctx, String fields, int pageSize, String bookmark) {
+        return Pages.fetchFields(ctx.getStub(), gson, PHARMA_PREFIX, Pharma.class, Projection.fields(fields, SUMMARY_FIELDS),
+                pageSize, bookmark);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public long countPharmas(Context ctx) {
+        return Aggregates.count(ctx.getStub(), PHARMA_PREFIX);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public long countMedicinesByPharma(Context ctx, String pharmaId) {
+        if (!Ledger.exists(ctx.getStub(), PHARMA_PREFIX + pharmaId)) {
+            throw new ChaincodeException("Pharma not found: " + pharmaId);
+        }
+        return Indexes.count(ctx.getStub(), Indexes.PHARMA_MEDICINE, pharmaId);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getPharmasByIds(Context ctx, String idsJson) {
+        ChaincodeStub stub = ctx.getStub();
+        return BatchRead.byIds(stub, gson, PHARMA_PREFIX, Pharma.class, idsJson,
+                (id, pharma) -> Indexes.withLinks(stub, id, pharma, LINKED_LISTS));
+    }
+
+    private static void link(ChaincodeStub stub, String pharmaId, String medicineId) {
+        Indexes.add(stub, Indexes.PHARMA_MEDICINE, pharmaId, medicineId);
+        Indexes.add(stub, Indexes.MEDICINE_PHARMA, medicineId, pharmaId);
+    }
+
+    private static void unlink(ChaincodeStub stub, String pharmaId, String medicineId) {
+        Indexes.remove(stub, Indexes.PHARMA_MEDICINE, pharmaId, medicineId);
+        Indexes.remove(stub, Indexes.MEDICINE_PHARMA, medicineId, pharmaId);
     }
 }
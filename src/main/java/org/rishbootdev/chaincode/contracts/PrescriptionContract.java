@@ -3,7 +3,6 @@ package org.rishbootdev.chaincode.contracts;
 import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
 import org.hyperledger.fabric.contract.Context;
-import org.hyperledger.fabric.contract.ContractInterface;
 import org.hyperledger.fabric.contract.annotation.Contract;
 import org.hyperledger.fabric.contract.annotation.Default;
 import org.hyperledger.fabric.contract.annotation.Info;
@@ -12,11 +11,23 @@ import org.hyperledger.fabric.shim.ChaincodeException;
 import org.hyperledger.fabric.shim.ChaincodeStub;
 import org.hyperledger.fabric.shim.ledger.KeyValue;
 import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.rishbootdev.chaincode.context.HealthContract;
+import org.rishbootdev.chaincode.index.Indexes;
+import org.rishbootdev.chaincode.index.TextIndex;
+import org.rishbootdev.chaincode.json.JsonSupport;
+import org.rishbootdev.chaincode.query.Aggregates;
+import org.rishbootdev.chaincode.query.BatchRead;
+import org.rishbootdev.chaincode.query.JsonArrayResponse;
+import org.rishbootdev.chaincode.query.Pages;
+import org.rishbootdev.chaincode.query.Projection;
 import org.rishbootdev.chaincode.model.Medicine;
 import org.rishbootdev.chaincode.model.Prescription;
+import org.rishbootdev.chaincode.state.Ledger;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 @Contract(
         name = "PrescriptionContract",
@@ -27,14 +38,15 @@ import java.util.List;
         )
 )
 @Default
-public class PrescriptionContract implements ContractInterface {
+public class PrescriptionContract implements HealthContract {
 
-    private final Gson gson = new Gson();
+    private final Gson gson = JsonSupport.gson();
 
     private static final String PRESC_PREFIX = "PRESC_";
     private static final String MEDICINE_PREFIX = "MEDICINE_";
     private static final String PATIENT_PREFIX = "PATIENT_";
     private static final String DOCTOR_PREFIX = "DOCTOR_";
+    private static final String SUMMARY_FIELDS = "prescriptionId,patientId,doctorId,issuedDate";
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
     public String createPrescription(Context ctx, String prescriptionJson) {
@@ -46,7 +58,7 @@ public class PrescriptionContract implements ContractInterface {
         }
 
         String key = PRESC_PREFIX + prescription.getPrescriptionId();
-        if (!stub.getStringState(key).isEmpty()) {
+        if (Ledger.exists(stub, key)) {
             throw new ChaincodeException("Prescription already exists: " + prescription.getPrescriptionId());
         }
 
@@ -54,7 +66,11 @@ public class PrescriptionContract implements ContractInterface {
             prescription.setMedicineIdList(new ArrayList<>());
         }
 
-        stub.putStringState(key, gson.toJson(prescription));
+        Ledger.put(stub, key, prescription);
+        Indexes.add(stub, Indexes.PATIENT_PRESCRIPTION, prescription.getPatientId(), prescription.getPrescriptionId());
+        Indexes.add(stub, Indexes.DOCTOR_PRESCRIPTION, prescription.getDoctorId(), prescription.getPrescriptionId());
+        TextIndex.update(stub, TextIndex.PRESCRIPTION, prescription.getPrescriptionId(),
+                Collections.emptySet(), TextIndex.tokens(prescription.getRemarks()));
         return "Prescription created successfully: " + prescription.getPrescriptionId();
     }
 
@@ -62,9 +78,9 @@ public class PrescriptionContract implements ContractInterface {
     public String getPrescriptionById(Context ctx, String prescriptionId) {
         ChaincodeStub stub = ctx.getStub();
         String key = PRESC_PREFIX + prescriptionId;
-        String json = stub.getStringState(key);
+        String json = Ledger.getJson(stub, key, Prescription.class);
 
-        if (json == null || json.isEmpty()) {
+        if (json == null) {
             throw new ChaincodeException("Prescription not found: " + prescriptionId);
         }
 
@@ -74,23 +90,21 @@ public class PrescriptionContract implements ContractInterface {
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public String getAllPrescriptions(Context ctx) {
         ChaincodeStub stub = ctx.getStub();
-        List<Prescription> prescriptions = new ArrayList<>();
+        JsonArrayResponse prescriptions = new JsonArrayResponse(gson);
 
         try (QueryResultsIterator<KeyValue> results =
                      stub.getStateByRange(PRESC_PREFIX, PRESC_PREFIX + "\uFFFF")) {
             for (KeyValue kv : results) {
                 try {
-                    Prescription presc = gson.fromJson(kv.getStringValue(), Prescription.class);
-                    if (presc != null && presc.getPrescriptionId() != null) {
-                        prescriptions.add(presc);
-                    }
+                    prescriptions.addStored(Ledger.getStoredIf(kv, Prescription.class, "prescriptionId",
+                            Objects::nonNull), Prescription.class);
                 } catch (JsonSyntaxException ignored) {}
             }
         } catch (Exception e) {
             throw new ChaincodeException("Error fetching prescriptions: " + e.getMessage());
         }
 
-        return gson.toJson(prescriptions);
+        return prescriptions.toJson();
     }
     @Transaction(intent = Transaction.TYPE.SUBMIT)
     public String updatePrescription(Context ctx, String prescriptionJson) {
@@ -98,11 +112,17 @@ public class PrescriptionContract implements ContractInterface {
         Prescription prescription = gson.fromJson(prescriptionJson, Prescription.class);
 
         String key = PRESC_PREFIX + prescription.getPrescriptionId();
-        if (stub.getStringState(key).isEmpty()) {
+        Prescription previous = Ledger.get(stub, key, Prescription.class);
+        if (previous == null) {
             throw new ChaincodeException("Prescription not found: " + prescription.getPrescriptionId());
         }
-
-        stub.putStringState(key, gson.toJson(prescription));
+        Ledger.put(stub, key, prescription);
+        Indexes.move(stub, Indexes.PATIENT_PRESCRIPTION, previous.getPatientId(),
+                prescription.getPatientId(), prescription.getPrescriptionId());
+        Indexes.move(stub, Indexes.DOCTOR_PRESCRIPTION, previous.getDoctorId(),
+                prescription.getDoctorId(), prescription.getPrescriptionId());
+        TextIndex.update(stub, TextIndex.PRESCRIPTION, prescription.getPrescriptionId(),
+                TextIndex.tokens(previous.getRemarks()), TextIndex.tokens(prescription.getRemarks()));
         return "Prescription updated successfully: " + prescription.getPrescriptionId();
     }
 
@@ -111,11 +131,14 @@ public class PrescriptionContract implements ContractInterface {
         ChaincodeStub stub = ctx.getStub();
         String key = PRESC_PREFIX + prescriptionId;
 
-        String existing = stub.getStringState(key);
-        if (existing == null || existing.isEmpty()) {
+        Prescription prescription = Ledger.get(stub, key, Prescription.class);
+        if (prescription == null) {
             throw new ChaincodeException("Prescription not found: " + prescriptionId);
         }
-
+        Indexes.remove(stub, Indexes.PATIENT_PRESCRIPTION, prescription.getPatientId(), prescriptionId);
+        Indexes.remove(stub, Indexes.DOCTOR_PRESCRIPTION, prescription.getDoctorId(), prescriptionId);
+        TextIndex.update(stub, TextIndex.PRESCRIPTION, prescriptionId,
+                TextIndex.tokens(prescription.getRemarks()), Collections.emptySet());
         stub.delState(key);
         return "Prescription deleted: " + prescriptionId;
     }
@@ -125,26 +148,23 @@ public class PrescriptionContract implements ContractInterface {
     public void addMedicineToPrescription(Context ctx, String prescriptionId, String medicineId) {
         ChaincodeStub stub = ctx.getStub();
         String prescKey = PRESC_PREFIX + prescriptionId;
-        String prescJson = stub.getStringState(prescKey);
+        Prescription prescription = Ledger.get(stub, prescKey, Prescription.class);
 
-        if (prescJson == null || prescJson.isEmpty()) {
+        if (prescription == null) {
             throw new ChaincodeException("Prescription not found: " + prescriptionId);
         }
 
         String medKey = MEDICINE_PREFIX + medicineId;
-        String medJson = stub.getStringState(medKey);
-        if (medJson == null || medJson.isEmpty()) {
+        if (!Ledger.exists(stub, medKey)) {
             throw new ChaincodeException("Medicine not found: " + medicineId);
         }
-
-        Prescription prescription = gson.fromJson(prescJson, Prescription.class);
         List<String> meds = prescription.getMedicineIdList();
         if (meds == null) meds = new ArrayList<>();
 
         if (!meds.contains(medicineId)) {
             meds.add(medicineId);
             prescription.setMedicineIdList(meds);
-            stub.putStringState(prescKey, gson.toJson(prescription));
+            Ledger.put(stub, prescKey, prescription);
         }
     }
 
@@ -152,105 +172,153 @@ public class PrescriptionContract implements ContractInterface {
     public void removeMedicineFromPrescription(Context ctx, String prescriptionId, String medicineId) {
         ChaincodeStub stub = ctx.getStub();
         String prescKey = PRESC_PREFIX + prescriptionId;
-        String prescJson = stub.getStringState(prescKey);
-
-        if (prescJson == null || prescJson.isEmpty()) {
+        Prescription prescription = Ledger.get(stub, prescKey, Prescription.class);
+        if (prescription == null) {
             throw new ChaincodeException("Prescription not found: " + prescriptionId);
         }
-
-        Prescription prescription = gson.fromJson(prescJson, Prescription.class);
         List<String> meds = prescription.getMedicineIdList();
 
         if (meds != null && meds.remove(medicineId)) {
             prescription.setMedicineIdList(meds);
-            stub.putStringState(prescKey, gson.toJson(prescription));
+            Ledger.put(stub, prescKey, prescription);
         }
     }
 
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public String getMedicinesForPrescription(Context ctx, String prescriptionId) {
         ChaincodeStub stub = ctx.getStub();
-        String prescJson = stub.getStringState(PRESC_PREFIX + prescriptionId);
-
-        if (prescJson == null || prescJson.isEmpty()) {
+        Prescription prescription = Ledger.get(stub, PRESC_PREFIX + prescriptionId, Prescription.class);
+        if (prescription == null) {
             throw new ChaincodeException("Prescription not found: " + prescriptionId);
         }
-
-        Prescription prescription = gson.fromJson(prescJson, Prescription.class);
         List<String> medicineIds = prescription.getMedicineIdList();
-        List<Medicine> medicines = new ArrayList<>();
+        JsonArrayResponse medicines = new JsonArrayResponse(gson);
 
         if (medicineIds != null) {
             for (String medId : medicineIds) {
-                String medJson = stub.getStringState(MEDICINE_PREFIX + medId);
-                if (medJson != null && !medJson.isEmpty()) {
-                    try {
-                        medicines.add(gson.fromJson(medJson, Medicine.class));
-                    } catch (JsonSyntaxException ignored) {}
-                }
+                try {
+                    Medicine medicine = Ledger.get(stub, MEDICINE_PREFIX + medId, Medicine.class);
+                    if (medicine != null) {
+                        medicines.add(MedicineContract.withPendingStock(stub, medicine));
+                    }
+                } catch (JsonSyntaxException ignored) {}
             }
         }
 
-        return gson.toJson(medicines);
+        return medicines.toJson();
     }
 
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public String getPrescriptionsByPatient(Context ctx, String patientId) {
         ChaincodeStub stub = ctx.getStub();
-        List<Prescription> prescriptions = new ArrayList<>();
+        JsonArrayResponse prescriptions = new JsonArrayResponse(gson);
 
-        try (QueryResultsIterator<KeyValue> results =
-                     stub.getStateByRange(PRESC_PREFIX, PRESC_PREFIX + "\uFFFF")) {
-            for (KeyValue kv : results) {
-                Prescription p = gson.fromJson(kv.getStringValue(), Prescription.class);
-                if (p != null && patientId.equals(p.getPatientId())) {
-                    prescriptions.add(p);
-                }
-            }
-        } catch (Exception e) {
-            throw new ChaincodeException("Error fetching prescriptions by patient: " + e.getMessage());
+        for (String prescriptionId : Indexes.ids(stub, Indexes.PATIENT_PRESCRIPTION, patientId)) {
+            addIndexedPrescription(stub, prescriptions, prescriptionId, "patientId", patientId);
         }
 
-        return gson.toJson(prescriptions);
+        return prescriptions.toJson();
     }
 
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public String getPrescriptionsByDoctor(Context ctx, String doctorId) {
         ChaincodeStub stub = ctx.getStub();
-        List<Prescription> prescriptions = new ArrayList<>();
+        JsonArrayResponse prescriptions = new JsonArrayResponse(gson);
 
-        try (QueryResultsIterator<KeyValue> results =
-                     stub.getStateByRange(PRESC_PREFIX, PRESC_PREFIX + "\uFFFF")) {
-            for (KeyValue kv : results) {
-                Prescription p = gson.fromJson(kv.getStringValue(), Prescription.class);
-                if (p != null && doctorId.equals(p.getDoctorId())) {
-                    prescriptions.add(p);
-                }
-            }
-        } catch (Exception e) {
-            throw new ChaincodeException("Error fetching prescriptions by doctor: " + e.getMessage());
+        for (String prescriptionId : Indexes.ids(stub, Indexes.DOCTOR_PRESCRIPTION, doctorId)) {
+            addIndexedPrescription(stub, prescriptions, prescriptionId, "doctorId", doctorId);
         }
 
-        return gson.toJson(prescriptions);
+        return prescriptions.toJson();
     }
 
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public String searchPrescriptions(Context ctx, String keyword) {
         ChaincodeStub stub = ctx.getStub();
-        List<Prescription> resultsList = new ArrayList<>();
+        String needle = keyword.toLowerCase();
+        JsonArrayResponse resultsList = new JsonArrayResponse(gson);
 
         try (QueryResultsIterator<KeyValue> results =
                      stub.getStateByRange(PRESC_PREFIX, PRESC_PREFIX + "\uFFFF")) {
             for (KeyValue kv : results) {
-                Prescription p = gson.fromJson(kv.getStringValue(), Prescription.class);
-                if (p != null && gson.toJson(p).toLowerCase().contains(keyword.toLowerCase())) {
-                    resultsList.add(p);
+                String data = Ledger.getJson(kv, Prescription.class);
+                if (data != null && data.toLowerCase().contains(needle)) {
+                    Prescription p = gson.fromJson(data, Prescription.class);
+                    if (p != null) resultsList.add(p);
                 }
             }
         } catch (Exception e) {
             throw new ChaincodeException("Error searching prescriptions: " + e.getMessage());
         }
 
-        return gson.toJson(resultsList);
+        return resultsList.toJson();
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String searchPrescriptionsByTerms(Context ctx, String query, int limit) {
+        ChaincodeStub stub = ctx.getStub();
+        JsonArrayResponse resultsList = new JsonArrayResponse(gson);
+
+        for (String prescriptionId : TextIndex.search(stub, TextIndex.PRESCRIPTION, query, limit)) {
+            Prescription p = readIndexedPrescription(stub, prescriptionId);
+            if (p != null) {
+                resultsList.add(p);
+            }
+        }
+
+        return resultsList.toJson();
+    }
+
+    private Prescription readIndexedPrescription(ChaincodeStub stub, String prescriptionId) {
+        try {
+            return Ledger.get(stub, PRESC_PREFIX + prescriptionId, Prescription.class);
+        } catch (JsonSyntaxException e) {
+            return null;
+        }
+    }
+
+    private void addIndexedPrescription(ChaincodeStub stub, JsonArrayResponse prescriptions, String prescriptionId,
+                                        String ownerField, String owner) {
+        try {
+            prescriptions.addStored(Ledger.getStoredIf(stub, PRESC_PREFIX + prescriptionId, Prescription.class,
+                    ownerField, owner::equals), Prescription.class);
+        } catch (JsonSyntaxException ignored) {}
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getAllPrescriptionsPaged(Context ctx, int pageSize, String bookmark) {
+        return Pages.fetch(ctx.getStub(), gson, PRESC_PREFIX, pageSize, bookmark, Prescription.class,
+                "prescriptionId", Objects::nonNull);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String listPrescriptionIds(Context ctx, int pageSize, String bookmark) {
+        return Pages.fetchIds(ctx.getStub(), gson, PRESC_PREFIX, pageSize, bookmark);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String listPrescriptionSummaries(Context ctx, String fields, int pageSize, String bookmark) {
+        return Pages.fetchFields(ctx.getStub(), gson, PRESC_PREFIX, Prescription.class, Projection.fields(fields, SUMMARY_FIELDS),
+                pageSize, bookmark);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public long countPrescriptions(Context ctx) {
+        return Aggregates.count(ctx.getStub(), PRESC_PREFIX);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public long countPrescriptionsByPatient(Context ctx, String patientId) {
+        return Indexes.count(ctx.getStub(), Indexes.PATIENT_PRESCRIPTION, patientId);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public long countPrescriptionsByDoctor(Context ctx, String doctorId) {
+        return Indexes.count(ctx.getStub(), Indexes.DOCTOR_PRESCRIPTION, doctorId);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getPrescriptionsByIds(Context ctx, String idsJson) {
+        return BatchRead.byIds(ctx.getStub(), gson, PRESC_PREFIX, Prescription.class, idsJson);
     }
 }
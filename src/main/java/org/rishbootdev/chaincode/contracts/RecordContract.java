@@ -3,7 +3,6 @@ package org.rishbootdev.chaincode.contracts;
 import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
 import org.hyperledger.fabric.contract.Context;
-import org.hyperledger.fabric.contract.ContractInterface;
 import org.hyperledger.fabric.contract.annotation.Contract;
 import org.hyperledger.fabric.contract.annotation.Default;
 import org.hyperledger.fabric.contract.annotation.Info;
@@ -12,12 +11,22 @@ import org.hyperledger.fabric.shim.ChaincodeException;
 import org.hyperledger.fabric.shim.ChaincodeStub;
 import org.hyperledger.fabric.shim.ledger.KeyValue;
 import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.rishbootdev.chaincode.context.HealthContract;
+import org.rishbootdev.chaincode.json.JsonSupport;
 import org.rishbootdev.chaincode.model.Patient;
 import org.rishbootdev.chaincode.model.Prescription;
 import org.rishbootdev.chaincode.model.Record;
-
-import java.util.ArrayList;
-import java.util.List;
+import org.rishbootdev.chaincode.index.Indexes;
+import org.rishbootdev.chaincode.index.TextIndex;
+import org.rishbootdev.chaincode.query.Aggregates;
+import org.rishbootdev.chaincode.query.BatchRead;
+import org.rishbootdev.chaincode.query.JsonArrayResponse;
+import org.rishbootdev.chaincode.query.Pages;
+import org.rishbootdev.chaincode.query.Projection;
+import org.rishbootdev.chaincode.state.Ledger;
+
+import java.util.Collections;
+import java.util.Set;
 
 @Contract(
         name = "RecordContract",
@@ -28,12 +37,13 @@ import java.util.List;
         )
 )
 @Default
-public class RecordContract implements ContractInterface {
+public class RecordContract implements HealthContract {
 
-    private final Gson gson = new Gson();
+    private final Gson gson = JsonSupport.gson();
     private static final String RECORD_PREFIX = "RECORD_";
     private static final String PATIENT_PREFIX = "PATIENT_";
     private static final String PRESCRIPTION_PREFIX = "PRESC_";
+    private static final String SUMMARY_FIELDS = "recordId,patientId,doctorId,visitDate";
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
     public String createPatientRecord(Context ctx, String recordJson) {
@@ -46,22 +56,18 @@ public class RecordContract implements ContractInterface {
             throw new ChaincodeException("Record must be linked to a Patient");
 
         String recordKey = RECORD_PREFIX + record.getRecordId();
-        if (!stub.getStringState(recordKey).isEmpty())
+        if (Ledger.exists(stub, recordKey))
             throw new ChaincodeException("Record already exists: " + record.getRecordId());
 
         String patientKey = PATIENT_PREFIX + record.getPatientId();
-        String patientJson = stub.getStringState(patientKey);
-        if (patientJson == null || patientJson.isEmpty())
+        if (!Ledger.exists(stub, patientKey))
             throw new ChaincodeException("Referenced Patient not found: " + record.getPatientId());
 
-        Patient patient = gson.fromJson(patientJson, Patient.class);
-        List<String> recordIds = patient.getRecordIds();
-        if (recordIds == null) recordIds = new ArrayList<>();
-        if (!recordIds.contains(record.getRecordId())) recordIds.add(record.getRecordId());
-        patient.setRecordIds(recordIds);
-
-        stub.putStringState(patientKey, gson.toJson(patient));
-        stub.putStringState(recordKey, gson.toJson(record));
+        Ledger.put(stub, recordKey, record);
+        Indexes.add(stub, Indexes.PATIENT_RECORD, record.getPatientId(), record.getRecordId());
+        Indexes.add(stub, Indexes.DOCTOR_RECORD, record.getDoctorId(), record.getRecordId());
+        Indexes.add(stub, Indexes.HOSPITAL_RECORD, record.getHospitalId(), record.getRecordId());
+        TextIndex.update(stub, TextIndex.RECORD, record.getRecordId(), Collections.emptySet(), recordTokens(record));
         return "Record created and linked successfully for patient: " + record.getPatientId();
     }
 
@@ -69,15 +75,18 @@ public class RecordContract implements ContractInterface {
     public String updatePatientRecord(Context ctx, String recordId, String recordJson) {
         ChaincodeStub stub = ctx.getStub();
         String key = RECORD_PREFIX + recordId;
-        String existing = stub.getStringState(key);
-        if (existing == null || existing.isEmpty())
+        Record previous = Ledger.get(stub, key, Record.class);
+        if (previous == null)
             throw new ChaincodeException("Record not found: " + recordId);
-
         Record updated = gson.fromJson(recordJson, Record.class);
         if (updated.getRecordId() == null || updated.getRecordId().isEmpty())
             updated.setRecordId(recordId);
 
-        stub.putStringState(key, gson.toJson(updated));
+        Ledger.put(stub, key, updated);
+        Indexes.move(stub, Indexes.PATIENT_RECORD, previous.getPatientId(), updated.getPatientId(), recordId);
+        Indexes.move(stub, Indexes.DOCTOR_RECORD, previous.getDoctorId(), updated.getDoctorId(), recordId);
+        Indexes.move(stub, Indexes.HOSPITAL_RECORD, previous.getHospitalId(), updated.getHospitalId(), recordId);
+        TextIndex.update(stub, TextIndex.RECORD, recordId, recordTokens(previous), recordTokens(updated));
         return "Record updated successfully: " + recordId;
     }
 
@@ -85,20 +94,13 @@ public class RecordContract implements ContractInterface {
     public String deletePatientRecord(Context ctx, String recordId) {
         ChaincodeStub stub = ctx.getStub();
         String key = RECORD_PREFIX + recordId;
-        String existing = stub.getStringState(key);
-        if (existing == null || existing.isEmpty())
+        org.rishbootdev.chaincode.model.Record record = Ledger.get(stub, key, org.rishbootdev.chaincode.model.Record.class);
+        if (record == null)
             throw new ChaincodeException("Record not found: " + recordId);
-
-        org.rishbootdev.chaincode.model.Record record = gson.fromJson(existing,  org.rishbootdev.chaincode.model.Record.class);
-        String patientId = record.getPatientId();
-        String patientKey = PATIENT_PREFIX + patientId;
-        String patientJson = stub.getStringState(patientKey);
-
-        if (patientJson != null && !patientJson.isEmpty()) {
-            Patient patient = gson.fromJson(patientJson, Patient.class);
-            if (patient.getRecordIds() != null && patient.getRecordIds().remove(recordId))
-                stub.putStringState(patientKey, gson.toJson(patient));
-        }
+        Indexes.remove(stub, Indexes.PATIENT_RECORD, record.getPatientId(), recordId);
+        Indexes.remove(stub, Indexes.DOCTOR_RECORD, record.getDoctorId(), recordId);
+        Indexes.remove(stub, Indexes.HOSPITAL_RECORD, record.getHospitalId(), recordId);
+        TextIndex.update(stub, TextIndex.RECORD, recordId, recordTokens(record), Collections.emptySet());
         stub.delState(key);
         return "Record deleted and unlinked from patient: " + recordId;
     }
@@ -106,76 +108,84 @@ public class RecordContract implements ContractInterface {
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public String getAllRecords(Context ctx) {
         ChaincodeStub stub = ctx.getStub();
-        List<org.rishbootdev.chaincode.model.Record> records = new ArrayList<>();
+        JsonArrayResponse records = new JsonArrayResponse(gson);
         try (QueryResultsIterator<KeyValue> results =
                      stub.getStateByRange(RECORD_PREFIX, RECORD_PREFIX + "\uFFFF")) {
             for (KeyValue kv : results) {
                 try {
-                    org.rishbootdev.chaincode.model.Record record = gson.fromJson(kv.getStringValue(),  org.rishbootdev.chaincode.model.Record.class);
-                    if (record != null && record.getRecordId() != null && !record.getRecordId().isEmpty())
-                        records.add(record);
+                    records.addStored(Ledger.getStoredIf(kv, Record.class, "recordId",
+                            id -> id != null && !id.isEmpty()), Record.class);
                 } catch (JsonSyntaxException ignored) {}
             }
         } catch (Exception e) {
             throw new ChaincodeException("Error fetching records: " + e.getMessage());
         }
-        return gson.toJson(records);
+        return records.toJson();
     }
 
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public String getPatients(Context ctx) {
         ChaincodeStub stub = ctx.getStub();
-        List<Patient> patients = new ArrayList<>();
+        JsonArrayResponse patients = new JsonArrayResponse(gson);
         try (QueryResultsIterator<KeyValue> results =
                      stub.getStateByRange(PATIENT_PREFIX, PATIENT_PREFIX + "\uFFFF")) {
             for (KeyValue kv : results) {
                 try {
-                    Patient patient = gson.fromJson(kv.getStringValue(), Patient.class);
-                    if (patient != null && patient.getPatientId() != null && !patient.getPatientId().isEmpty())
-                        patients.add(patient);
+                    patients.addStored(Ledger.getStoredIf(kv, Patient.class, "patientId",
+                            id -> id != null && !id.isEmpty()), Patient.class);
                 } catch (JsonSyntaxException ignored) {}
             }
         } catch (Exception e) {
             throw new ChaincodeException("Error fetching patients: " + e.getMessage());
         }
-        return gson.toJson(patients);
+        return patients.toJson();
     }
 
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public String searchRecords(Context ctx, String keyword) {
         ChaincodeStub stub = ctx.getStub();
-        List< org.rishbootdev.chaincode.model.Record> matched = new ArrayList<>();
+        String needle = keyword.toLowerCase();
+        JsonArrayResponse matched = new JsonArrayResponse(gson);
         try (QueryResultsIterator<KeyValue> results =
                      stub.getStateByRange(RECORD_PREFIX, RECORD_PREFIX + "\uFFFF")) {
             for (KeyValue kv : results) {
-                Record record = gson.fromJson(kv.getStringValue(),  org.rishbootdev.chaincode.model.Record.class);
-                if (record != null) {
-                    String data = gson.toJson(record).toLowerCase();
-                    if (data.contains(keyword.toLowerCase())) matched.add(record);
+                String data = Ledger.getJson(kv, Record.class);
+                if (data != null && data.toLowerCase().contains(needle)) {
+                    try {
+                        matched.addJson(data);
+                    } catch (JsonSyntaxException ignored) {}
                 }
             }
         } catch (Exception e) {
             throw new ChaincodeException("Error searching records: " + e.getMessage());
         }
-        return gson.toJson(matched);
+        return matched.toJson();
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String searchRecordsByTerms(Context ctx, String query, int limit) {
+        ChaincodeStub stub = ctx.getStub();
+        JsonArrayResponse matched = new JsonArrayResponse(gson);
+        for (String recordId : TextIndex.search(stub, TextIndex.RECORD, query, limit)) {
+            try {
+                Record record = Ledger.get(stub, RECORD_PREFIX + recordId, Record.class);
+                if (record != null) matched.add(record);
+            } catch (JsonSyntaxException ignored) {}
+        }
+        return matched.toJson();
     }
 
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public String getPrescriptionsByPatient(Context ctx, String patientId) {
         ChaincodeStub stub = ctx.getStub();
-        List<Prescription> prescriptions = new ArrayList<>();
-        try (QueryResultsIterator<KeyValue> results =
-                     stub.getStateByRange(PRESCRIPTION_PREFIX, PRESCRIPTION_PREFIX + "\uFFFF")) {
-            for (KeyValue kv : results) {
-                try {
-                    Prescription pres = gson.fromJson(kv.getStringValue(), Prescription.class);
-                    if (pres != null && patientId.equals(pres.getPatientId())) prescriptions.add(pres);
-                } catch (JsonSyntaxException ignored) {}
-            }
-        } catch (Exception e) {
-            throw new ChaincodeException("Error fetching prescriptions: " + e.getMessage());
+        JsonArrayResponse prescriptions = new JsonArrayResponse(gson);
+        for (String prescriptionId : Indexes.ids(stub, Indexes.PATIENT_PRESCRIPTION, patientId)) {
+            try {
+                prescriptions.addStored(Ledger.getStoredIf(stub, PRESCRIPTION_PREFIX + prescriptionId,
+                        Prescription.class, "patientId", patientId::equals), Prescription.class);
+            } catch (JsonSyntaxException ignored) {}
         }
-        return gson.toJson(prescriptions);
+        return prescriptions.toJson();
     }
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
@@ -188,19 +198,50 @@ public class RecordContract implements ContractInterface {
             throw new ChaincodeException("Prescription must be linked to a valid Patient");
 
         String patientKey = PATIENT_PREFIX + pres.getPatientId();
-        String patientJson = stub.getStringState(patientKey);
-        if (patientJson == null || patientJson.isEmpty())
+        if (!Ledger.exists(stub, patientKey))
             throw new ChaincodeException("Referenced Patient not found: " + pres.getPatientId());
 
-        Patient patient = gson.fromJson(patientJson, Patient.class);
-        List<String> prescriptionIds = patient.getPrescriptionsIds();
-        if (prescriptionIds == null) prescriptionIds = new ArrayList<>();
-        if (!prescriptionIds.contains(pres.getPrescriptionId())) prescriptionIds.add(pres.getPrescriptionId());
-        patient.setPrescriptionsIds(prescriptionIds);
-
-        stub.putStringState(patientKey, gson.toJson(patient));
         String presKey = PRESCRIPTION_PREFIX + pres.getPrescriptionId();
-        stub.putStringState(presKey, gson.toJson(pres));
+        Prescription previous = Ledger.get(stub, presKey, Prescription.class);
+        if (previous == null) previous = new Prescription();
+        Ledger.put(stub, presKey, pres);
+        Indexes.move(stub, Indexes.PATIENT_PRESCRIPTION, previous.getPatientId(),
+                pres.getPatientId(), pres.getPrescriptionId());
+        Indexes.move(stub, Indexes.DOCTOR_PRESCRIPTION, previous.getDoctorId(),
+                pres.getDoctorId(), pres.getPrescriptionId());
+        TextIndex.update(stub, TextIndex.PRESCRIPTION, pres.getPrescriptionId(),
+                TextIndex.tokens(previous.getRemarks()), TextIndex.tokens(pres.getRemarks()));
         return "Prescription uploaded and linked to patient: " + pres.getPatientId();
     }
+
+    private static Set<String> recordTokens(Record record) {
+        return TextIndex.tokens(record.getDiagnosis(), record.getTreatment(), record.getRemarks());
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getAllRecordsPaged(Context ctx, int pageSize, String bookmark) {
+        return Pages.fetch(ctx.getStub(), gson, RECORD_PREFIX, pageSize, bookmark, Record.class,
+                "recordId", id -> id != null && !id.isEmpty());
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String listRecordIds(Context ctx, int pageSize, String bookmark) {
+        return Pages.fetchIds(ctx.getStub(), gson, RECORD_PREFIX, pageSize, bookmark);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String listRecordSummaries(Context ctx, String fields, int pageSize, String bookmark) {
+        return Pages.fetchFields(ctx.getStub(), gson, RECORD_PREFIX, Record.class, Projection.fields(fields, SUMMARY_FIELDS),
+                pageSize, bookmark);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public long countRecords(Context ctx) {
+        return Aggregates.count(ctx.getStub(), RECORD_PREFIX);
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getRecordsByIds(Context ctx, String idsJson) {
+        return BatchRead.byIds(ctx.getStub(), gson, RECORD_PREFIX, Record.class, idsJson);
+    }
 }
@@ -0,0 +1,104 @@
+package org.rishbootdev.chaincode.contracts;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.contract.annotation.Contract;
+import org.hyperledger.fabric.contract.annotation.Info;
+import org.hyperledger.fabric.contract.annotation.Transaction;
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.rishbootdev.chaincode.context.HealthContract;
+import org.rishbootdev.chaincode.json.JsonSupport;
+import org.rishbootdev.chaincode.model.StorageConfig;
+import org.rishbootdev.chaincode.state.Ledger;
+import org.rishbootdev.chaincode.state.StorageStats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Storage settings and per-entity size statistics. Changing the compression
+ * threshold only affects values written afterwards; existing values are
+ * recompressed or expanded the next time they are updated.
+ *
+ * <p>Compression is off by default (threshold 0). DEFLATE output can differ
+ * between zlib builds, so only enable it when every endorsing peer runs the
+ * same chaincode image; otherwise endorsements of large writes will not
+ * match.</p>
+ */
+@Contract(
+        name = "StorageAdminContract",
+        info = @Info(
+                title = "StorageAdminContract",
+                description = "Configures value compression and reports storage statistics",
+                version = "1.0.0"
+        )
+)
+public class StorageAdminContract implements HealthContract {
+
+    private final Gson gson = JsonSupport.gson();
+
+    private static final Map<String, String> ENTITY_PREFIXES = new LinkedHashMap<>();
+
+    static {
+        ENTITY_PREFIXES.put("hospitals", "HOSPITAL_");
+        ENTITY_PREFIXES.put("doctors", "DOCTOR_");
+        ENTITY_PREFIXES.put("patients", "PATIENT_");
+        ENTITY_PREFIXES.put("records", "RECORD_");
+        ENTITY_PREFIXES.put("prescriptions", "PRESC_");
+        ENTITY_PREFIXES.put("labs", "LAB_");
+        ENTITY_PREFIXES.put("labReports", "REPORT_");
+        ENTITY_PREFIXES.put("medicines", "MEDICINE_");
+        ENTITY_PREFIXES.put("pharmas", "PHARMA_");
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public StorageConfig getStorageConfig(Context ctx) {
+        return Ledger.storageConfig(ctx.getStub());
+    }
+
+    @Transaction(intent = Transaction.TYPE.SUBMIT)
+    public StorageConfig setCompressionThreshold(Context ctx, int threshold) {
+        ChaincodeStub stub = ctx.getStub();
+        if (threshold > 0 && threshold < StorageConfig.MIN_COMPRESSION_THRESHOLD) {
+            throw new ChaincodeException("Compression threshold must be 0 (off) or at least "
+                    + StorageConfig.MIN_COMPRESSION_THRESHOLD + " bytes: " + threshold);
+        }
+        StorageConfig config = new StorageConfig(Math.max(threshold, 0), stub.getTxTimestamp().toEpochMilli());
+        Ledger.putStorageConfig(stub, config);
+        return config;
+    }
+
+    @Transaction(intent = Transaction.TYPE.EVALUATE)
+    public String getStorageStats(Context ctx, String entity) {
+        ChaincodeStub stub = ctx.getStub();
+        JsonObject result = new JsonObject();
+        if (entity == null || entity.isEmpty()) {
+            for (Map.Entry<String, String> entry : ENTITY_PREFIXES.entrySet()) {
+                result.add(entry.getKey(), scan(stub, entry.getValue()));
+            }
+        } else {
+            String prefix = ENTITY_PREFIXES.get(entity);
+            if (prefix == null) {
+                throw new ChaincodeException("Unknown entity: " + entity + " (expected one of " + ENTITY_PREFIXES.keySet() + ")");
+            }
+            result.add(entity, scan(stub, prefix));
+        }
+        return gson.toJson(result);
+    }
+
+    private JsonObject scan(ChaincodeStub stub, String prefix) {
+        StorageStats stats = new StorageStats();
+        try (QueryResultsIterator<KeyValue> results = stub.getStateByRange(prefix, prefix + "\uFFFF")) {
+            for (KeyValue kv : results) {
+                stats.add(kv.getValue());
+            }
+        } catch (Exception e) {
+            throw new ChaincodeException("Error scanning " + prefix + ": " + e.getMessage());
+        }
+        return stats.toJson();
+    }
+}
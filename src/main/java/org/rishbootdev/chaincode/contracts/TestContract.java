@@ -3,19 +3,24 @@ package org.rishbootdev.chaincode.contracts;
 
 import com.google.gson.Gson;
 import org.hyperledger.fabric.contract.Context;
-import org.hyperledger.fabric.contract.ContractInterface;
 import org.hyperledger.fabric.contract.annotation.Contract;
 import org.hyperledger.fabric.contract.annotation.Default;
 import org.hyperledger.fabric.contract.annotation.Info;
 import org.hyperledger.fabric.contract.annotation.Transaction;
 import org.hyperledger.fabric.shim.ChaincodeException;
 import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.rishbootdev.chaincode.context.HealthContract;
+import org.rishbootdev.chaincode.index.Indexes;
+import org.rishbootdev.chaincode.index.TextIndex;
+import org.rishbootdev.chaincode.json.JsonSupport;
 import org.rishbootdev.chaincode.model.Hospital;
 import org.rishbootdev.chaincode.model.Lab;
 import org.rishbootdev.chaincode.model.Patient;
 import org.rishbootdev.chaincode.model.Record;
+import org.rishbootdev.chaincode.state.Ledger;
 
 import java.util.ArrayList;
+import java.util.Collections;
 
 @Contract(
         name="TestContract",
@@ -26,14 +31,14 @@ import java.util.ArrayList;
         )
 )
 @Default
-public class TestContract implements ContractInterface {
+public class TestContract implements HealthContract {
 
 
     @Transaction(intent = Transaction.TYPE.EVALUATE)
     public String ping(Context ctx) {
         return "PONG: Chaincode is active and responding";
     }
-    private static final Gson gson = new Gson();
+    private static final Gson gson = JsonSupport.gson();
 
 
     @Transaction(intent = Transaction.TYPE.SUBMIT)
@@ -79,10 +84,11 @@ public class TestContract implements ContractInterface {
                     new ArrayList<>(),
                     new ArrayList<>()
             );
-            stub.putStringState("HOSPITAL_" + hospital.getHospitalId(), gson.toJson(hospital));
+            Ledger.put(stub, "HOSPITAL_" + hospital.getHospitalId(), hospital);
 
             Lab lab = new Lab("LAB1", "Central Diagnostics", "HOSP1", new ArrayList<>());
-            stub.putStringState("LAB_" + lab.getLabId(), gson.toJson(lab));
+            Ledger.put(stub, "LAB_" + lab.getLabId(), lab);
+            Indexes.add(stub, Indexes.HOSPITAL_LAB, lab.getHospitalId(), lab.getLabId());
 
             Patient patient = new Patient(
                     "PAT1",
@@ -99,7 +105,8 @@ public class TestContract implements ContractInterface {
                     null,
                     "HOSP1"
             );
-            stub.putStringState("PATIENT_" + patient.getPatientId(), gson.toJson(patient));
+            Ledger.put(stub, "PATIENT_" + patient.getPatientId(), patient);
+            Indexes.add(stub, Indexes.HOSPITAL_PATIENT, patient.getHospitalId(), patient.getPatientId());
 
             org.rishbootdev.chaincode.model.Record record = new Record(
                     "REC1",
@@ -111,7 +118,11 @@ public class TestContract implements ContractInterface {
                     "Avoid stress",
                     "2025-11-03"
             );
-            stub.putStringState("RECORD_" + record.getRecordId(), gson.toJson(record));
+            Ledger.put(stub, "RECORD_" + record.getRecordId(), record);
+            Indexes.add(stub, Indexes.DOCTOR_RECORD, record.getDoctorId(), record.getRecordId());
+            Indexes.add(stub, Indexes.HOSPITAL_RECORD, record.getHospitalId(), record.getRecordId());
+            TextIndex.update(stub, TextIndex.RECORD, record.getRecordId(), Collections.emptySet(),
+                    TextIndex.tokens(record.getDiagnosis(), record.getTreatment(), record.getRemarks()));
 
             return "Test data inserted into ledger successfully";
         } catch (Exception e) {
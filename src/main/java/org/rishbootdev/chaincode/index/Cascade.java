@@ -0,0 +1,80 @@
+package org.rishbootdev.chaincode.index;
+
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Walks the children linked from a parent that is being deleted, finding
+ * them through its edge keys rather than by scanning child documents. Each
+ * child is handed to an action and its edge is then removed, so a later
+ * page simply starts from the edges that remain and no cursor is kept.
+ *
+ * <p>A bounded cascade stops after {@code limit} children across all the
+ * edge sets it is given; {@link #isComplete} tells the caller whether the
+ * parent itself can now go.</p>
+ */
+public final class Cascade {
+
+    public static final int DEFAULT_PAGE_SIZE = 200;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final ChaincodeStub stub;
+    private final int limit;
+    private int processed;
+    private boolean remaining;
+
+    private Cascade(ChaincodeStub stub, int limit) {
+        this.stub = stub;
+        this.limit = limit;
+    }
+
+    public static Cascade unbounded(ChaincodeStub stub) {
+        return new Cascade(stub, Integer.MAX_VALUE);
+    }
+
+    public static Cascade page(ChaincodeStub stub, int pageSize) {
+        return new Cascade(stub, pageSize <= 0 ? DEFAULT_PAGE_SIZE : Math.min(pageSize, MAX_PAGE_SIZE));
+    }
+
+    public void each(String index, String owner, Consumer<String> action) {
+        if (owner == null || owner.isEmpty()) {
+            return;
+        }
+        for (String key : edges(index, owner)) {
+            action.accept(Indexes.idOf(stub, key));
+            Indexes.removeKey(stub, key);
+            processed++;
+        }
+    }
+
+    public int getProcessed() {
+        return processed;
+    }
+
+    public boolean isComplete() {
+        return !remaining;
+    }
+
+    private List<String> edges(String index, String owner) {
+        List<String> keys = new ArrayList<>();
+        try (QueryResultsIterator<KeyValue> results =
+                     stub.getStateByPartialCompositeKey(stub.createCompositeKey(index, owner))) {
+            for (KeyValue kv : results) {
+                if (processed + keys.size() >= limit) {
+                    remaining = true;
+                    break;
+                }
+                keys.add(kv.getKey());
+            }
+        } catch (Exception e) {
+            throw new ChaincodeException("Error reading index " + index + ": " + e.getMessage());
+        }
+        return keys;
+    }
+}
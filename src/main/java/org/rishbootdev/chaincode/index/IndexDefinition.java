@@ -0,0 +1,62 @@
+package org.rishbootdev.chaincode.index;
+
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Describes how a secondary index is derived from one entity prefix, so it
+ * can be purged and rebuilt from the documents already on the ledger.
+ */
+public final class IndexDefinition {
+
+    public interface Writer {
+        int write(ChaincodeStub stub, byte[] value);
+    }
+
+    public interface EntryScan {
+        QueryResultsIterator<KeyValue> open(ChaincodeStub stub);
+    }
+
+    private final String name;
+    private final String sourcePrefix;
+    private final Writer writer;
+    private final EntryScan entries;
+    private final List<String> prerequisites;
+
+    IndexDefinition(String name, String sourcePrefix, Writer writer, EntryScan entries) {
+        this(name, sourcePrefix, writer, entries, Collections.emptyList());
+    }
+
+    IndexDefinition(String name, String sourcePrefix, Writer writer, EntryScan entries, List<String> prerequisites) {
+        this.name = name;
+        this.sourcePrefix = sourcePrefix;
+        this.writer = writer;
+        this.entries = entries;
+        this.prerequisites = Collections.unmodifiableList(prerequisites);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSourcePrefix() {
+        return sourcePrefix;
+    }
+
+    /** Indexes whose jobs must be done before this one may run. */
+    public List<String> getPrerequisites() {
+        return prerequisites;
+    }
+
+    public int write(ChaincodeStub stub, byte[] value) {
+        return writer.write(stub, value);
+    }
+
+    public QueryResultsIterator<KeyValue> openEntries(ChaincodeStub stub) {
+        return entries.open(stub);
+    }
+}
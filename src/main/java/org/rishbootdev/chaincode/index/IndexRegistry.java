@@ -0,0 +1,268 @@
+package org.rishbootdev.chaincode.index;
+
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.rishbootdev.chaincode.model.Doctor;
+import org.rishbootdev.chaincode.model.Hospital;
+import org.rishbootdev.chaincode.model.Lab;
+import org.rishbootdev.chaincode.model.LabReport;
+import org.rishbootdev.chaincode.model.Medicine;
+import org.rishbootdev.chaincode.model.Patient;
+import org.rishbootdev.chaincode.model.Pharma;
+import org.rishbootdev.chaincode.model.Prescription;
+import org.rishbootdev.chaincode.model.Record;
+import org.rishbootdev.chaincode.state.Ledger;
+import org.rishbootdev.chaincode.state.StateCodec;
+import org.rishbootdev.chaincode.state.StateFields;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Every secondary index maintained by the contracts, keyed by the name used in
+ * the index admin transactions, and the migrations that move embedded id
+ * lists into the edge store.
+ *
+ * <p>Pharma-medicine links have no owner field on either document, so once
+ * migrated their edges are the only copy and they are not listed as
+ * rebuildable indexes.</p>
+ */
+public final class IndexRegistry {
+
+    public static final String TOKEN_RECORD = TextIndex.TOKEN + "~" + TextIndex.RECORD;
+    public static final String TOKEN_PRESCRIPTION = TextIndex.TOKEN + "~" + TextIndex.PRESCRIPTION;
+    public static final String MEDICINE_NAME = "medname";
+    public static final String LINKS_HOSPITAL = "links~hospital";
+    public static final String LINKS_DOCTOR = "links~doctor";
+    public static final String LINKS_PATIENT = "links~patient";
+    public static final String LINKS_LAB = "links~lab";
+    public static final String LINKS_PHARMA = "links~pharma";
+
+    private static final String HOSPITAL_PREFIX = "HOSPITAL_";
+    private static final String DOCTOR_PREFIX = "DOCTOR_";
+    private static final String PATIENT_PREFIX = "PATIENT_";
+    private static final String RECORD_PREFIX = "RECORD_";
+    private static final String PRESC_PREFIX = "PRESC_";
+    private static final String REPORT_PREFIX = "REPORT_";
+    private static final String LAB_PREFIX = "LAB_";
+    private static final String PHARMA_PREFIX = "PHARMA_";
+    private static final String MEDICINE_PREFIX = "MEDICINE_";
+
+    private static final Map<String, IndexDefinition> DEFINITIONS = new LinkedHashMap<>();
+    private static final Map<String, IndexDefinition> MIGRATIONS = new LinkedHashMap<>();
+
+    static {
+        composite(Indexes.DOCTOR_RECORD, RECORD_PREFIX, Record.class, "doctorId", "recordId");
+        composite(Indexes.DOCTOR_PATIENT, PATIENT_PREFIX, Patient.class, "doctorId", "patientId");
+        composite(Indexes.PATIENT_PRESCRIPTION, PRESC_PREFIX, Prescription.class, "patientId", "prescriptionId");
+        composite(Indexes.DOCTOR_PRESCRIPTION, PRESC_PREFIX, Prescription.class, "doctorId", "prescriptionId");
+        composite(Indexes.PATIENT_REPORT, REPORT_PREFIX, LabReport.class, "patientId", "reportId");
+        composite(Indexes.HOSPITAL_DOCTOR, DOCTOR_PREFIX, Doctor.class, "hospitalId", "doctorId");
+        composite(Indexes.HOSPITAL_PATIENT, PATIENT_PREFIX, Patient.class, "hospitalId", "patientId");
+        composite(Indexes.HOSPITAL_RECORD, RECORD_PREFIX, Record.class, "hospitalId", "recordId");
+        composite(Indexes.HOSPITAL_LAB, LAB_PREFIX, Lab.class, "hospitalId", "labId");
+        composite(Indexes.LAB_REPORT, REPORT_PREFIX, LabReport.class, "labId", "reportId");
+        composite(Indexes.PATIENT_RECORD, RECORD_PREFIX, Record.class, "patientId", "recordId");
+        register(new IndexDefinition(TOKEN_RECORD, RECORD_PREFIX, (stub, value) -> {
+            Record record = StateCodec.decode(value, Record.class);
+            Set<String> tokens = TextIndex.tokens(record.getDiagnosis(), record.getTreatment(), record.getRemarks());
+            TextIndex.update(stub, TextIndex.RECORD, record.getRecordId(), Collections.emptySet(), tokens);
+            return tokens.size();
+        }, stub -> stub.getStateByPartialCompositeKey(stub.createCompositeKey(TextIndex.TOKEN, TextIndex.RECORD))));
+        register(new IndexDefinition(TOKEN_PRESCRIPTION, PRESC_PREFIX, (stub, value) -> {
+            Prescription prescription = StateCodec.decode(value, Prescription.class);
+            Set<String> tokens = TextIndex.tokens(prescription.getRemarks());
+            TextIndex.update(stub, TextIndex.PRESCRIPTION, prescription.getPrescriptionId(), Collections.emptySet(), tokens);
+            return tokens.size();
+        }, stub -> stub.getStateByPartialCompositeKey(stub.createCompositeKey(TextIndex.TOKEN, TextIndex.PRESCRIPTION))));
+        register(new IndexDefinition(MEDICINE_NAME, MEDICINE_PREFIX, (stub, value) -> {
+            Medicine medicine = StateCodec.decode(value, Medicine.class);
+            NameIndex.add(stub, NameIndex.MEDICINE, medicine.getName(), medicine.getId());
+            return NameIndex.fold(medicine.getName()).isEmpty() ? 0 : 1;
+        }, stub -> stub.getStateByRange(NameIndex.MEDICINE, NameIndex.MEDICINE + "\uFFFF")));
+
+        migration(LINKS_HOSPITAL, HOSPITAL_PREFIX, (stub, value) -> {
+            Hospital hospital = StateCodec.decode(value, Hospital.class);
+            if (isEmpty(hospital.getDoctorIds()) && isEmpty(hospital.getPatientIds())
+                    && isEmpty(hospital.getRecordIds()) && isEmpty(hospital.getLabIds())) {
+                return 0;
+            }
+            String hospitalId = hospital.getHospitalId();
+            adoptAll(hospital.getDoctorIds(), id -> adopt(stub, Indexes.HOSPITAL_DOCTOR, hospitalId, DOCTOR_PREFIX, id,
+                    Doctor.class, Doctor::getHospitalId, Doctor::setHospitalId));
+            adoptAll(hospital.getPatientIds(), id -> adopt(stub, Indexes.HOSPITAL_PATIENT, hospitalId, PATIENT_PREFIX, id,
+                    Patient.class, Patient::getHospitalId, Patient::setHospitalId));
+            adoptAll(hospital.getRecordIds(), id -> adopt(stub, Indexes.HOSPITAL_RECORD, hospitalId, RECORD_PREFIX, id,
+                    Record.class, Record::getHospitalId, Record::setHospitalId));
+            adoptAll(hospital.getLabIds(), id -> adopt(stub, Indexes.HOSPITAL_LAB, hospitalId, LAB_PREFIX, id,
+                    Lab.class, Lab::getHospitalId, Lab::setHospitalId));
+            hospital.setDoctorIds(new ArrayList<>());
+            hospital.setPatientIds(new ArrayList<>());
+            hospital.setRecordIds(new ArrayList<>());
+            hospital.setLabIds(new ArrayList<>());
+            Ledger.put(stub, HOSPITAL_PREFIX + hospitalId, hospital);
+            return 1;
+        }, Indexes.HOSPITAL_DOCTOR, Indexes.HOSPITAL_PATIENT, Indexes.HOSPITAL_RECORD, Indexes.HOSPITAL_LAB);
+        migration(LINKS_DOCTOR, DOCTOR_PREFIX, (stub, value) -> {
+            Doctor doctor = StateCodec.decode(value, Doctor.class);
+            if (isEmpty(doctor.getPatientIds()) && isEmpty(doctor.getRecordIds())) {
+                return 0;
+            }
+            String doctorId = doctor.getDoctorId();
+            adoptAll(doctor.getPatientIds(), id -> adopt(stub, Indexes.DOCTOR_PATIENT, doctorId, PATIENT_PREFIX, id,
+                    Patient.class, Patient::getDoctorId, Patient::setDoctorId));
+            adoptAll(doctor.getRecordIds(), id -> adopt(stub, Indexes.DOCTOR_RECORD, doctorId, RECORD_PREFIX, id,
+                    Record.class, Record::getDoctorId, Record::setDoctorId));
+            doctor.setPatientIds(new ArrayList<>());
+            doctor.setRecordIds(new ArrayList<>());
+            Ledger.put(stub, DOCTOR_PREFIX + doctorId, doctor);
+            return 1;
+        }, Indexes.DOCTOR_PATIENT, Indexes.DOCTOR_RECORD);
+        migration(LINKS_PATIENT, PATIENT_PREFIX, (stub, value) -> {
+            Patient patient = StateCodec.decode(value, Patient.class);
+            if (isEmpty(patient.getRecordIds()) && isEmpty(patient.getPrescriptionsIds())) {
+                return 0;
+            }
+            String patientId = patient.getPatientId();
+            adoptAll(patient.getRecordIds(), id -> adopt(stub, Indexes.PATIENT_RECORD, patientId, RECORD_PREFIX, id,
+                    Record.class, Record::getPatientId, Record::setPatientId));
+            adoptAll(patient.getPrescriptionsIds(), id -> adopt(stub, Indexes.PATIENT_PRESCRIPTION, patientId, PRESC_PREFIX,
+                    id, Prescription.class, Prescription::getPatientId, Prescription::setPatientId));
+            patient.setRecordIds(new ArrayList<>());
+            patient.setPrescriptionsIds(new ArrayList<>());
+            Ledger.put(stub, PATIENT_PREFIX + patientId, patient);
+            return 1;
+        }, Indexes.PATIENT_RECORD, Indexes.PATIENT_PRESCRIPTION);
+        migration(LINKS_LAB, LAB_PREFIX, (stub, value) -> {
+            Lab lab = StateCodec.decode(value, Lab.class);
+            if (isEmpty(lab.getReportIds())) {
+                return 0;
+            }
+            adoptAll(lab.getReportIds(), id -> adopt(stub, Indexes.LAB_REPORT, lab.getLabId(), REPORT_PREFIX, id,
+                    LabReport.class, LabReport::getLabId, LabReport::setLabId));
+            lab.setReportIds(new ArrayList<>());
+            Ledger.put(stub, LAB_PREFIX + lab.getLabId(), lab);
+            return 1;
+        }, Indexes.LAB_REPORT);
+        migration(LINKS_PHARMA, PHARMA_PREFIX, (stub, value) -> {
+            Pharma pharma = StateCodec.decode(value, Pharma.class);
+            if (isEmpty(pharma.getMedicineIds())) {
+                return 0;
+            }
+            for (String medicineId : pharma.getMedicineIds()) {
+                link(stub, Indexes.PHARMA_MEDICINE, pharma.getPharmaId(), medicineId);
+                link(stub, Indexes.MEDICINE_PHARMA, medicineId, pharma.getPharmaId());
+            }
+            pharma.setMedicineIds(new ArrayList<>());
+            Ledger.put(stub, PHARMA_PREFIX + pharma.getPharmaId(), pharma);
+            return 1;
+        });
+    }
+
+    private IndexRegistry() {
+    }
+
+    public static IndexDefinition get(String name) {
+        IndexDefinition definition = DEFINITIONS.get(name);
+        if (definition == null) {
+            throw new ChaincodeException("Unknown index: " + name);
+        }
+        return definition;
+    }
+
+    public static List<String> names() {
+        return new ArrayList<>(DEFINITIONS.keySet());
+    }
+
+    public static IndexDefinition migration(String name) {
+        IndexDefinition definition = MIGRATIONS.get(name);
+        if (definition == null) {
+            throw new ChaincodeException("Unknown migration: " + name);
+        }
+        return definition;
+    }
+
+    public static List<String> migrationNames() {
+        return new ArrayList<>(MIGRATIONS.keySet());
+    }
+
+    /**
+     * An owner-to-id index whose writer reads just the two fields it needs
+     * from each stored value.
+     */
+    private static void composite(String name, String sourcePrefix, Class<?> type, String ownerField, String idField) {
+        composite(name, sourcePrefix, (stub, value) -> link(stub, name,
+                StateFields.string(value, type, ownerField), StateFields.string(value, type, idField)));
+    }
+
+    private static void composite(String name, String sourcePrefix, IndexDefinition.Writer writer) {
+        register(new IndexDefinition(name, sourcePrefix, writer,
+                stub -> stub.getStateByPartialCompositeKey(stub.createCompositeKey(name))));
+    }
+
+    private static void register(IndexDefinition definition) {
+        DEFINITIONS.put(definition.getName(), definition);
+    }
+
+    /**
+     * A one-way pass that moves a parent's embedded id lists out of its
+     * document. Its writer rewrites the parent, so there is nothing to purge.
+     * The listed indexes must be backfilled first: children that already name
+     * the parent are only linked by them.
+     */
+    private static void migration(String name, String sourcePrefix, IndexDefinition.Writer writer,
+                                  String... prerequisites) {
+        MIGRATIONS.put(name, new IndexDefinition(name, sourcePrefix, writer, stub -> {
+            throw new ChaincodeException("Migration " + name + " cannot be rebuilt");
+        }, Arrays.asList(prerequisites)));
+    }
+
+    private static boolean isEmpty(List<String> ids) {
+        return ids == null || ids.isEmpty();
+    }
+
+    private static void adoptAll(List<String> ids, Consumer<String> adopt) {
+        if (ids != null) {
+            ids.forEach(adopt);
+        }
+    }
+
+    /**
+     * Links a child listed on a parent, setting the child's owner field when
+     * it has none; the old link transactions touched only the parent's list,
+     * so many children never got one. A child that names another owner keeps
+     * it, since the child's own field is what the edges are rebuilt from.
+     */
+    private static <T> void adopt(ChaincodeStub stub, String index, String owner, String childPrefix, String id,
+                                  Class<T> type, Function<T, String> ownerOf, BiConsumer<T, String> setOwner) {
+        T child = Ledger.get(stub, childPrefix + id, type);
+        if (child == null) {
+            return;
+        }
+        String current = ownerOf.apply(child);
+        if (current == null || current.isEmpty()) {
+            setOwner.accept(child, owner);
+            Ledger.put(stub, childPrefix + id, child);
+            current = owner;
+        }
+        if (owner.equals(current)) {
+            link(stub, index, owner, id);
+        }
+    }
+
+    private static int link(ChaincodeStub stub, String index, String owner, String id) {
+        if (owner == null || owner.isEmpty() || id == null || id.isEmpty()) {
+            return 0;
+        }
+        Indexes.add(stub, index, owner, id);
+        return 1;
+    }
+}
@@ -0,0 +1,223 @@
+package org.rishbootdev.chaincode.index;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.rishbootdev.chaincode.state.ShardedCounter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Secondary indexes stored as composite keys of the form {@code index~owner~id}.
+ * The value is a single marker byte; the relationship lives entirely in the key.
+ *
+ * <p>These are also the only record of which children a parent has: link
+ * operations write one edge key instead of rewriting the parent document, so
+ * concurrent links to the same parent do not conflict.</p>
+ *
+ * <p>Some edge sets also keep their per-owner size in a
+ * {@link ShardedCounter}, so it can be read without scanning the edges.
+ * Adding or removing an edge of such a set first checks whether it exists,
+ * so repeated links are counted once.</p>
+ */
+public final class Indexes {
+
+    public static final String DOCTOR_RECORD = "doctor~record";
+    public static final String DOCTOR_PATIENT = "doctor~patient";
+    public static final String PATIENT_PRESCRIPTION = "patient~presc";
+    public static final String DOCTOR_PRESCRIPTION = "doctor~presc";
+    public static final String PATIENT_REPORT = "patient~report";
+    public static final String HOSPITAL_DOCTOR = "hospital~doctor";
+    public static final String HOSPITAL_PATIENT = "hospital~patient";
+    public static final String HOSPITAL_RECORD = "hospital~record";
+    public static final String HOSPITAL_LAB = "hospital~lab";
+    public static final String MEDICINE_PHARMA = "medicine~pharma";
+    public static final String PHARMA_MEDICINE = "pharma~medicine";
+    public static final String LAB_REPORT = "lab~report";
+    public static final String PATIENT_RECORD = "patient~record";
+
+    private static final byte[] PRESENT = {0x00};
+
+    private static final Map<String, String> COUNTERS = new HashMap<>();
+
+    static {
+        COUNTERS.put(HOSPITAL_PATIENT, "hospital~patients");
+        COUNTERS.put(DOCTOR_RECORD, "doctor~records");
+        COUNTERS.put(LAB_REPORT, "lab~reports");
+    }
+
+    private Indexes() {
+    }
+
+    public static void add(ChaincodeStub stub, String index, String owner, String id) {
+        if (isBlank(owner) || isBlank(id)) {
+            return;
+        }
+        String counter = COUNTERS.get(index);
+        if (counter != null) {
+            if (contains(stub, index, owner, id)) {
+                return;
+            }
+            ShardedCounter.add(stub, counter, owner, 1);
+        }
+        stub.putState(stub.createCompositeKey(index, owner, id).toString(), PRESENT);
+    }
+
+    public static void remove(ChaincodeStub stub, String index, String owner, String id) {
+        if (isBlank(owner) || isBlank(id)) {
+            return;
+        }
+        String counter = COUNTERS.get(index);
+        if (counter != null) {
+            if (!contains(stub, index, owner, id)) {
+                return;
+            }
+            ShardedCounter.add(stub, counter, owner, -1);
+        }
+        stub.delState(stub.createCompositeKey(index, owner, id).toString());
+    }
+
+    /** Removes an edge given its full key, as read back from an index scan. */
+    public static void removeKey(ChaincodeStub stub, String key) {
+        CompositeKey parts = stub.splitCompositeKey(key);
+        List<String> attributes = parts.getAttributes();
+        if (attributes.size() == 2) {
+            remove(stub, parts.getObjectType(), attributes.get(0), attributes.get(1));
+        } else {
+            stub.delState(key);
+        }
+    }
+
+    public static void move(ChaincodeStub stub, String index, String oldOwner, String newOwner, String id) {
+        if (Objects.equals(oldOwner, newOwner)) {
+            return;
+        }
+        remove(stub, index, oldOwner, id);
+        add(stub, index, newOwner, id);
+    }
+
+    public static boolean contains(ChaincodeStub stub, String index, String owner, String id) {
+        if (isBlank(owner) || isBlank(id)) {
+            return false;
+        }
+        byte[] value = stub.getState(stub.createCompositeKey(index, owner, id).toString());
+        return value != null && value.length > 0;
+    }
+
+    /** The linked id, which is the last attribute of an index key. */
+    public static String idOf(ChaincodeStub stub, String key) {
+        List<String> attributes = stub.splitCompositeKey(key).getAttributes();
+        return attributes.get(attributes.size() - 1);
+    }
+
+    public static List<String> ids(ChaincodeStub stub, String index, String owner) {
+        List<String> ids = new ArrayList<>();
+        if (isBlank(owner)) {
+            return ids;
+        }
+        try (QueryResultsIterator<KeyValue> results =
+                     stub.getStateByPartialCompositeKey(stub.createCompositeKey(index, owner))) {
+            for (KeyValue kv : results) {
+                ids.add(idOf(stub, kv.getKey()));
+            }
+        } catch (Exception e) {
+            throw new ChaincodeException("Error reading index " + index + ": " + e.getMessage());
+        }
+        return ids;
+    }
+
+    /**
+     * Fills a document's embedded id lists from the edges. The lists are kept
+     * empty on the ledger, so reads rebuild them for clients that still
+     * resolve relationships through them. {@code lists} maps each list's
+     * serialized field name to the index it mirrors.
+     */
+    public static JsonObject withLinks(ChaincodeStub stub, String owner, JsonObject document, Map<String, String> lists) {
+        for (Map.Entry<String, String> list : lists.entrySet()) {
+            JsonArray linked = new JsonArray();
+            for (String id : ids(stub, list.getValue(), owner)) {
+                linked.add(id);
+            }
+            document.add(list.getKey(), linked);
+        }
+        return document;
+    }
+
+    /** As {@link #withLinks(ChaincodeStub, String, JsonObject, Map)} for a JSON document. */
+    public static String withLinks(ChaincodeStub stub, String owner, String json, Map<String, String> lists) {
+        return withLinks(stub, owner, JsonParser.parseString(json).getAsJsonObject(), lists).toString();
+    }
+
+    public static boolean isCounted(String index) {
+        return COUNTERS.containsKey(index);
+    }
+
+    /**
+     * Number of ids linked to the owner: the counter for counted edge sets,
+     * otherwise a scan of the edges.
+     */
+    public static long size(ChaincodeStub stub, String index, String owner) {
+        String counter = COUNTERS.get(index);
+        return counter != null ? ShardedCounter.value(stub, counter, owner) : count(stub, index, owner);
+    }
+
+    /** Resets a counted edge set's counter to the number of edges it has. */
+    public static long recount(ChaincodeStub stub, String index, String owner) {
+        String counter = COUNTERS.get(index);
+        if (counter == null) {
+            throw new ChaincodeException("Index " + index + " has no counter");
+        }
+        long count = count(stub, index, owner);
+        ShardedCounter.set(stub, counter, owner, count);
+        return count;
+    }
+
+    /** Exact number of ids linked to the owner, by scanning the edges. */
+    public static long count(ChaincodeStub stub, String index, String owner) {
+        if (isBlank(owner)) {
+            return 0;
+        }
+        long count = 0;
+        try (QueryResultsIterator<KeyValue> results =
+                     stub.getStateByPartialCompositeKey(stub.createCompositeKey(index, owner))) {
+            for (KeyValue ignored : results) {
+                count++;
+            }
+        } catch (Exception e) {
+            throw new ChaincodeException("Error reading index " + index + ": " + e.getMessage());
+        }
+        return count;
+    }
+
+    /**
+     * Counts the entries of every owner in one pass over the index keys,
+     * ordered by owner.
+     */
+    public static Map<String, Long> countByOwner(ChaincodeStub stub, String index) {
+        Map<String, Long> counts = new TreeMap<>();
+        try (QueryResultsIterator<KeyValue> results =
+                     stub.getStateByPartialCompositeKey(stub.createCompositeKey(index))) {
+            for (KeyValue kv : results) {
+                String owner = stub.splitCompositeKey(kv.getKey()).getAttributes().get(0);
+                counts.merge(owner, 1L, Long::sum);
+            }
+        } catch (Exception e) {
+            throw new ChaincodeException("Error reading index " + index + ": " + e.getMessage());
+        }
+        return counts;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isEmpty();
+    }
+}
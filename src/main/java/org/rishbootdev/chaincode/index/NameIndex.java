@@ -0,0 +1,92 @@
+package org.rishbootdev.chaincode.index;
+
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIteratorWithMetadata;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Case-folded name index stored as simple keys {@code <prefix><name>~<id>}.
+ * Composite keys terminate every attribute with a delimiter, so they cannot
+ * serve type-ahead prefix ranges; simple keys can.
+ */
+public final class NameIndex {
+
+    public static final String MEDICINE = "MEDNAME~";
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 200;
+
+    private static final String SEPARATOR = "~";
+    private static final String RANGE_END = "\uFFFF";
+    private static final byte[] PRESENT = {0x00};
+
+    private NameIndex() {
+    }
+
+    public static String fold(String name) {
+        if (name == null) {
+            return "";
+        }
+        return name.replace(SEPARATOR, " ").trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    public static void add(ChaincodeStub stub, String index, String name, String id) {
+        String folded = fold(name);
+        if (folded.isEmpty() || id == null || id.isEmpty()) {
+            return;
+        }
+        stub.putState(index + folded + SEPARATOR + id, PRESENT);
+    }
+
+    public static void remove(ChaincodeStub stub, String index, String name, String id) {
+        String folded = fold(name);
+        if (folded.isEmpty() || id == null || id.isEmpty()) {
+            return;
+        }
+        stub.delState(index + folded + SEPARATOR + id);
+    }
+
+    public static void move(ChaincodeStub stub, String index, String oldName, String newName, String id) {
+        if (fold(oldName).equals(fold(newName))) {
+            return;
+        }
+        remove(stub, index, oldName, id);
+        add(stub, index, newName, id);
+    }
+
+    public static List<String> exact(ChaincodeStub stub, String index, String name, int limit) {
+        String folded = fold(name);
+        if (folded.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return range(stub, index, index + folded + SEPARATOR, limit);
+    }
+
+    public static List<String> prefix(ChaincodeStub stub, String index, String prefix, int limit) {
+        String folded = fold(prefix);
+        if (folded.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return range(stub, index, index + folded, limit);
+    }
+
+    private static List<String> range(ChaincodeStub stub, String index, String start, int limit) {
+        int pageSize = limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        List<String> ids = new ArrayList<>();
+        try (QueryResultsIteratorWithMetadata<KeyValue> results =
+                     stub.getStateByRangeWithPagination(start, start + RANGE_END, pageSize, "")) {
+            for (KeyValue kv : results) {
+                String key = kv.getKey();
+                ids.add(key.substring(key.indexOf(SEPARATOR, index.length()) + 1));
+            }
+        } catch (Exception e) {
+            throw new ChaincodeException("Error reading name index: " + e.getMessage());
+        }
+        return ids;
+    }
+}
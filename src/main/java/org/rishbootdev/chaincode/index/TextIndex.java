@@ -0,0 +1,147 @@
+package org.rishbootdev.chaincode.index;
+
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Inverted keyword index stored as {@code token~entity~term~id} composite keys.
+ * Multi-term searches intersect the posting ranges of every term, which all
+ * come back from the peer ordered by id.
+ */
+public final class TextIndex {
+
+    public static final String TOKEN = "token";
+    public static final String RECORD = "record";
+    public static final String PRESCRIPTION = "presc";
+
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    private static final int MIN_TOKEN_LENGTH = 2;
+    private static final byte[] PRESENT = {0x00};
+
+    private TextIndex() {
+    }
+
+    public static Set<String> tokens(String... fields) {
+        Set<String> tokens = new TreeSet<>();
+        for (String field : fields) {
+            if (field == null || field.isEmpty()) continue;
+            for (String token : field.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+                if (token.length() >= MIN_TOKEN_LENGTH) {
+                    tokens.add(token);
+                }
+            }
+        }
+        return tokens;
+    }
+
+    public static void update(ChaincodeStub stub, String entity, String id,
+                              Set<String> oldTokens, Set<String> newTokens) {
+        if (id == null || id.isEmpty()) {
+            return;
+        }
+        for (String token : oldTokens) {
+            if (!newTokens.contains(token)) {
+                stub.delState(stub.createCompositeKey(TOKEN, entity, token, id).toString());
+            }
+        }
+        for (String token : newTokens) {
+            if (!oldTokens.contains(token)) {
+                stub.putState(stub.createCompositeKey(TOKEN, entity, token, id).toString(), PRESENT);
+            }
+        }
+    }
+
+    public static List<String> search(ChaincodeStub stub, String entity, String query, int limit) {
+        List<String> terms = new ArrayList<>(tokens(query));
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+        int max = limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+
+        List<QueryResultsIterator<KeyValue>> postings = new ArrayList<>();
+        try {
+            List<Iterator<KeyValue>> cursors = new ArrayList<>();
+            for (String term : terms) {
+                QueryResultsIterator<KeyValue> posting =
+                        stub.getStateByPartialCompositeKey(stub.createCompositeKey(TOKEN, entity, term));
+                postings.add(posting);
+                cursors.add(posting.iterator());
+            }
+            return intersect(stub, cursors, max);
+        } finally {
+            for (QueryResultsIterator<KeyValue> posting : postings) {
+                try {
+                    posting.close();
+                } catch (Exception ignored) {}
+            }
+        }
+    }
+
+    private static List<String> intersect(ChaincodeStub stub, List<Iterator<KeyValue>> cursors, int max) {
+        List<String> matches = new ArrayList<>();
+        String[] heads = new String[cursors.size()];
+        for (int i = 0; i < heads.length; i++) {
+            heads[i] = next(stub, cursors.get(i));
+            if (heads[i] == null) return matches;
+        }
+
+        while (matches.size() < max) {
+            String highest = heads[0];
+            for (String head : heads) {
+                if (compareCodePoints(head, highest) > 0) highest = head;
+            }
+            boolean aligned = true;
+            for (int i = 0; i < heads.length; i++) {
+                while (compareCodePoints(heads[i], highest) < 0) {
+                    heads[i] = next(stub, cursors.get(i));
+                    if (heads[i] == null) return matches;
+                }
+                if (!heads[i].equals(highest)) aligned = false;
+            }
+            if (!aligned) continue;
+
+            matches.add(highest);
+            for (int i = 0; i < heads.length; i++) {
+                heads[i] = next(stub, cursors.get(i));
+                if (heads[i] == null) return matches;
+            }
+        }
+        return matches;
+    }
+
+    private static String next(ChaincodeStub stub, Iterator<KeyValue> cursor) {
+        try {
+            if (!cursor.hasNext()) return null;
+            List<String> attributes = stub.splitCompositeKey(cursor.next().getKey()).getAttributes();
+            return attributes.get(attributes.size() - 1);
+        } catch (RuntimeException e) {
+            throw new ChaincodeException("Error reading token index: " + e.getMessage());
+        }
+    }
+
+    // Ledger keys are ordered by their UTF-8 bytes, which matches code point order.
+    private static int compareCodePoints(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int ca = a.codePointAt(i);
+            int cb = b.codePointAt(j);
+            if (ca != cb) return Integer.compare(ca, cb);
+            i += Character.charCount(ca);
+            j += Character.charCount(cb);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    }
+}
@@ -0,0 +1,63 @@
+package org.rishbootdev.chaincode.json;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.rishbootdev.chaincode.model.Doctor;
+
+import java.io.IOException;
+
+final class DoctorAdapter extends TypeAdapter<Doctor> {
+
+    @Override
+    public void write(JsonWriter out, Doctor doctor) throws IOException {
+        out.beginObject();
+        out.name("doctorId").value(doctor.getDoctorId());
+        out.name("name").value(doctor.getName());
+        out.name("specialization").value(doctor.getSpecialization());
+        out.name("hospitalId").value(doctor.getHospitalId());
+        JsonFields.writeStrings(out.name("patientId"), doctor.getPatientIds());
+        JsonFields.writeStrings(out.name("recordId"), doctor.getRecordIds());
+        out.name("qualification").value(doctor.getQualification());
+        out.name("contact").value(doctor.getContact());
+        out.endObject();
+    }
+
+    @Override
+    public Doctor read(JsonReader in) throws IOException {
+        Doctor doctor = new Doctor();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "doctorId":
+                    doctor.setDoctorId(JsonFields.readString(in));
+                    break;
+                case "name":
+                    doctor.setName(JsonFields.readString(in));
+                    break;
+                case "specialization":
+                    doctor.setSpecialization(JsonFields.readString(in));
+                    break;
+                case "hospitalId":
+                    doctor.setHospitalId(JsonFields.readString(in));
+                    break;
+                case "patientId":
+                    doctor.setPatientIds(JsonFields.readStrings(in));
+                    break;
+                case "recordId":
+                    doctor.setRecordIds(JsonFields.readStrings(in));
+                    break;
+                case "qualification":
+                    doctor.setQualification(JsonFields.readString(in));
+                    break;
+                case "contact":
+                    doctor.setContact(JsonFields.readString(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return doctor;
+    }
+}
@@ -0,0 +1,63 @@
+package org.rishbootdev.chaincode.json;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.rishbootdev.chaincode.model.Hospital;
+
+import java.io.IOException;
+
+final class HospitalAdapter extends TypeAdapter<Hospital> {
+
+    @Override
+    public void write(JsonWriter out, Hospital hospital) throws IOException {
+        out.beginObject();
+        out.name("hospitalId").value(hospital.getHospitalId());
+        out.name("name").value(hospital.getName());
+        out.name("address").value(hospital.getAddress());
+        out.name("license").value(hospital.getLicense());
+        JsonFields.writeStrings(out.name("doctorIds"), hospital.getDoctorIds());
+        JsonFields.writeStrings(out.name("patientIds"), hospital.getPatientIds());
+        JsonFields.writeStrings(out.name("recordId"), hospital.getRecordIds());
+        JsonFields.writeStrings(out.name("labId"), hospital.getLabIds());
+        out.endObject();
+    }
+
+    @Override
+    public Hospital read(JsonReader in) throws IOException {
+        Hospital hospital = new Hospital();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "hospitalId":
+                    hospital.setHospitalId(JsonFields.readString(in));
+                    break;
+                case "name":
+                    hospital.setName(JsonFields.readString(in));
+                    break;
+                case "address":
+                    hospital.setAddress(JsonFields.readString(in));
+                    break;
+                case "license":
+                    hospital.setLicense(JsonFields.readString(in));
+                    break;
+                case "doctorIds":
+                    hospital.setDoctorIds(JsonFields.readStrings(in));
+                    break;
+                case "patientIds":
+                    hospital.setPatientIds(JsonFields.readStrings(in));
+                    break;
+                case "recordId":
+                    hospital.setRecordIds(JsonFields.readStrings(in));
+                    break;
+                case "labId":
+                    hospital.setLabIds(JsonFields.readStrings(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return hospital;
+    }
+}
@@ -0,0 +1,40 @@
+package org.rishbootdev.chaincode.json;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.rishbootdev.chaincode.model.Doctor;
+import org.rishbootdev.chaincode.model.Hospital;
+import org.rishbootdev.chaincode.model.Lab;
+import org.rishbootdev.chaincode.model.LabReport;
+import org.rishbootdev.chaincode.model.Medicine;
+import org.rishbootdev.chaincode.model.Patient;
+import org.rishbootdev.chaincode.model.Pharma;
+import org.rishbootdev.chaincode.model.Prescription;
+import org.rishbootdev.chaincode.model.Record;
+
+/**
+ * The Gson instance shared by every contract. Ledger models are bound by
+ * hand-written adapters instead of reflection; their output is identical to
+ * the reflective form, field order and {@code @SerializedName} names included.
+ */
+public final class JsonSupport {
+
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(Patient.class, new PatientAdapter().nullSafe())
+            .registerTypeAdapter(Doctor.class, new DoctorAdapter().nullSafe())
+            .registerTypeAdapter(Hospital.class, new HospitalAdapter().nullSafe())
+            .registerTypeAdapter(Record.class, new RecordAdapter().nullSafe())
+            .registerTypeAdapter(Prescription.class, new PrescriptionAdapter().nullSafe())
+            .registerTypeAdapter(LabReport.class, new LabReportAdapter().nullSafe())
+            .registerTypeAdapter(Lab.class, new LabAdapter().nullSafe())
+            .registerTypeAdapter(Medicine.class, new MedicineAdapter().nullSafe())
+            .registerTypeAdapter(Pharma.class, new PharmaAdapter().nullSafe())
+            .create();
+
+    private JsonSupport() {
+    }
+
+    public static Gson gson() {
+        return GSON;
+    }
+}
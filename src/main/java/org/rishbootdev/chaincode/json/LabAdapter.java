@@ -0,0 +1,47 @@
+package org.rishbootdev.chaincode.json;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.rishbootdev.chaincode.model.Lab;
+
+import java.io.IOException;
+
+final class LabAdapter extends TypeAdapter<Lab> {
+
+    @Override
+    public void write(JsonWriter out, Lab lab) throws IOException {
+        out.beginObject();
+        out.name("labId").value(lab.getLabId());
+        out.name("name").value(lab.getName());
+        out.name("hospitalId").value(lab.getHospitalId());
+        JsonFields.writeStrings(out.name("reportIds"), lab.getReportIds());
+        out.endObject();
+    }
+
+    @Override
+    public Lab read(JsonReader in) throws IOException {
+        Lab lab = new Lab();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "labId":
+                    lab.setLabId(JsonFields.readString(in));
+                    break;
+                case "name":
+                    lab.setName(JsonFields.readString(in));
+                    break;
+                case "hospitalId":
+                    lab.setHospitalId(JsonFields.readString(in));
+                    break;
+                case "reportIds":
+                    lab.setReportIds(JsonFields.readStrings(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return lab;
+    }
+}
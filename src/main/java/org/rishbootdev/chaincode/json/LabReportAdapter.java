@@ -0,0 +1,59 @@
+package org.rishbootdev.chaincode.json;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.rishbootdev.chaincode.model.LabReport;
+
+import java.io.IOException;
+
+final class LabReportAdapter extends TypeAdapter<LabReport> {
+
+    @Override
+    public void write(JsonWriter out, LabReport report) throws IOException {
+        out.beginObject();
+        out.name("reportId").value(report.getReportId());
+        out.name("patientId").value(report.getPatientId());
+        out.name("testType").value(report.getTestType());
+        out.name("testResult").value(report.getTestResult());
+        out.name("labId").value(report.getLabId());
+        out.name("testDate").value(report.getTestDate());
+        out.name("remarks").value(report.getRemarks());
+        out.endObject();
+    }
+
+    @Override
+    public LabReport read(JsonReader in) throws IOException {
+        LabReport report = new LabReport();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "reportId":
+                    report.setReportId(JsonFields.readString(in));
+                    break;
+                case "patientId":
+                    report.setPatientId(JsonFields.readString(in));
+                    break;
+                case "testType":
+                    report.setTestType(JsonFields.readString(in));
+                    break;
+                case "testResult":
+                    report.setTestResult(JsonFields.readString(in));
+                    break;
+                case "labId":
+                    report.setLabId(JsonFields.readString(in));
+                    break;
+                case "testDate":
+                    report.setTestDate(JsonFields.readString(in));
+                    break;
+                case "remarks":
+                    report.setRemarks(JsonFields.readString(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return report;
+    }
+}
@@ -0,0 +1,55 @@
+package org.rishbootdev.chaincode.json;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.rishbootdev.chaincode.model.Medicine;
+
+import java.io.IOException;
+
+final class MedicineAdapter extends TypeAdapter<Medicine> {
+
+    @Override
+    public void write(JsonWriter out, Medicine medicine) throws IOException {
+        out.beginObject();
+        out.name("name").value(medicine.getName());
+        out.name("id").value(medicine.getId());
+        out.name("manufacturer").value(medicine.getManufacturer());
+        out.name("dosage").value(medicine.getDosage());
+        out.name("stock").value(medicine.getStock());
+        out.name("expiryDate").value(medicine.getExpiryDate());
+        out.endObject();
+    }
+
+    @Override
+    public Medicine read(JsonReader in) throws IOException {
+        Medicine medicine = new Medicine();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "name":
+                    medicine.setName(JsonFields.readString(in));
+                    break;
+                case "id":
+                    medicine.setId(JsonFields.readString(in));
+                    break;
+                case "manufacturer":
+                    medicine.setManufacturer(JsonFields.readString(in));
+                    break;
+                case "dosage":
+                    medicine.setDosage(JsonFields.readString(in));
+                    break;
+                case "stock":
+                    medicine.setStock(JsonFields.readInt(in, medicine.getStock()));
+                    break;
+                case "expiryDate":
+                    medicine.setExpiryDate(JsonFields.readString(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return medicine;
+    }
+}
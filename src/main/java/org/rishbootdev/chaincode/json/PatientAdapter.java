@@ -0,0 +1,83 @@
+package org.rishbootdev.chaincode.json;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.rishbootdev.chaincode.model.Patient;
+
+import java.io.IOException;
+
+final class PatientAdapter extends TypeAdapter<Patient> {
+
+    @Override
+    public void write(JsonWriter out, Patient patient) throws IOException {
+        out.beginObject();
+        out.name("patientId").value(patient.getPatientId());
+        out.name("name").value(patient.getName());
+        out.name("age").value(patient.getAge());
+        out.name("gender").value(patient.getGender());
+        out.name("address").value(patient.getAddress());
+        out.name("labReportId").value(patient.getLabReportId());
+        out.name("contact").value(patient.getContact());
+        out.name("bloodGroup").value(patient.getBloodGroup());
+        out.name("allergies").value(patient.getAllergies());
+        JsonFields.writeStrings(out.name("prescriptionIds"), patient.getPrescriptionsIds());
+        JsonFields.writeStrings(out.name("recordIds"), patient.getRecordIds());
+        out.name("doctorId").value(patient.getDoctorId());
+        out.name("hospitalId").value(patient.getHospitalId());
+        out.endObject();
+    }
+
+    @Override
+    public Patient read(JsonReader in) throws IOException {
+        Patient patient = new Patient();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "patientId":
+                    patient.setPatientId(JsonFields.readString(in));
+                    break;
+                case "name":
+                    patient.setName(JsonFields.readString(in));
+                    break;
+                case "age":
+                    patient.setAge(JsonFields.readInt(in, patient.getAge()));
+                    break;
+                case "gender":
+                    patient.setGender(JsonFields.readString(in));
+                    break;
+                case "address":
+                    patient.setAddress(JsonFields.readString(in));
+                    break;
+                case "labReportId":
+                    patient.setLabReportId(JsonFields.readString(in));
+                    break;
+                case "contact":
+                    patient.setContact(JsonFields.readString(in));
+                    break;
+                case "bloodGroup":
+                    patient.setBloodGroup(JsonFields.readString(in));
+                    break;
+                case "allergies":
+                    patient.setAllergies(JsonFields.readString(in));
+                    break;
+                case "prescriptionIds":
+                    patient.setPrescriptionsIds(JsonFields.readStrings(in));
+                    break;
+                case "recordIds":
+                    patient.setRecordIds(JsonFields.readStrings(in));
+                    break;
+                case "doctorId":
+                    patient.setDoctorId(JsonFields.readString(in));
+                    break;
+                case "hospitalId":
+                    patient.setHospitalId(JsonFields.readString(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return patient;
+    }
+}
@@ -0,0 +1,43 @@
+package org.rishbootdev.chaincode.json;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.rishbootdev.chaincode.model.Pharma;
+
+import java.io.IOException;
+
+final class PharmaAdapter extends TypeAdapter<Pharma> {
+
+    @Override
+    public void write(JsonWriter out, Pharma pharma) throws IOException {
+        out.beginObject();
+        out.name("name").value(pharma.getName());
+        out.name("pharmaId").value(pharma.getPharmaId());
+        JsonFields.writeStrings(out.name("medicineId"), pharma.getMedicineIds());
+        out.endObject();
+    }
+
+    @Override
+    public Pharma read(JsonReader in) throws IOException {
+        Pharma pharma = new Pharma();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "name":
+                    pharma.setName(JsonFields.readString(in));
+                    break;
+                case "pharmaId":
+                    pharma.setPharmaId(JsonFields.readString(in));
+                    break;
+                case "medicineId":
+                    pharma.setMedicineIds(JsonFields.readStrings(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return pharma;
+    }
+}
@@ -0,0 +1,55 @@
+package org.rishbootdev.chaincode.json;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.rishbootdev.chaincode.model.Prescription;
+
+import java.io.IOException;
+
+final class PrescriptionAdapter extends TypeAdapter<Prescription> {
+
+    @Override
+    public void write(JsonWriter out, Prescription prescription) throws IOException {
+        out.beginObject();
+        out.name("prescriptionId").value(prescription.getPrescriptionId());
+        out.name("patientId").value(prescription.getPatientId());
+        out.name("doctorId").value(prescription.getDoctorId());
+        JsonFields.writeStrings(out.name("medicineIdList"), prescription.getMedicineIdList());
+        out.name("issuedDate").value(prescription.getIssuedDate());
+        out.name("remarks").value(prescription.getRemarks());
+        out.endObject();
+    }
+
+    @Override
+    public Prescription read(JsonReader in) throws IOException {
+        Prescription prescription = new Prescription();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "prescriptionId":
+                    prescription.setPrescriptionId(JsonFields.readString(in));
+                    break;
+                case "patientId":
+                    prescription.setPatientId(JsonFields.readString(in));
+                    break;
+                case "doctorId":
+                    prescription.setDoctorId(JsonFields.readString(in));
+                    break;
+                case "medicineIdList":
+                    prescription.setMedicineIdList(JsonFields.readStrings(in));
+                    break;
+                case "issuedDate":
+                    prescription.setIssuedDate(JsonFields.readString(in));
+                    break;
+                case "remarks":
+                    prescription.setRemarks(JsonFields.readString(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return prescription;
+    }
+}
@@ -0,0 +1,63 @@
+package org.rishbootdev.chaincode.json;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import org.rishbootdev.chaincode.model.Record;
+
+import java.io.IOException;
+
+final class RecordAdapter extends TypeAdapter<Record> {
+
+    @Override
+    public void write(JsonWriter out, Record record) throws IOException {
+        out.beginObject();
+        out.name("recordId").value(record.getRecordId());
+        out.name("patientId").value(record.getPatientId());
+        out.name("doctorId").value(record.getDoctorId());
+        out.name("hospitalId").value(record.getHospitalId());
+        out.name("diagnosis").value(record.getDiagnosis());
+        out.name("treatment").value(record.getTreatment());
+        out.name("remarks").value(record.getRemarks());
+        out.name("visitDate").value(record.getVisitDate());
+        out.endObject();
+    }
+
+    @Override
+    public Record read(JsonReader in) throws IOException {
+        Record record = new Record();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "recordId":
+                    record.setRecordId(JsonFields.readString(in));
+                    break;
+                case "patientId":
+                    record.setPatientId(JsonFields.readString(in));
+                    break;
+                case "doctorId":
+                    record.setDoctorId(JsonFields.readString(in));
+                    break;
+                case "hospitalId":
+                    record.setHospitalId(JsonFields.readString(in));
+                    break;
+                case "diagnosis":
+                    record.setDiagnosis(JsonFields.readString(in));
+                    break;
+                case "treatment":
+                    record.setTreatment(JsonFields.readString(in));
+                    break;
+                case "remarks":
+                    record.setRemarks(JsonFields.readString(in));
+                    break;
+                case "visitDate":
+                    record.setVisitDate(JsonFields.readString(in));
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+        return record;
+    }
+}
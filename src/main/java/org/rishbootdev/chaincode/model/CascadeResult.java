@@ -0,0 +1,27 @@
+package org.rishbootdev.chaincode.model;
+
+import com.google.gson.annotations.SerializedName;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@DataType
+public class CascadeResult {
+
+    @Property
+    @SerializedName("id")
+    private String id;
+
+    @Property
+    @SerializedName("processed")
+    private long processed;
+
+    @Property
+    @SerializedName("deleted")
+    private boolean deleted;
+}
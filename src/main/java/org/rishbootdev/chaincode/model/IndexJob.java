@@ -0,0 +1,73 @@
+package org.rishbootdev.chaincode.model;
+
+import com.google.gson.annotations.SerializedName;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@DataType
+public class IndexJob {
+
+    public static final String PHASE_PURGE = "PURGE";
+    public static final String PHASE_BACKFILL = "BACKFILL";
+    public static final String PHASE_DONE = "DONE";
+
+    @Property
+    @SerializedName("indexName")
+    private String indexName;
+
+    @Property
+    @SerializedName("phase")
+    private String phase;
+
+    @Property
+    @SerializedName("lastKey")
+    private String lastKey;
+
+    @Property
+    @SerializedName("pages")
+    private long pages;
+
+    @Property
+    @SerializedName("processed")
+    private long processed;
+
+    @Property
+    @SerializedName("written")
+    private long written;
+
+    @Property
+    @SerializedName("purged")
+    private long purged;
+
+    @Property
+    @SerializedName("startedAt")
+    private long startedAt;
+
+    @Property
+    @SerializedName("updatedAt")
+    private long updatedAt;
+
+    @Property
+    @SerializedName("lastPageFetched")
+    private int lastPageFetched;
+
+    @Property
+    @SerializedName("lastPageWritten")
+    private int lastPageWritten;
+
+    /** Time between this page's submit and the previous one, including client and ordering delays. */
+    @Property
+    @SerializedName("millisSincePreviousPage")
+    private long millisSincePreviousPage;
+
+    /** Keys handled per second of wall-clock time since the job started. */
+    @Property
+    @SerializedName("averageKeysPerSecond")
+    private long averageKeysPerSecond;
+}
@@ -0,0 +1,29 @@
+package org.rishbootdev.chaincode.model;
+
+import com.google.gson.annotations.SerializedName;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hyperledger.fabric.contract.annotation.DataType;
+import org.hyperledger.fabric.contract.annotation.Property;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@DataType
+public class StorageConfig {
+
+    /** Compression is off until enabled; see {@link org.rishbootdev.chaincode.state.Ledger}. */
+    public static final int DEFAULT_COMPRESSION_THRESHOLD = 0;
+
+    /** Smallest threshold that can be set. Smaller values are written without reading the config. */
+    public static final int MIN_COMPRESSION_THRESHOLD = 512;
+
+    @Property
+    @SerializedName("compressionThreshold")
+    private int compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
+
+    @Property
+    @SerializedName("updatedAt")
+    private long updatedAt;
+}
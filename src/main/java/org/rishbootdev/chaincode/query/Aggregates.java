@@ -0,0 +1,171 @@
+package org.rishbootdev.chaincode.query;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.rishbootdev.chaincode.state.StateFields;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Counts and simple numeric aggregates over an entity prefix. Values are read
+ * with a streaming reader that stops at the field it needs, so no entity or
+ * list is built along the way.
+ */
+public final class Aggregates {
+
+    private Aggregates() {
+    }
+
+    public static long count(ChaincodeStub stub, String prefix) {
+        long count = 0;
+        try (QueryResultsIterator<KeyValue> results = stub.getStateByRange(prefix, prefix + "\uFFFF")) {
+            for (KeyValue ignored : results) {
+                count++;
+            }
+        } catch (Exception e) {
+            throw new ChaincodeException("Error counting " + prefix + ": " + e.getMessage());
+        }
+        return count;
+    }
+
+    /**
+     * Returns {@code {count, sum, min, max}} of an integer field. A document
+     * without the field counts as 0, matching how it deserializes; values that
+     * are not objects are skipped. min and max are omitted when nothing matched.
+     */
+    public static JsonObject intStats(ChaincodeStub stub, String prefix, Class<?> type, String field) {
+        return intStats(stub, prefix, type, field, Collections.emptyMap());
+    }
+
+    /**
+     * As {@link #intStats(ChaincodeStub, String, Class, String)}, with each
+     * document's value offset by the entry for its id, for fields whose
+     * stored value is only a base.
+     */
+    public static JsonObject intStats(ChaincodeStub stub, String prefix, Class<?> type, String field,
+                                      Map<String, Long> offsets) {
+        long count = 0;
+        long sum = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        try (QueryResultsIterator<KeyValue> results = stub.getStateByRange(prefix, prefix + "\uFFFF")) {
+            for (KeyValue kv : results) {
+                Long value = offsetField(kv, prefix, type, field, offsets);
+                if (value == null) continue;
+                count++;
+                sum += value;
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+        } catch (Exception e) {
+            throw new ChaincodeException("Error aggregating " + prefix + ": " + e.getMessage());
+        }
+        JsonObject stats = new JsonObject();
+        stats.addProperty("count", count);
+        stats.addProperty("sum", sum);
+        if (count > 0) {
+            stats.addProperty("min", min);
+            stats.addProperty("max", max);
+        }
+        return stats;
+    }
+
+    public static long countBelow(ChaincodeStub stub, String prefix, Class<?> type, String field, int threshold) {
+        return countBelow(stub, prefix, type, field, threshold, Collections.emptyMap());
+    }
+
+    public static long countBelow(ChaincodeStub stub, String prefix, Class<?> type, String field, int threshold,
+                                  Map<String, Long> offsets) {
+        long count = 0;
+        try (QueryResultsIterator<KeyValue> results = stub.getStateByRange(prefix, prefix + "\uFFFF")) {
+            for (KeyValue kv : results) {
+                Long value = offsetField(kv, prefix, type, field, offsets);
+                if (value != null && value < threshold) {
+                    count++;
+                }
+            }
+        } catch (Exception e) {
+            throw new ChaincodeException("Error aggregating " + prefix + ": " + e.getMessage());
+        }
+        return count;
+    }
+
+    /**
+     * Number of elements in a top-level array field, or 0 when the field is
+     * missing or null. Elements are skipped, not read.
+     */
+    public static long arraySize(String json, String field) {
+        if (json == null || json.isEmpty()) {
+            return 0;
+        }
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                return 0;
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!field.equals(reader.nextName()) || reader.peek() != JsonToken.BEGIN_ARRAY) {
+                    reader.skipValue();
+                    continue;
+                }
+                long size = 0;
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    reader.skipValue();
+                    size++;
+                }
+                return size;
+            }
+        } catch (IOException | IllegalStateException | JsonParseException ignored) {}
+        return 0;
+    }
+
+    private static Integer intField(KeyValue kv, Class<?> type, String field) {
+        try {
+            return StateFields.int32(kv.getValue(), type, field);
+        } catch (JsonSyntaxException e) {
+            return null;
+        }
+    }
+
+    private static Long offsetField(KeyValue kv, String prefix, Class<?> type, String field,
+                                    Map<String, Long> offsets) {
+        Integer value = intField(kv, type, field);
+        if (value == null) {
+            return null;
+        }
+        Long offset = offsets.get(kv.getKey().substring(prefix.length()));
+        return offset == null ? (long) value : value + offset;
+    }
+
+    static Integer intField(String json, String field) {
+        if (json == null || json.isEmpty()) {
+            return null;
+        }
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                return null;
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (field.equals(reader.nextName()) && reader.peek() == JsonToken.NUMBER) {
+                    return reader.nextInt();
+                }
+                reader.skipValue();
+            }
+            return 0;
+        } catch (IOException | IllegalStateException | NumberFormatException | JsonParseException e) {
+            return null;
+        }
+    }
+}
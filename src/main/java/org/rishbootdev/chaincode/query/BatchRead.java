@@ -0,0 +1,113 @@
+package org.rishbootdev.chaincode.query;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonWriter;
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.rishbootdev.chaincode.state.StateCodec;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Resolves a list of ids against one entity prefix in a single transaction.
+ * Responses have the shape {@code {found, missing}}: the stored documents in
+ * request order, then the ids that had no readable state. Documents still
+ * stored as JSON are copied to the response as stored rather than
+ * re-serialized.
+ */
+public final class BatchRead {
+
+    public static final int MAX_IDS = 100;
+
+    private BatchRead() {
+    }
+
+    public static String byIds(ChaincodeStub stub, Gson gson, String prefix, Class<?> type, String idsJson) {
+        return byIds(stub, gson, prefix, type, idsJson, null);
+    }
+
+    /**
+     * As {@link #byIds(ChaincodeStub, Gson, String, Class, String)}, with
+     * each found document parsed and passed through {@code adjust} before it
+     * is written. A document it drops is reported missing.
+     */
+    public static String byIds(ChaincodeStub stub, Gson gson, String prefix, Class<?> type, String idsJson,
+                               Pages.Adjuster adjust) {
+        List<String> missing = new ArrayList<>();
+        StringWriter out = new StringWriter();
+        try {
+            JsonWriter writer = gson.newJsonWriter(out);
+            writer.beginObject();
+            writer.name("found").beginArray();
+            for (String id : parseIds(idsJson)) {
+                byte[] value = stub.getState(prefix + id);
+                if (value == null || value.length == 0) {
+                    missing.add(id);
+                    continue;
+                }
+                try {
+                    if (adjust == null) {
+                        StateCodec.writeJson(value, type, writer);
+                        continue;
+                    }
+                    JsonElement document = JsonParser.parseString(StateCodec.toJson(value, type));
+                    JsonObject adjusted = document.isJsonObject() ? adjust.adjust(id, document.getAsJsonObject()) : null;
+                    if (adjusted == null) {
+                        missing.add(id);
+                    } else {
+                        gson.toJson(adjusted, writer);
+                    }
+                } catch (JsonSyntaxException e) {
+                    missing.add(id);
+                }
+            }
+            writer.endArray();
+            writer.name("missing").beginArray();
+            for (String id : missing) {
+                writer.value(id);
+            }
+            writer.endArray();
+            writer.endObject();
+            writer.flush();
+        } catch (IOException e) {
+            throw new ChaincodeException("Error reading batch of " + prefix + ": " + e.getMessage());
+        }
+        return out.toString();
+    }
+
+    static Set<String> parseIds(String idsJson) {
+        JsonArray array;
+        try {
+            JsonElement parsed = JsonParser.parseString(idsJson == null ? "" : idsJson);
+            if (!parsed.isJsonArray()) {
+                throw new ChaincodeException("Expected a JSON array of ids");
+            }
+            array = parsed.getAsJsonArray();
+        } catch (JsonParseException e) {
+            throw new ChaincodeException("Expected a JSON array of ids: " + e.getMessage());
+        }
+        if (array.size() > MAX_IDS) {
+            throw new ChaincodeException("Too many ids: " + array.size() + " (max " + MAX_IDS + ")");
+        }
+        Set<String> ids = new LinkedHashSet<>();
+        for (JsonElement element : array) {
+            if (!element.isJsonPrimitive() || !element.getAsJsonPrimitive().isString()
+                    || element.getAsString().isEmpty()) {
+                throw new ChaincodeException("Ids must be non-empty strings: " + element);
+            }
+            ids.add(element.getAsString());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,128 @@
+package org.rishbootdev.chaincode.query;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.rishbootdev.chaincode.state.Ledger;
+import org.rishbootdev.chaincode.state.StateCodec;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.function.Predicate;
+
+/**
+ * Builds a JSON array response one element at a time, so a list query holds
+ * a single parsed element plus the output buffer instead of a full
+ * {@code List} and its serialized copy.
+ */
+public final class JsonArrayResponse {
+
+    private final Gson gson;
+    private final StringWriter out = new StringWriter();
+    private final JsonWriter writer;
+    private int size;
+
+    public JsonArrayResponse(Gson gson) {
+        this.gson = gson;
+        try {
+            this.writer = gson.newJsonWriter(out);
+            writer.beginArray();
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+    }
+
+    public static String ofRange(ChaincodeStub stub, Gson gson, String startKey, String endKey, Class<?> type) {
+        return ofRange(stub, gson, startKey, endKey, type, null, null);
+    }
+
+    /**
+     * Every document in the range whose string {@code field} passes
+     * {@code keep}; only that field is read from the others.
+     */
+    public static String ofRange(ChaincodeStub stub, Gson gson, String startKey, String endKey,
+                                 Class<?> type, String field, Predicate<String> keep) {
+        JsonArrayResponse response = new JsonArrayResponse(gson);
+        try (QueryResultsIterator<KeyValue> results = stub.getStateByRange(startKey, endKey)) {
+            for (KeyValue kv : results) {
+                try {
+                    byte[] stored = field == null ? kv.getValue() : Ledger.getStoredIf(kv, type, field, keep);
+                    response.addStored(stored, type);
+                } catch (JsonSyntaxException ignored) {}
+            }
+        } catch (Exception e) {
+            throw new ChaincodeException("Error fetching " + startKey + ": " + e.getMessage());
+        }
+        return response.toJson();
+    }
+
+    public void add(Object item) {
+        gson.toJson(item, item.getClass(), writer);
+        size++;
+    }
+
+    /**
+     * Adds a stored value, copying legacy JSON through unchanged. Empty or
+     * null values are ignored; malformed ones raise
+     * {@link JsonSyntaxException} before anything is written.
+     */
+    public void addStored(byte[] value, Class<?> type) {
+        if (value == null || value.length == 0) {
+            return;
+        }
+        try {
+            StateCodec.writeJson(value, type, writer);
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+        size++;
+    }
+
+    /**
+     * Adds a document that is already JSON, such as one read with
+     * {@link Ledger#getJson}, as-is. It is checked with a streaming pass
+     * first, so a malformed one raises {@link JsonSyntaxException} before
+     * anything is written.
+     */
+    public void addJson(String json) {
+        if (json == null || json.isEmpty()) {
+            return;
+        }
+        try (JsonReader check = new JsonReader(new StringReader(json))) {
+            check.skipValue();
+            if (check.peek() != JsonToken.END_DOCUMENT) {
+                throw new JsonSyntaxException("Trailing data after document");
+            }
+        } catch (IOException | IllegalStateException e) {
+            throw new JsonSyntaxException("Malformed document", e);
+        }
+        try {
+            writer.jsonValue(json);
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String toJson() {
+        try {
+            writer.endArray();
+            writer.flush();
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,172 @@
+package org.rishbootdev.chaincode.query;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonWriter;
+import org.hyperledger.fabric.protos.peer.QueryResponseMetadata;
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIteratorWithMetadata;
+import org.rishbootdev.chaincode.index.Indexes;
+import org.rishbootdev.chaincode.state.Ledger;
+import org.rishbootdev.chaincode.state.StateCodec;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Bookmark-paged reads over one entity prefix. Responses have the shape
+ * {@code {items, bookmark, fetchedCount}}; an empty bookmark means the last
+ * page has been returned. Items are written to the response as they are read.
+ */
+public final class Pages {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private interface ItemWriter {
+        void write(KeyValue kv, JsonWriter writer) throws IOException;
+    }
+
+    /**
+     * Rewrites a document read by a paged fetch before it is written, given
+     * the id from its key. Returning null drops the document.
+     */
+    public interface Adjuster {
+        JsonObject adjust(String id, JsonObject document);
+    }
+
+    private Pages() {
+    }
+
+    public static int pageSize(int requested) {
+        return requested <= 0 ? DEFAULT_PAGE_SIZE : Math.min(requested, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Pages through a prefix returning the documents whose string
+     * {@code field} passes {@code keep}. Only that field is read from the
+     * documents that are filtered out.
+     */
+    public static String fetch(ChaincodeStub stub, Gson gson, String prefix, int pageSize, String bookmark,
+                               Class<?> type, String field, Predicate<String> keep) {
+        return page(stub, gson, prefix, pageSize, bookmark, (kv, writer) -> {
+            try {
+                byte[] stored = Ledger.getStoredIf(kv, type, field, keep);
+                if (stored != null) {
+                    StateCodec.writeJson(stored, type, writer);
+                }
+            } catch (JsonSyntaxException ignored) {}
+        });
+    }
+
+    /**
+     * Pages through a prefix returning each document as rewritten by
+     * {@code adjust}. Unlike {@link #fetch}, every document is parsed, so
+     * this is for values that are not stored in the document alone.
+     * Documents that are not JSON objects are skipped.
+     */
+    public static String fetchAdjusted(ChaincodeStub stub, Gson gson, String prefix, int pageSize, String bookmark,
+                                       Class<?> type, Adjuster adjust) {
+        return fetchFields(stub, gson, prefix, type, null, pageSize, bookmark, adjust);
+    }
+
+    /**
+     * Pages through a prefix returning only the given top-level fields of each
+     * document. Documents that are not JSON objects are skipped.
+     */
+    public static String fetchFields(ChaincodeStub stub, Gson gson, String prefix, Class<?> type,
+                                     Set<String> fields, int pageSize, String bookmark) {
+        return fetchFields(stub, gson, prefix, type, fields, pageSize, bookmark, (id, document) -> document);
+    }
+
+    /**
+     * As {@link #fetchFields(ChaincodeStub, Gson, String, Class, Set, int, String)},
+     * with each projection passed through {@code adjust}. A null field set
+     * keeps every field.
+     */
+    public static String fetchFields(ChaincodeStub stub, Gson gson, String prefix, Class<?> type,
+                                     Set<String> fields, int pageSize, String bookmark, Adjuster adjust) {
+        return page(stub, gson, prefix, pageSize, bookmark, (kv, writer) -> {
+            JsonObject projected;
+            try {
+                String json = Ledger.getJson(kv, type);
+                projected = fields == null ? object(json) : Projection.project(json, fields);
+            } catch (JsonSyntaxException e) {
+                return;
+            }
+            if (projected != null) {
+                projected = adjust.adjust(kv.getKey().substring(prefix.length()), projected);
+            }
+            if (projected != null) {
+                gson.toJson(projected, writer);
+            }
+        });
+    }
+
+    /**
+     * Pages through a prefix returning the ids taken from the keys; values are
+     * never decoded.
+     */
+    public static String fetchIds(ChaincodeStub stub, Gson gson, String prefix, int pageSize, String bookmark) {
+        return page(stub, gson, prefix, pageSize, bookmark,
+                (kv, writer) -> writer.value(kv.getKey().substring(prefix.length())));
+    }
+
+    /**
+     * Pages through the ids linked to one owner in an {@link Indexes} edge set,
+     * in id order.
+     */
+    public static String fetchLinks(ChaincodeStub stub, Gson gson, String index, String owner,
+                                    int pageSize, String bookmark) {
+        if (owner == null || owner.isEmpty()) {
+            throw new ChaincodeException("Owner id cannot be empty");
+        }
+        return page(gson, index + "/" + owner, () -> stub.getStateByPartialCompositeKeyWithPagination(
+                stub.createCompositeKey(index, owner), pageSize(pageSize), bookmark == null ? "" : bookmark),
+                (kv, writer) -> writer.value(Indexes.idOf(stub, kv.getKey())));
+    }
+
+    private static JsonObject object(String json) {
+        if (json == null || json.isEmpty()) {
+            return null;
+        }
+        JsonElement parsed = JsonParser.parseString(json);
+        return parsed.isJsonObject() ? parsed.getAsJsonObject() : null;
+    }
+
+    private static String page(ChaincodeStub stub, Gson gson, String prefix, int pageSize,
+                               String bookmark, ItemWriter items) {
+        return page(gson, prefix, () -> stub.getStateByRangeWithPagination(
+                prefix, prefix + "\uFFFF", pageSize(pageSize), bookmark == null ? "" : bookmark), items);
+    }
+
+    private static String page(Gson gson, String source, Supplier<QueryResultsIteratorWithMetadata<KeyValue>> query,
+                               ItemWriter items) {
+        StringWriter out = new StringWriter();
+        try (QueryResultsIteratorWithMetadata<KeyValue> results = query.get()) {
+            JsonWriter writer = gson.newJsonWriter(out);
+            writer.beginObject();
+            writer.name("items").beginArray();
+            for (KeyValue kv : results) {
+                items.write(kv, writer);
+            }
+            writer.endArray();
+            QueryResponseMetadata metadata = results.getMetadata();
+            writer.name("bookmark").value(metadata.getBookmark());
+            writer.name("fetchedCount").value(metadata.getFetchedRecordsCount());
+            writer.endObject();
+            writer.flush();
+        } catch (Exception e) {
+            throw new ChaincodeException("Error fetching page of " + source + ": " + e.getMessage());
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,73 @@
+package org.rishbootdev.chaincode.query;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Picks top-level fields out of a stored document without binding it to its
+ * model class. Unrequested values are skipped by the reader rather than
+ * materialized, and reading stops once every requested field has been seen.
+ */
+public final class Projection {
+
+    private Projection() {
+    }
+
+    /**
+     * Parses a comma-separated list of JSON field names, falling back to
+     * {@code defaults} when the request names none.
+     */
+    public static Set<String> fields(String requested, String defaults) {
+        Set<String> fields = split(requested);
+        return fields.isEmpty() ? split(defaults) : fields;
+    }
+
+    public static JsonObject project(String json, Set<String> fields) {
+        if (json == null || json.isEmpty()) {
+            return null;
+        }
+        JsonObject projected = new JsonObject();
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                return null;
+            }
+            reader.beginObject();
+            while (projected.size() < fields.size() && reader.hasNext()) {
+                String name = reader.nextName();
+                if (fields.contains(name)) {
+                    JsonElement value = JsonParser.parseReader(reader);
+                    projected.add(name, value);
+                } else {
+                    reader.skipValue();
+                }
+            }
+        } catch (IOException | IllegalStateException | JsonParseException e) {
+            return null;
+        }
+        return projected;
+    }
+
+    private static Set<String> split(String spec) {
+        if (spec == null || spec.trim().isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> fields = new LinkedHashSet<>();
+        for (String field : spec.split(",")) {
+            String name = field.trim();
+            if (!name.isEmpty()) {
+                fields.add(name);
+            }
+        }
+        return fields;
+    }
+}
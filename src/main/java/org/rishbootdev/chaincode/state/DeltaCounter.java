@@ -0,0 +1,139 @@
+package org.rishbootdev.chaincode.state;
+
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A counter kept as a base value in its document plus one delta key per
+ * transaction, {@code counter~id~txId}. Concurrent updates write disjoint
+ * keys and read nothing, so they all commit in the same block. Reads add the
+ * pending deltas to the base, and compaction folds them back into it.
+ *
+ * <p>The delta key is unique to the transaction, so reading it back to add
+ * a second change in the same transaction conflicts with nothing. Under a
+ * {@link UnitOfWork} that read sees the first change.</p>
+ *
+ * <p>Anything that reads the deltas, such as a bounds check, takes a range
+ * read over them and will conflict with updates committed in the same
+ * block.</p>
+ */
+public final class DeltaCounter {
+
+    public static final String STOCK = "stockdelta";
+
+    /** Sum and number of the deltas removed by a fold, and whether any were left. */
+    public static final class Folded {
+        private final long sum;
+        private final int count;
+        private final boolean remaining;
+
+        Folded(long sum, int count, boolean remaining) {
+            this.sum = sum;
+            this.count = count;
+            this.remaining = remaining;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        /** True when the limit stopped the fold before every delta was removed. */
+        public boolean hasRemaining() {
+            return remaining;
+        }
+    }
+
+    private DeltaCounter() {
+    }
+
+    public static void add(ChaincodeStub stub, String counter, String id, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        String key = stub.createCompositeKey(counter, id, stub.getTxId()).toString();
+        byte[] earlier = stub.getState(key);
+        long value = earlier == null || earlier.length == 0 ? delta : Math.addExact(parse(key, earlier), delta);
+        stub.putState(key, Long.toString(value).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Pending sums for every id of the counter, from one read over all its
+     * deltas. For scans over many entities, where a read per id would cost
+     * more than the deltas themselves.
+     */
+    public static Map<String, Long> pendingAll(ChaincodeStub stub, String counter) {
+        Map<String, Long> sums = new HashMap<>();
+        try (QueryResultsIterator<KeyValue> results =
+                     stub.getStateByPartialCompositeKey(stub.createCompositeKey(counter))) {
+            for (KeyValue kv : results) {
+                String id = stub.splitCompositeKey(kv.getKey()).getAttributes().get(0);
+                sums.merge(id, parse(kv.getKey(), kv.getValue()), Math::addExact);
+            }
+        } catch (Exception e) {
+            throw new ChaincodeException("Error reading " + counter + ": " + e.getMessage());
+        }
+        return sums;
+    }
+
+    /** Sum of the deltas not yet folded into the base. */
+    public static long pending(ChaincodeStub stub, String counter, String id) {
+        long sum = 0;
+        try (QueryResultsIterator<KeyValue> results =
+                     stub.getStateByPartialCompositeKey(stub.createCompositeKey(counter, id))) {
+            for (KeyValue kv : results) {
+                sum = Math.addExact(sum, parse(kv.getKey(), kv.getValue()));
+            }
+        } catch (Exception e) {
+            throw new ChaincodeException("Error reading " + counter + " for " + id + ": " + e.getMessage());
+        }
+        return sum;
+    }
+
+    /**
+     * Deletes up to {@code limit} deltas, or all of them when the limit is
+     * not positive, and returns what they added up to. The caller adds the
+     * sum to the base in the same transaction.
+     */
+    public static Folded fold(ChaincodeStub stub, String counter, String id, int limit) {
+        List<String> keys = new ArrayList<>();
+        long sum = 0;
+        boolean remaining = false;
+        try (QueryResultsIterator<KeyValue> results =
+                     stub.getStateByPartialCompositeKey(stub.createCompositeKey(counter, id))) {
+            for (KeyValue kv : results) {
+                if (limit > 0 && keys.size() >= limit) {
+                    remaining = true;
+                    break;
+                }
+                sum = Math.addExact(sum, parse(kv.getKey(), kv.getValue()));
+                keys.add(kv.getKey());
+            }
+        } catch (Exception e) {
+            throw new ChaincodeException("Error reading " + counter + " for " + id + ": " + e.getMessage());
+        }
+        for (String key : keys) {
+            stub.delState(key);
+        }
+        return new Folded(sum, keys.size(), remaining);
+    }
+
+    private static long parse(String key, byte[] value) {
+        try {
+            return Long.parseLong(new String(value, StandardCharsets.UTF_8));
+        } catch (NumberFormatException e) {
+            throw new ChaincodeException("Malformed counter delta at " + key);
+        }
+    }
+}
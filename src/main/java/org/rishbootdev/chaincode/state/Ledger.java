@@ -0,0 +1,113 @@
+package org.rishbootdev.chaincode.state;
+
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.rishbootdev.chaincode.model.StorageConfig;
+
+import java.util.function.Predicate;
+
+/**
+ * Reads and writes entity state through {@link StateCodec}. Contracts use
+ * these instead of the stub's string state methods so every value is written
+ * in the current format and either format can be read.
+ *
+ * <p>The compression threshold is ledger state rather than peer
+ * configuration, so every endorser applies the same one. It is only read
+ * when a value is large enough that it could be compressed, so a change to
+ * it does not conflict with transactions that write small values; under a
+ * {@link UnitOfWork} it is decoded once per transaction. That alone does not make compressed bytes identical across
+ * peers, since DEFLATE output depends on each JVM's zlib, so compression is
+ * off unless the threshold has been set, and should only be set when every
+ * endorsing peer runs the same chaincode image.</p>
+ *
+ * <p>Under a {@link UnitOfWork} an entity read twice in one transaction is
+ * decoded once and the same instance is returned both times; callers that
+ * change it are expected to write it back.</p>
+ */
+public final class Ledger {
+
+    public static final String STORAGE_CONFIG_KEY = "CONFIG_STORAGE";
+
+    private Ledger() {
+    }
+
+    /** The decoded entity, or null when the key has no state. */
+    public static <T> T get(ChaincodeStub stub, String key, Class<T> type) {
+        if (stub instanceof UnitOfWork) {
+            return ((UnitOfWork) stub).entity(key, type);
+        }
+        return StateCodec.decode(stub.getState(key), type);
+    }
+
+    public static <T> T get(KeyValue kv, Class<T> type) {
+        return StateCodec.decode(kv.getValue(), type);
+    }
+
+    /**
+     * Decodes the entity only when {@code keep} accepts the named string
+     * field; returns null for missing state and for values it rejects. Only
+     * that one field is read from values that are rejected.
+     */
+    public static <T> T getIf(ChaincodeStub stub, String key, Class<T> type, String field, Predicate<String> keep) {
+        return StateCodec.decode(storedIf(stub.getState(key), type, field, keep), type);
+    }
+
+    public static <T> T getIf(KeyValue kv, Class<T> type, String field, Predicate<String> keep) {
+        return StateCodec.decode(storedIf(kv.getValue(), type, field, keep), type);
+    }
+
+    /**
+     * Like {@link #getIf} but returns the uncompressed stored bytes instead of
+     * decoding them, for responses that copy the value through with
+     * {@link StateCodec#writeJson}.
+     */
+    public static byte[] getStoredIf(ChaincodeStub stub, String key, Class<?> type, String field, Predicate<String> keep) {
+        return storedIf(stub.getState(key), type, field, keep);
+    }
+
+    public static byte[] getStoredIf(KeyValue kv, Class<?> type, String field, Predicate<String> keep) {
+        return storedIf(kv.getValue(), type, field, keep);
+    }
+
+    /** The entity as a JSON document, or null when the key has no state. */
+    public static String getJson(ChaincodeStub stub, String key, Class<?> type) {
+        return StateCodec.toJson(stub.getState(key), type);
+    }
+
+    public static String getJson(KeyValue kv, Class<?> type) {
+        return StateCodec.toJson(kv.getValue(), type);
+    }
+
+    private static byte[] storedIf(byte[] value, Class<?> type, String field, Predicate<String> keep) {
+        if (value == null || value.length == 0) {
+            return null;
+        }
+        byte[] plain = StateCodec.unwrap(value, type);
+        return keep.test(StateFields.string(plain, type, field)) ? plain : null;
+    }
+
+    public static boolean exists(ChaincodeStub stub, String key) {
+        byte[] value = stub.getState(key);
+        return value != null && value.length > 0;
+    }
+
+    public static void put(ChaincodeStub stub, String key, Object entity) {
+        byte[] encoded = StateCodec.encode(entity);
+        if (encoded.length >= StorageConfig.MIN_COMPRESSION_THRESHOLD) {
+            int threshold = storageConfig(stub).getCompressionThreshold();
+            if (threshold > 0) {
+                encoded = StateCodec.compress(encoded, Math.max(threshold, StorageConfig.MIN_COMPRESSION_THRESHOLD));
+            }
+        }
+        stub.putState(key, encoded);
+    }
+
+    public static StorageConfig storageConfig(ChaincodeStub stub) {
+        StorageConfig config = get(stub, STORAGE_CONFIG_KEY, StorageConfig.class);
+        return config != null ? config : new StorageConfig();
+    }
+
+    public static void putStorageConfig(ChaincodeStub stub, StorageConfig config) {
+        stub.putState(STORAGE_CONFIG_KEY, StateCodec.encode(config));
+    }
+}
@@ -0,0 +1,174 @@
+package org.rishbootdev.chaincode.state;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Maps a model to protobuf wire fields. Tags are part of the stored format:
+ * a field may be added under a new tag, but a tag is never renumbered or
+ * reused. Unknown tags are skipped on read, so older code can read values
+ * written by newer code.
+ *
+ * <p>Null values and empty lists are not written; on read they keep the
+ * default from the model's no-arg constructor, which is what a JSON round
+ * trip gives as well.</p>
+ */
+public final class Schema<T> {
+
+    private abstract static class Field<T> {
+        final int tag;
+        final String name;
+        final int wireType;
+
+        Field(int tag, String name, int wireType) {
+            this.tag = tag;
+            this.name = name;
+            this.wireType = wireType;
+        }
+
+        abstract void write(T value, CodedOutputStream out) throws IOException;
+
+        abstract void read(T value, CodedInputStream in) throws IOException;
+
+        boolean representable(T value) {
+            return true;
+        }
+    }
+
+    private final Supplier<T> factory;
+    private final List<Field<T>> fields = new ArrayList<>();
+    private final Map<Integer, Field<T>> byTag = new HashMap<>();
+    private final Map<String, Field<T>> byName = new HashMap<>();
+
+    private Schema(Supplier<T> factory) {
+        this.factory = factory;
+    }
+
+    public static <T> Schema<T> of(Supplier<T> factory) {
+        return new Schema<>(factory);
+    }
+
+    public Schema<T> string(int tag, String name, Function<T, String> get, BiConsumer<T, String> set) {
+        return add(new Field<T>(tag, name, WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+            @Override
+            void write(T value, CodedOutputStream out) throws IOException {
+                String s = get.apply(value);
+                if (s != null) {
+                    out.writeString(tag, s);
+                }
+            }
+
+            @Override
+            void read(T value, CodedInputStream in) throws IOException {
+                set.accept(value, in.readString());
+            }
+        });
+    }
+
+    public Schema<T> int32(int tag, String name, ToIntFunction<T> get, ObjIntConsumer<T> set) {
+        return add(new Field<T>(tag, name, WireFormat.WIRETYPE_VARINT) {
+            @Override
+            void write(T value, CodedOutputStream out) throws IOException {
+                int i = get.applyAsInt(value);
+                if (i != 0) {
+                    out.writeInt32(tag, i);
+                }
+            }
+
+            @Override
+            void read(T value, CodedInputStream in) throws IOException {
+                set.accept(value, in.readInt32());
+            }
+        });
+    }
+
+    public Schema<T> strings(int tag, String name, Function<T, List<String>> get, BiConsumer<T, List<String>> set) {
+        return add(new Field<T>(tag, name, WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+            @Override
+            void write(T value, CodedOutputStream out) throws IOException {
+                List<String> list = get.apply(value);
+                if (list != null) {
+                    for (String s : list) {
+                        out.writeString(tag, s);
+                    }
+                }
+            }
+
+            @Override
+            void read(T value, CodedInputStream in) throws IOException {
+                List<String> list = get.apply(value);
+                if (list == null) {
+                    list = new ArrayList<>();
+                    set.accept(value, list);
+                }
+                list.add(in.readString());
+            }
+
+            @Override
+            boolean representable(T value) {
+                List<String> list = get.apply(value);
+                return list == null || !list.contains(null);
+            }
+        });
+    }
+
+    /**
+     * Whether the value survives the binary form unchanged. Lists holding null
+     * elements do not, and are stored as JSON instead.
+     */
+    boolean representable(T value) {
+        for (Field<T> field : fields) {
+            if (!field.representable(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void write(T value, CodedOutputStream out) throws IOException {
+        for (Field<T> field : fields) {
+            field.write(value, out);
+        }
+    }
+
+    T read(CodedInputStream in) throws IOException {
+        T value = factory.get();
+        int tag;
+        while ((tag = in.readTag()) != 0) {
+            Field<T> field = byTag.get(WireFormat.getTagFieldNumber(tag));
+            if (field == null || field.wireType != WireFormat.getTagWireType(tag)) {
+                in.skipField(tag);
+                continue;
+            }
+            field.read(value, in);
+        }
+        return value;
+    }
+
+    /** The wire tag (field number plus wire type) of a named field, or 0 if there is none. */
+    int wireTag(String name) {
+        Field<T> field = byName.get(name);
+        return field == null ? 0 : field.tag << 3 | field.wireType;
+    }
+
+    private Schema<T> add(Field<T> field) {
+        if (byTag.put(field.tag, field) != null) {
+            throw new IllegalArgumentException("Duplicate tag " + field.tag + " for " + field.name);
+        }
+        byName.put(field.name, field);
+        fields.add(field);
+        return this;
+    }
+}
@@ -0,0 +1,344 @@
+package org.rishbootdev.chaincode.state;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import org.rishbootdev.chaincode.json.JsonSupport;
+import org.rishbootdev.chaincode.model.Doctor;
+import org.rishbootdev.chaincode.model.Hospital;
+import org.rishbootdev.chaincode.model.Lab;
+import org.rishbootdev.chaincode.model.LabReport;
+import org.rishbootdev.chaincode.model.Medicine;
+import org.rishbootdev.chaincode.model.Patient;
+import org.rishbootdev.chaincode.model.Pharma;
+import org.rishbootdev.chaincode.model.Prescription;
+import org.rishbootdev.chaincode.model.Record;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encodes ledger values. The first byte of a stored value names its format:
+ * {@link #FORMAT_PROTO} is followed by the model's fields in protobuf wire
+ * format. Anything else is a legacy JSON document written before the codec
+ * existed, which is still read as-is; JSON text never starts with a byte
+ * below 0x09.
+ *
+ * <p>Models without a schema, and values a schema cannot represent, are
+ * written as plain JSON.</p>
+ *
+ * <p>{@link #FORMAT_DEFLATE} wraps either of the above: it is followed by the
+ * inner value's length as a varint and then the inner value compressed with
+ * DEFLATE. Values are only compressed when they reach the caller's threshold
+ * and compression actually makes them smaller.</p>
+ *
+ * <p>Endorsement compares write sets byte for byte, and DEFLATE output
+ * depends on the zlib build behind the peer's JVM as well as on the level
+ * and strategy, which are pinned here. Compressed values are therefore only
+ * written when the storage config enables it, which is only safe while every
+ * endorsing peer runs the same chaincode image. Compressed values are always
+ * readable.</p>
+ */
+public final class StateCodec {
+
+    public static final byte FORMAT_PROTO = 0x01;
+    public static final byte FORMAT_DEFLATE = 0x02;
+
+    /** Fixed so the DEFLATE output does not follow a library default. */
+    static final int DEFLATE_LEVEL = 6;
+    static final int DEFLATE_STRATEGY = Deflater.DEFAULT_STRATEGY;
+
+    /** Upper bound on an inflated value, well above Fabric's default payload limits. */
+    private static final int MAX_INFLATED_SIZE = 100 * 1024 * 1024;
+
+    private static final Gson gson = JsonSupport.gson();
+    private static final Map<Class<?>, Schema<?>> SCHEMAS = new HashMap<>();
+
+    static {
+        register(Patient.class, Schema.of(Patient::new)
+                .string(1, "patientId", Patient::getPatientId, Patient::setPatientId)
+                .string(2, "name", Patient::getName, Patient::setName)
+                .int32(3, "age", Patient::getAge, Patient::setAge)
+                .string(4, "gender", Patient::getGender, Patient::setGender)
+                .string(5, "address", Patient::getAddress, Patient::setAddress)
+                .string(6, "labReportId", Patient::getLabReportId, Patient::setLabReportId)
+                .string(7, "contact", Patient::getContact, Patient::setContact)
+                .string(8, "bloodGroup", Patient::getBloodGroup, Patient::setBloodGroup)
+                .string(9, "allergies", Patient::getAllergies, Patient::setAllergies)
+                .strings(10, "prescriptionIds", Patient::getPrescriptionsIds, Patient::setPrescriptionsIds)
+                .strings(11, "recordIds", Patient::getRecordIds, Patient::setRecordIds)
+                .string(12, "doctorId", Patient::getDoctorId, Patient::setDoctorId)
+                .string(13, "hospitalId", Patient::getHospitalId, Patient::setHospitalId));
+        register(Doctor.class, Schema.of(Doctor::new)
+                .string(1, "doctorId", Doctor::getDoctorId, Doctor::setDoctorId)
+                .string(2, "name", Doctor::getName, Doctor::setName)
+                .string(3, "specialization", Doctor::getSpecialization, Doctor::setSpecialization)
+                .string(4, "hospitalId", Doctor::getHospitalId, Doctor::setHospitalId)
+                .strings(5, "patientId", Doctor::getPatientIds, Doctor::setPatientIds)
+                .strings(6, "recordId", Doctor::getRecordIds, Doctor::setRecordIds)
+                .string(7, "qualification", Doctor::getQualification, Doctor::setQualification)
+                .string(8, "contact", Doctor::getContact, Doctor::setContact));
+        register(Hospital.class, Schema.of(Hospital::new)
+                .string(1, "hospitalId", Hospital::getHospitalId, Hospital::setHospitalId)
+                .string(2, "name", Hospital::getName, Hospital::setName)
+                .string(3, "address", Hospital::getAddress, Hospital::setAddress)
+                .string(4, "license", Hospital::getLicense, Hospital::setLicense)
+                .strings(5, "doctorIds", Hospital::getDoctorIds, Hospital::setDoctorIds)
+                .strings(6, "patientIds", Hospital::getPatientIds, Hospital::setPatientIds)
+                .strings(7, "recordId", Hospital::getRecordIds, Hospital::setRecordIds)
+                .strings(8, "labId", Hospital::getLabIds, Hospital::setLabIds));
+        register(Record.class, Schema.of(Record::new)
+                .string(1, "recordId", Record::getRecordId, Record::setRecordId)
+                .string(2, "patientId", Record::getPatientId, Record::setPatientId)
+                .string(3, "doctorId", Record::getDoctorId, Record::setDoctorId)
+                .string(4, "hospitalId", Record::getHospitalId, Record::setHospitalId)
+                .string(5, "diagnosis", Record::getDiagnosis, Record::setDiagnosis)
+                .string(6, "treatment", Record::getTreatment, Record::setTreatment)
+                .string(7, "remarks", Record::getRemarks, Record::setRemarks)
+                .string(8, "visitDate", Record::getVisitDate, Record::setVisitDate));
+        register(Prescription.class, Schema.of(Prescription::new)
+                .string(1, "prescriptionId", Prescription::getPrescriptionId, Prescription::setPrescriptionId)
+                .string(2, "patientId", Prescription::getPatientId, Prescription::setPatientId)
+                .string(3, "doctorId", Prescription::getDoctorId, Prescription::setDoctorId)
+                .strings(4, "medicineIdList", Prescription::getMedicineIdList, Prescription::setMedicineIdList)
+                .string(5, "issuedDate", Prescription::getIssuedDate, Prescription::setIssuedDate)
+                .string(6, "remarks", Prescription::getRemarks, Prescription::setRemarks));
+        register(LabReport.class, Schema.of(LabReport::new)
+                .string(1, "reportId", LabReport::getReportId, LabReport::setReportId)
+                .string(2, "patientId", LabReport::getPatientId, LabReport::setPatientId)
+                .string(3, "testType", LabReport::getTestType, LabReport::setTestType)
+                .string(4, "testResult", LabReport::getTestResult, LabReport::setTestResult)
+                .string(5, "labId", LabReport::getLabId, LabReport::setLabId)
+                .string(6, "testDate", LabReport::getTestDate, LabReport::setTestDate)
+                .string(7, "remarks", LabReport::getRemarks, LabReport::setRemarks));
+        register(Lab.class, Schema.of(Lab::new)
+                .string(1, "labId", Lab::getLabId, Lab::setLabId)
+                .string(2, "name", Lab::getName, Lab::setName)
+                .string(3, "hospitalId", Lab::getHospitalId, Lab::setHospitalId)
+                .strings(4, "reportIds", Lab::getReportIds, Lab::setReportIds));
+        register(Medicine.class, Schema.of(Medicine::new)
+                .string(1, "name", Medicine::getName, Medicine::setName)
+                .string(2, "id", Medicine::getId, Medicine::setId)
+                .string(3, "manufacturer", Medicine::getManufacturer, Medicine::setManufacturer)
+                .string(4, "dosage", Medicine::getDosage, Medicine::setDosage)
+                .int32(5, "stock", Medicine::getStock, Medicine::setStock)
+                .string(6, "expiryDate", Medicine::getExpiryDate, Medicine::setExpiryDate));
+        register(Pharma.class, Schema.of(Pharma::new)
+                .string(1, "name", Pharma::getName, Pharma::setName)
+                .string(2, "pharmaId", Pharma::getPharmaId, Pharma::setPharmaId)
+                .strings(3, "medicineId", Pharma::getMedicineIds, Pharma::setMedicineIds));
+    }
+
+    private StateCodec() {
+    }
+
+    /**
+     * Encodes a value, compressing it when the encoding is at least
+     * {@code compressThreshold} bytes long. A threshold of 0 or less disables
+     * compression.
+     */
+    public static byte[] encode(Object value, int compressThreshold) {
+        return compress(encode(value), compressThreshold);
+    }
+
+    /** The encoded value, deflated when it reaches the threshold and that makes it smaller. */
+    public static byte[] compress(byte[] encoded, int compressThreshold) {
+        if (compressThreshold <= 0 || encoded.length < compressThreshold) {
+            return encoded;
+        }
+        byte[] compressed = deflate(encoded);
+        return compressed.length < encoded.length ? compressed : encoded;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static byte[] encode(Object value) {
+        Schema<Object> schema = (Schema<Object>) SCHEMAS.get(value.getClass());
+        if (schema == null || !schema.representable(value)) {
+            return encodeJson(value);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        bytes.write(FORMAT_PROTO);
+        try {
+            CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+            schema.write(value, out);
+            out.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot encode " + value.getClass().getSimpleName(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a stored value, or returns null for an empty one. Malformed
+     * values of either format raise {@link JsonSyntaxException}, so scans that
+     * already skip unparseable JSON skip them too.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T decode(byte[] value, Class<T> type) {
+        if (value == null || value.length == 0) {
+            return null;
+        }
+        if (value[0] == FORMAT_DEFLATE) {
+            return decode(inflate(value, type), type);
+        }
+        if (value[0] != FORMAT_PROTO) {
+            return gson.fromJson(reader(value), type);
+        }
+        Schema<T> schema = (Schema<T>) SCHEMAS.get(type);
+        if (schema == null) {
+            throw new JsonSyntaxException("No binary schema for " + type.getSimpleName());
+        }
+        try {
+            return schema.read(CodedInputStream.newInstance(value, 1, value.length - 1));
+        } catch (IOException e) {
+            throw new JsonSyntaxException("Malformed " + type.getSimpleName() + " value", e);
+        }
+    }
+
+    /**
+     * The JSON form of a stored value, as returned to clients. Legacy JSON
+     * values are returned without being parsed.
+     */
+    public static String toJson(byte[] value, Class<?> type) {
+        if (value == null || value.length == 0) {
+            return null;
+        }
+        if (value[0] == FORMAT_DEFLATE) {
+            return toJson(inflate(value, type), type);
+        }
+        if (value[0] != FORMAT_PROTO) {
+            return new String(value, StandardCharsets.UTF_8);
+        }
+        return gson.toJson(decode(value, type));
+    }
+
+    /**
+     * Writes a stored value into a response. Legacy JSON documents are checked
+     * with a streaming pass and then copied as stored, without being bound to
+     * a model or re-serialized; binary values are decoded and written.
+     */
+    public static void writeJson(byte[] value, Class<?> type, JsonWriter writer) throws IOException {
+        byte[] plain = unwrap(value, type);
+        if (plain[0] == FORMAT_PROTO) {
+            gson.toJson(decode(plain, type), type, writer);
+            return;
+        }
+        try (JsonReader check = new JsonReader(reader(plain))) {
+            check.skipValue();
+            if (check.peek() != JsonToken.END_DOCUMENT) {
+                throw new JsonSyntaxException("Trailing data in " + type.getSimpleName() + " value");
+            }
+        } catch (IOException | IllegalStateException e) {
+            throw new JsonSyntaxException("Malformed " + type.getSimpleName() + " value", e);
+        }
+        writer.jsonValue(new String(plain, StandardCharsets.UTF_8));
+    }
+
+    public static boolean isCompressed(byte[] value) {
+        return value != null && value.length > 0 && value[0] == FORMAT_DEFLATE;
+    }
+
+    /**
+     * Size of the value once decompressed, read from the header without
+     * inflating it. Uncompressed values return their own length.
+     */
+    public static int uncompressedSize(byte[] value) {
+        if (!isCompressed(value)) {
+            return value == null ? 0 : value.length;
+        }
+        try {
+            return CodedInputStream.newInstance(value, 1, value.length - 1).readUInt32();
+        } catch (IOException e) {
+            return value.length;
+        }
+    }
+
+    private static byte[] encodeJson(Object value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (Writer out = new OutputStreamWriter(bytes, StandardCharsets.UTF_8)) {
+            gson.toJson(value, out);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot encode " + value.getClass().getSimpleName(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Reader reader(byte[] json) {
+        return new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8);
+    }
+
+    /** The value with any compression removed. */
+    static byte[] unwrap(byte[] value, Class<?> type) {
+        return isCompressed(value) ? inflate(value, type) : value;
+    }
+
+    static Schema<?> schema(Class<?> type) {
+        return SCHEMAS.get(type);
+    }
+
+    static byte[] deflate(byte[] encoded) {
+        Deflater deflater = new Deflater(DEFLATE_LEVEL);
+        try {
+            deflater.setStrategy(DEFLATE_STRATEGY);
+            deflater.setInput(encoded);
+            deflater.finish();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(encoded.length / 2 + 16);
+            bytes.write(FORMAT_DEFLATE);
+            CodedOutputStream header = CodedOutputStream.newInstance(bytes);
+            header.writeUInt32NoTag(encoded.length);
+            header.flush();
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                bytes.write(buffer, 0, n);
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot compress value", e);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] value, Class<?> type) {
+        Inflater inflater = new Inflater();
+        try {
+            CodedInputStream header = CodedInputStream.newInstance(value, 1, value.length - 1);
+            int size = header.readUInt32();
+            if (size <= 0 || size > MAX_INFLATED_SIZE) {
+                throw new JsonSyntaxException("Malformed " + type.getSimpleName() + " value: bad length " + size);
+            }
+            int offset = 1 + header.getTotalBytesRead();
+            inflater.setInput(value, offset, value.length - offset);
+            byte[] inflated = new byte[size];
+            int read = inflater.inflate(inflated);
+            if (read != size || !inflater.finished() || inflated[0] == FORMAT_DEFLATE) {
+                throw new JsonSyntaxException("Malformed " + type.getSimpleName() + " value");
+            }
+            return inflated;
+        } catch (IOException | DataFormatException e) {
+            throw new JsonSyntaxException("Malformed " + type.getSimpleName() + " value", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static <T> void register(Class<T> type, Schema<T> schema) {
+        SCHEMAS.put(type, schema);
+    }
+}
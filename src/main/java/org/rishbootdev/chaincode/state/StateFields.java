@@ -0,0 +1,175 @@
+package org.rishbootdev.chaincode.state;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.WireFormat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads one top-level field from a stored value without building the entity.
+ * Binary values are walked tag by tag, skipping other fields by length;
+ * JSON values are streamed and other fields skipped unread. Fields are named
+ * by their JSON wire name.
+ *
+ * <p>Malformed values raise {@link JsonSyntaxException}, as
+ * {@link StateCodec#decode} does.</p>
+ */
+public final class StateFields {
+
+    private StateFields() {
+    }
+
+    /** The string field, or null when it is absent or not a string. */
+    public static String string(byte[] value, Class<?> type, String field) {
+        byte[] plain = plain(value, type);
+        if (plain == null) {
+            return null;
+        }
+        try {
+            if (plain[0] == StateCodec.FORMAT_PROTO) {
+                int wireTag = wireTag(type, field, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+                CodedInputStream in = binary(plain);
+                int tag;
+                while ((tag = in.readTag()) != 0) {
+                    if (tag == wireTag) {
+                        return in.readString();
+                    }
+                    in.skipField(tag);
+                }
+                return null;
+            }
+            try (JsonReader reader = jsonAt(plain, field)) {
+                return reader != null && reader.peek() == JsonToken.STRING ? reader.nextString() : null;
+            }
+        } catch (IOException | IllegalStateException | JsonParseException e) {
+            throw malformed(type, e);
+        }
+    }
+
+    /**
+     * The integer field, 0 when it is absent (as it deserializes), or null
+     * when the stored value is not an integer.
+     */
+    public static Integer int32(byte[] value, Class<?> type, String field) {
+        byte[] plain = plain(value, type);
+        if (plain == null) {
+            return null;
+        }
+        try {
+            if (plain[0] == StateCodec.FORMAT_PROTO) {
+                int wireTag = wireTag(type, field, WireFormat.WIRETYPE_VARINT);
+                CodedInputStream in = binary(plain);
+                int tag;
+                while ((tag = in.readTag()) != 0) {
+                    if (tag == wireTag) {
+                        return in.readInt32();
+                    }
+                    in.skipField(tag);
+                }
+                return 0;
+            }
+            try (JsonReader reader = jsonAt(plain, field)) {
+                if (reader == null) {
+                    return 0;
+                }
+                if (reader.peek() != JsonToken.NUMBER) {
+                    return null;
+                }
+                try {
+                    return reader.nextInt();
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        } catch (IOException | IllegalStateException | JsonParseException e) {
+            throw malformed(type, e);
+        }
+    }
+
+    /** Number of elements in a string list field, or 0 when it is absent. */
+    public static int count(byte[] value, Class<?> type, String field) {
+        byte[] plain = plain(value, type);
+        if (plain == null) {
+            return 0;
+        }
+        try {
+            int size = 0;
+            if (plain[0] == StateCodec.FORMAT_PROTO) {
+                int wireTag = wireTag(type, field, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+                CodedInputStream in = binary(plain);
+                int tag;
+                while ((tag = in.readTag()) != 0) {
+                    if (tag == wireTag) {
+                        size++;
+                    }
+                    in.skipField(tag);
+                }
+                return size;
+            }
+            try (JsonReader reader = jsonAt(plain, field)) {
+                if (reader == null || reader.peek() != JsonToken.BEGIN_ARRAY) {
+                    return 0;
+                }
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    reader.skipValue();
+                    size++;
+                }
+                return size;
+            }
+        } catch (IOException | IllegalStateException | JsonParseException e) {
+            throw malformed(type, e);
+        }
+    }
+
+    private static byte[] plain(byte[] value, Class<?> type) {
+        if (value == null || value.length == 0) {
+            return null;
+        }
+        return StateCodec.unwrap(value, type);
+    }
+
+    private static int wireTag(Class<?> type, String field, int wireType) {
+        Schema<?> schema = StateCodec.schema(type);
+        if (schema == null) {
+            throw new JsonSyntaxException("No binary schema for " + type.getSimpleName());
+        }
+        int wireTag = schema.wireTag(field);
+        if (wireTag == 0 || WireFormat.getTagWireType(wireTag) != wireType) {
+            throw new IllegalArgumentException(type.getSimpleName() + " has no field " + field + " of that kind");
+        }
+        return wireTag;
+    }
+
+    private static CodedInputStream binary(byte[] plain) {
+        return CodedInputStream.newInstance(plain, 1, plain.length - 1);
+    }
+
+    /**
+     * A reader positioned at the field's value, or null when the document has
+     * no such field. The caller closes the reader.
+     */
+    private static JsonReader jsonAt(byte[] plain, String field) throws IOException {
+        JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(plain), StandardCharsets.UTF_8));
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (field.equals(reader.nextName())) {
+                return reader;
+            }
+            reader.skipValue();
+        }
+        reader.close();
+        return null;
+    }
+
+    private static JsonSyntaxException malformed(Class<?> type, Exception cause) {
+        return new JsonSyntaxException("Malformed " + type.getSimpleName() + " value", cause);
+    }
+}
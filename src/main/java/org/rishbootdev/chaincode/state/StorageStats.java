@@ -0,0 +1,46 @@
+package org.rishbootdev.chaincode.state;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Size and format totals for the values stored under one entity prefix.
+ * {@code ratio} is uncompressed bytes over stored bytes, so 1.0 means no
+ * saving.
+ */
+public final class StorageStats {
+
+    private long count;
+    private long compressed;
+    private long binary;
+    private long json;
+    private long storedBytes;
+    private long uncompressedBytes;
+
+    public void add(byte[] value) {
+        if (value == null || value.length == 0) {
+            return;
+        }
+        count++;
+        storedBytes += value.length;
+        uncompressedBytes += StateCodec.uncompressedSize(value);
+        if (StateCodec.isCompressed(value)) {
+            compressed++;
+        } else if (value[0] == StateCodec.FORMAT_PROTO) {
+            binary++;
+        } else {
+            json++;
+        }
+    }
+
+    public JsonObject toJson() {
+        JsonObject stats = new JsonObject();
+        stats.addProperty("count", count);
+        stats.addProperty("compressed", compressed);
+        stats.addProperty("binary", binary);
+        stats.addProperty("json", json);
+        stats.addProperty("storedBytes", storedBytes);
+        stats.addProperty("uncompressedBytes", uncompressedBytes);
+        stats.addProperty("ratio", storedBytes == 0 ? 1.0 : Math.round(uncompressedBytes * 100.0 / storedBytes) / 100.0);
+        return stats;
+    }
+}
@@ -0,0 +1,346 @@
+package org.rishbootdev.chaincode.state;
+
+import org.hyperledger.fabric.protos.peer.ChaincodeEvent;
+import org.hyperledger.fabric.protos.peer.SignedProposal;
+import org.hyperledger.fabric.shim.Chaincode;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.hyperledger.fabric.shim.ledger.KeyModification;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIteratorWithMetadata;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A stub that stands in for the peer's for one transaction. Each key is
+ * fetched from the peer at most once, and {@link Ledger#get} decodes it at
+ * most once. Puts and deletes are buffered, later ones replacing earlier
+ * ones, and reach the peer in one pass when {@link #flush} runs after the
+ * transaction function returns. A transaction that throws is never flushed,
+ * which changes nothing since Fabric discards its writes anyway.
+ *
+ * <p>Unlike the peer's stub, point reads see this transaction's own writes.
+ * Range and composite-key queries go to the peer and do not, as before.
+ * Everything else is passed straight through.</p>
+ *
+ * <p>{@link #savepoint} and {@link #rollback} let a transaction that applies
+ * several independent changes drop the writes of one that failed and keep
+ * the rest.</p>
+ */
+public final class UnitOfWork implements ChaincodeStub {
+
+    private static final byte[] ABSENT = new byte[0];
+
+    private final ChaincodeStub peer;
+    private final Map<String, byte[]> reads = new HashMap<>();
+    private final Map<String, byte[]> writes = new LinkedHashMap<>();
+    private final Map<String, Object> entities = new HashMap<>();
+    private final List<Undo> journal = new ArrayList<>();
+
+    /** A buffered write's key and what the buffer held for it before. */
+    private static final class Undo {
+        final String key;
+        final byte[] previous;
+
+        Undo(String key, byte[] previous) {
+            this.key = key;
+            this.previous = previous;
+        }
+    }
+
+    public UnitOfWork(ChaincodeStub peer) {
+        this.peer = peer;
+    }
+
+    @Override
+    public byte[] getState(String key) {
+        byte[] written = writes.get(key);
+        if (written != null) {
+            return written;
+        }
+        return reads.computeIfAbsent(key, k -> {
+            byte[] value = peer.getState(k);
+            return value == null ? ABSENT : value;
+        });
+    }
+
+    @Override
+    public void putState(String key, byte[] value) {
+        journal.add(new Undo(key, writes.put(key, value)));
+        entities.remove(key);
+    }
+
+    @Override
+    public void delState(String key) {
+        journal.add(new Undo(key, writes.put(key, ABSENT)));
+        entities.remove(key);
+    }
+
+    /** Marks the current write buffer so it can be restored by {@link #rollback}. */
+    public int savepoint() {
+        return journal.size();
+    }
+
+    /**
+     * Undoes the writes buffered since the savepoint. Decoded entities are
+     * dropped too, since the failed change may have modified them without
+     * writing them back.
+     */
+    public void rollback(int savepoint) {
+        for (int i = journal.size() - 1; i >= savepoint; i--) {
+            Undo undo = journal.remove(i);
+            if (undo.previous == null) {
+                writes.remove(undo.key);
+            } else {
+                writes.put(undo.key, undo.previous);
+            }
+        }
+        entities.clear();
+    }
+
+    /**
+     * The decoded entity for the key, decoded on first use and shared by
+     * every later read of the key in this transaction until it is written.
+     */
+    <T> T entity(String key, Class<T> type) {
+        Object cached = entities.get(key);
+        if (type.isInstance(cached)) {
+            return type.cast(cached);
+        }
+        T entity = StateCodec.decode(getState(key), type);
+        if (entity != null) {
+            entities.put(key, entity);
+        }
+        return entity;
+    }
+
+    /** Number of buffered writes not yet sent to the peer. */
+    public int pendingWrites() {
+        return writes.size();
+    }
+
+    /** Sends the buffered writes to the peer and clears the buffer. */
+    public void flush() {
+        for (Map.Entry<String, byte[]> write : writes.entrySet()) {
+            if (write.getValue() == ABSENT) {
+                peer.delState(write.getKey());
+            } else {
+                peer.putState(write.getKey(), write.getValue());
+            }
+            reads.put(write.getKey(), write.getValue());
+        }
+        writes.clear();
+        journal.clear();
+    }
+
+    @Override
+    public List<byte[]> getArgs() {
+        return peer.getArgs();
+    }
+
+    @Override
+    public List<String> getStringArgs() {
+        return peer.getStringArgs();
+    }
+
+    @Override
+    public String getFunction() {
+        return peer.getFunction();
+    }
+
+    @Override
+    public List<String> getParameters() {
+        return peer.getParameters();
+    }
+
+    @Override
+    public String getTxId() {
+        return peer.getTxId();
+    }
+
+    @Override
+    public String getChannelId() {
+        return peer.getChannelId();
+    }
+
+    @Override
+    public Chaincode.Response invokeChaincode(String chaincodeName, List<byte[]> args, String channel) {
+        return peer.invokeChaincode(chaincodeName, args, channel);
+    }
+
+    @Override
+    public byte[] getStateValidationParameter(String key) {
+        return peer.getStateValidationParameter(key);
+    }
+
+    @Override
+    public void setStateValidationParameter(String key, byte[] value) {
+        peer.setStateValidationParameter(key, value);
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getStateByRange(String startKey, String endKey) {
+        return peer.getStateByRange(startKey, endKey);
+    }
+
+    @Override
+    public QueryResultsIteratorWithMetadata<KeyValue> getStateByRangeWithPagination(String startKey, String endKey,
+                                                                                    int pageSize, String bookmark) {
+        return peer.getStateByRangeWithPagination(startKey, endKey, pageSize, bookmark);
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getStateByPartialCompositeKey(String compositeKey) {
+        return peer.getStateByPartialCompositeKey(compositeKey);
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getStateByPartialCompositeKey(String objectType, String... attributes) {
+        return peer.getStateByPartialCompositeKey(objectType, attributes);
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getStateByPartialCompositeKey(CompositeKey compositeKey) {
+        return peer.getStateByPartialCompositeKey(compositeKey);
+    }
+
+    @Override
+    public QueryResultsIteratorWithMetadata<KeyValue> getStateByPartialCompositeKeyWithPagination(
+            CompositeKey compositeKey, int pageSize, String bookmark) {
+        return peer.getStateByPartialCompositeKeyWithPagination(compositeKey, pageSize, bookmark);
+    }
+
+    @Override
+    public CompositeKey createCompositeKey(String objectType, String... attributes) {
+        return peer.createCompositeKey(objectType, attributes);
+    }
+
+    @Override
+    public CompositeKey splitCompositeKey(String compositeKey) {
+        return peer.splitCompositeKey(compositeKey);
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getQueryResult(String query) {
+        return peer.getQueryResult(query);
+    }
+
+    @Override
+    public QueryResultsIteratorWithMetadata<KeyValue> getQueryResultWithPagination(String query, int pageSize,
+                                                                                   String bookmark) {
+        return peer.getQueryResultWithPagination(query, pageSize, bookmark);
+    }
+
+    @Override
+    public QueryResultsIterator<KeyModification> getHistoryForKey(String key) {
+        return peer.getHistoryForKey(key);
+    }
+
+    @Override
+    public byte[] getPrivateData(String collection, String key) {
+        return peer.getPrivateData(collection, key);
+    }
+
+    @Override
+    public byte[] getPrivateDataHash(String collection, String key) {
+        return peer.getPrivateDataHash(collection, key);
+    }
+
+    @Override
+    public byte[] getPrivateDataValidationParameter(String collection, String key) {
+        return peer.getPrivateDataValidationParameter(collection, key);
+    }
+
+    @Override
+    public void putPrivateData(String collection, String key, byte[] value) {
+        peer.putPrivateData(collection, key, value);
+    }
+
+    @Override
+    public void setPrivateDataValidationParameter(String collection, String key, byte[] value) {
+        peer.setPrivateDataValidationParameter(collection, key, value);
+    }
+
+    @Override
+    public void delPrivateData(String collection, String key) {
+        peer.delPrivateData(collection, key);
+    }
+
+    @Override
+    public void purgePrivateData(String collection, String key) {
+        peer.purgePrivateData(collection, key);
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getPrivateDataByRange(String collection, String startKey, String endKey) {
+        return peer.getPrivateDataByRange(collection, startKey, endKey);
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getPrivateDataByPartialCompositeKey(String collection, String compositeKey) {
+        return peer.getPrivateDataByPartialCompositeKey(collection, compositeKey);
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getPrivateDataByPartialCompositeKey(String collection,
+                                                                             CompositeKey compositeKey) {
+        return peer.getPrivateDataByPartialCompositeKey(collection, compositeKey);
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getPrivateDataByPartialCompositeKey(String collection, String objectType,
+                                                                             String... attributes) {
+        return peer.getPrivateDataByPartialCompositeKey(collection, objectType, attributes);
+    }
+
+    @Override
+    public QueryResultsIterator<KeyValue> getPrivateDataQueryResult(String collection, String query) {
+        return peer.getPrivateDataQueryResult(collection, query);
+    }
+
+    @Override
+    public void setEvent(String name, byte[] payload) {
+        peer.setEvent(name, payload);
+    }
+
+    @Override
+    public ChaincodeEvent getEvent() {
+        return peer.getEvent();
+    }
+
+    @Override
+    public SignedProposal getSignedProposal() {
+        return peer.getSignedProposal();
+    }
+
+    @Override
+    public Instant getTxTimestamp() {
+        return peer.getTxTimestamp();
+    }
+
+    @Override
+    public byte[] getCreator() {
+        return peer.getCreator();
+    }
+
+    @Override
+    public Map<String, byte[]> getTransient() {
+        return peer.getTransient();
+    }
+
+    @Override
+    public byte[] getBinding() {
+        return peer.getBinding();
+    }
+
+    @Override
+    public String getMspId() {
+        return peer.getMspId();
+    }
+}
@@ -0,0 +1,57 @@
+package org.rishbootdev.chaincode.batch;
+
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchRequestTest {
+
+    @Test
+    void acceptsAnArrayOrNewlineDelimitedItems() {
+        String array = "[{\"op\":\"create\",\"entity\":\"patient\",\"data\":{\"patientId\":\"P1\"}},"
+                + "{\"op\":\"link\",\"link\":\"hospital-patient\",\"from\":\"H1\",\"to\":\"P1\"}]";
+        String lines = "{\"op\":\"create\",\"entity\":\"patient\",\"data\":{\"patientId\":\"P1\"}}\n\n"
+                + "{\"op\":\"link\",\"link\":\"hospital-patient\",\"from\":\"H1\",\"to\":\"P1\"}\n";
+
+        for (String batch : new String[]{array, lines}) {
+            List<BatchRequest.Item> items = BatchRequest.parse(batch);
+            assertEquals(2, items.size());
+            assertEquals("P1", items.get(0).getId());
+            assertEquals("hospital-patient", items.get(1).getEntity());
+            assertEquals("H1", items.get(1).getFrom());
+            assertEquals(1, items.get(1).getIndex());
+        }
+    }
+
+    @Test
+    void reportsEveryInvalidItemAtOnce() {
+        String batch = "[{\"op\":\"drop\",\"entity\":\"patient\"},"
+                + "{\"op\":\"create\",\"entity\":\"patient\",\"data\":{}},"
+                + "{\"op\":\"link\",\"link\":\"patient-hospital\",\"from\":\"P1\",\"to\":\"H1\"},"
+                + "{\"op\":\"create\",\"entity\":\"doctor\",\"data\":{\"doctorId\":\"D1\"}},"
+                + "{\"op\":\"create\",\"entity\":\"doctor\",\"data\":{\"doctorId\":\"D1\"}}]";
+
+        ChaincodeException e = assertThrows(ChaincodeException.class, () -> BatchRequest.parse(batch));
+
+        assertTrue(e.getMessage().contains("item 0: unknown op"));
+        assertTrue(e.getMessage().contains("item 1: patient data needs patientId"));
+        assertTrue(e.getMessage().contains("item 2: unknown link"));
+        assertTrue(e.getMessage().contains("item 4: doctor D1 is created twice"));
+    }
+
+    @Test
+    void rejectsOversizedBatches() {
+        String item = "{\"op\":\"link\",\"link\":\"doctor-patient\",\"from\":\"D1\",\"to\":\"P1\"}";
+        String tooMany = "[" + String.join(",", Collections.nCopies(BatchRequest.MAX_ITEMS + 1, item)) + "]";
+
+        assertThrows(ChaincodeException.class, () -> BatchRequest.parse(tooMany));
+        assertThrows(ChaincodeException.class, () -> BatchRequest.parse("{\"op\":"));
+        assertThrows(ChaincodeException.class, () -> BatchRequest.parse(""));
+    }
+}
@@ -0,0 +1,28 @@
+package org.rishbootdev.chaincode.contracts;
+
+import org.hyperledger.fabric.contract.routing.ContractDefinition;
+import org.hyperledger.fabric.contract.routing.impl.RoutingRegistryImpl;
+import org.hyperledger.fabric.contract.routing.impl.TypeRegistryImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContractRoutingTest {
+
+    @Test
+    void everyContractRegistersWithTheShim() {
+        RoutingRegistryImpl registry = new RoutingRegistryImpl();
+        registry.findAndSetContracts(new TypeRegistryImpl());
+
+        Set<String> names = registry.getAllDefinitions().stream()
+                .map(ContractDefinition::getName)
+                .collect(Collectors.toSet());
+        assertTrue(names.containsAll(Set.of("HospitalContract", "DoctorContract", "PatientContract",
+                "RecordContract", "PrescriptionContract", "MedicineContract", "PharmaContract", "LabContract",
+                "IndexAdminContract", "StorageAdminContract", "BatchContract")), names.toString());
+        assertTrue(registry.getContract("LabContract").hasTxFunction("listReportIdsByLab"));
+    }
+}
@@ -0,0 +1,71 @@
+package org.rishbootdev.chaincode.contracts;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.junit.jupiter.api.Test;
+import org.rishbootdev.chaincode.index.Indexes;
+import org.rishbootdev.chaincode.model.Record;
+import org.rishbootdev.chaincode.state.StateCodec;
+import org.rishbootdev.chaincode.testing.InMemoryStub;
+import org.rishbootdev.chaincode.testing.Transactions;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DoctorContractTest {
+
+    private final DoctorContract contract = new DoctorContract();
+
+    @Test
+    void repeatingALinkRestoresAMissingEdgeAndCountsItOnce() {
+        SortedMap<String, byte[]> state = new TreeMap<>();
+        ChaincodeStub stub = InMemoryStub.over(state);
+        Transactions.submit(stub, ctx -> contract.createDoctor(ctx, "{\"doctorId\":\"D1\"}"));
+        Transactions.submit(stub, ctx ->
+                new PatientContract().createPatient(ctx, "{\"patientId\":\"P1\",\"doctorId\":\"D1\"}"));
+        state.remove(edge(Indexes.DOCTOR_PATIENT, "D1", "P1"));
+
+        Transactions.submit(stub, ctx -> contract.addPatientToDoctor(ctx, "D1", "P1"));
+        Transactions.submit(stub, ctx -> contract.addPatientToDoctor(ctx, "D1", "P1"));
+
+        assertTrue(state.containsKey(edge(Indexes.DOCTOR_PATIENT, "D1", "P1")));
+        assertEquals(1, Indexes.count(stub, Indexes.DOCTOR_PATIENT, "D1"));
+    }
+
+    @Test
+    void recordsMoveBetweenDoctorsAndShowInTheirLists() {
+        SortedMap<String, byte[]> state = new TreeMap<>();
+        ChaincodeStub stub = InMemoryStub.over(state);
+        Transactions.submit(stub, ctx -> contract.createDoctor(ctx, "{\"doctorId\":\"D1\"}"));
+        Transactions.submit(stub, ctx -> contract.createDoctor(ctx, "{\"doctorId\":\"D2\"}"));
+        Record record = new Record();
+        record.setRecordId("R1");
+        state.put("RECORD_R1", StateCodec.encode(record));
+
+        Transactions.submit(stub, ctx -> contract.addRecordToDoctor(ctx, "D1", "R1"));
+        Transactions.submit(stub, ctx -> contract.addRecordToDoctor(ctx, "D2", "R1"));
+
+        assertEquals("D2", StateCodec.decode(state.get("RECORD_R1"), Record.class).getDoctorId());
+        assertFalse(state.containsKey(edge(Indexes.DOCTOR_RECORD, "D1", "R1")));
+        assertEquals(0, Indexes.size(stub, Indexes.DOCTOR_RECORD, "D1"));
+        assertEquals(1, Indexes.size(stub, Indexes.DOCTOR_RECORD, "D2"));
+        JsonObject doctor = JsonParser.parseString(
+                Transactions.evaluate(stub, ctx -> contract.getDoctorById(ctx, "D2"))).getAsJsonObject();
+        assertEquals("R1", doctor.getAsJsonArray("recordId").get(0).getAsString());
+
+        Transactions.submit(stub, ctx -> contract.removeRecordFromDoctor(ctx, "D2", "R1"));
+
+        assertFalse(state.containsKey(edge(Indexes.DOCTOR_RECORD, "D2", "R1")));
+        assertEquals(0, Indexes.size(stub, Indexes.DOCTOR_RECORD, "D2"));
+    }
+
+    private static String edge(String index, String owner, String id) {
+        return new CompositeKey(index, owner, id).toString();
+    }
+}
@@ -0,0 +1,43 @@
+package org.rishbootdev.chaincode.contracts;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.junit.jupiter.api.Test;
+import org.rishbootdev.chaincode.model.Hospital;
+import org.rishbootdev.chaincode.testing.InMemoryStub;
+import org.rishbootdev.chaincode.testing.Transactions;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HospitalContractTest {
+
+    private final HospitalContract contract = new HospitalContract();
+
+    @Test
+    void linksShowInTheHospitalReadsAndCounts() {
+        ChaincodeStub stub = InMemoryStub.over(new TreeMap<>());
+        Transactions.submit(stub, ctx -> contract.createHospital(ctx, "H1", "General", "Main St", "LIC"));
+        Transactions.submit(stub, ctx -> new DoctorContract().createDoctor(ctx, "{\"doctorId\":\"D1\"}"));
+        Transactions.submit(stub, ctx -> new PatientContract().createPatient(ctx, "{\"patientId\":\"P1\"}"));
+        Transactions.submit(stub, ctx -> new LabContract().createLab(ctx, "L1", "Central", "H1"));
+
+        Transactions.submit(stub, ctx -> contract.addDoctorToHospital(ctx, "H1", "D1"));
+        Transactions.submit(stub, ctx -> contract.addPatientToHospital(ctx, "H1", "P1"));
+        Transactions.submit(stub, ctx -> contract.addPatientToHospital(ctx, "H1", "P1"));
+
+        JsonObject hospital = JsonParser.parseString(
+                Transactions.evaluate(stub, ctx -> contract.getHospitalById(ctx, "H1"))).getAsJsonObject();
+        assertEquals("D1", hospital.getAsJsonArray("doctorIds").get(0).getAsString());
+        assertEquals("P1", hospital.getAsJsonArray("patientIds").get(0).getAsString());
+        assertEquals("L1", hospital.getAsJsonArray("labId").get(0).getAsString());
+        Hospital read = Transactions.evaluate(stub, ctx -> contract.readHospital(ctx, "H1"));
+        assertEquals(Arrays.asList("P1"), read.getPatientIds());
+        assertEquals(Collections.emptyList(), read.getRecordIds());
+        assertEquals(1L, (long) Transactions.evaluate(stub, ctx -> contract.countPatientsByHospital(ctx, "H1")));
+    }
+}
@@ -0,0 +1,70 @@
+package org.rishbootdev.chaincode.contracts;
+
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.junit.jupiter.api.Test;
+import org.rishbootdev.chaincode.model.Medicine;
+import org.rishbootdev.chaincode.testing.InMemoryStub;
+import org.rishbootdev.chaincode.testing.Transactions;
+
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+class MedicineContractTest {
+
+    private final MedicineContract contract = new MedicineContract();
+
+    @Test
+    void nameIndexFollowsCreateRenameAndDelete() {
+        SortedMap<String, byte[]> state = new TreeMap<>();
+        ChaincodeStub stub = InMemoryStub.over(state);
+
+        Transactions.submit(stub, ctx -> contract.createMedicine(ctx, "{\"id\":\"M1\",\"name\":\"Aspirin\"}"));
+
+        List<Medicine> found = Transactions.evaluate(stub, ctx -> contract.searchMedicineByName(ctx, "aspirin"));
+        assertEquals("M1", found.get(0).getId());
+
+        Transactions.submit(stub, ctx -> contract.updateMedicine(ctx, "{\"id\":\"M1\",\"name\":\"Aspirin Plus\"}"));
+
+        assertFalse(state.containsKey("MEDNAME~aspirin~M1"));
+        assertTrue(Transactions.evaluate(stub, ctx -> contract.searchMedicineByName(ctx, "aspirin")).isEmpty());
+        assertEquals(1, Transactions.evaluate(stub, ctx -> contract.searchMedicineByNamePrefix(ctx, "ASP", 0)).size());
+
+        Transactions.submit(stub, ctx -> contract.deleteMedicine(ctx, "M1"));
+
+        assertFalse(state.containsKey("MEDNAME~aspirin plus~M1"));
+        assertTrue(Transactions.evaluate(stub, ctx -> contract.searchMedicineByNamePrefix(ctx, "asp", 0)).isEmpty());
+    }
+
+    @Test
+    void stockPastTheIntRangeFailsWithAClearError() {
+        ChaincodeStub stub = InMemoryStub.over(new TreeMap<>());
+        Transactions.submit(stub, ctx -> contract.createMedicine(ctx,
+                "{\"id\":\"M1\",\"name\":\"Aspirin\",\"stock\":" + (Integer.MAX_VALUE - 10) + "}"));
+
+        assertThrows(ChaincodeException.class, () ->
+                Transactions.submit(stub, ctx -> contract.incrementMedicineStock(ctx, "M1", 11)));
+
+        when(stub.getTxId()).thenReturn("tx1");
+        Transactions.submit(stub, ctx -> contract.incrementMedicineStock(ctx, "M1", 6));
+        when(stub.getTxId()).thenReturn("tx2");
+        Transactions.submit(stub, ctx -> contract.incrementMedicineStock(ctx, "M1", 6));
+
+        ChaincodeException error = assertThrows(ChaincodeException.class, () ->
+                Transactions.evaluate(stub, ctx -> contract.getMedicineStock(ctx, "M1")));
+        assertTrue(error.getMessage().contains("out of range"));
+        assertThrows(ChaincodeException.class, () ->
+                Transactions.submit(stub, ctx -> contract.compactMedicineStock(ctx, "M1")));
+
+        Transactions.submit(stub, ctx -> contract.updateMedicineStock(ctx, "M1", 100));
+
+        assertEquals(100, (int) Transactions.evaluate(stub, ctx -> contract.getMedicineStock(ctx, "M1")));
+    }
+}
@@ -0,0 +1,78 @@
+package org.rishbootdev.chaincode.contracts;
+
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.junit.jupiter.api.Test;
+import org.rishbootdev.chaincode.index.Indexes;
+import org.rishbootdev.chaincode.model.LabReport;
+import org.rishbootdev.chaincode.state.StateCodec;
+import org.rishbootdev.chaincode.testing.InMemoryStub;
+import org.rishbootdev.chaincode.testing.Transactions;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PatientContractTest {
+
+    private final PatientContract contract = new PatientContract();
+
+    @Test
+    void createUpdateAndDeleteKeepTheDoctorAndHospitalEdges() {
+        SortedMap<String, byte[]> state = new TreeMap<>();
+        ChaincodeStub stub = InMemoryStub.over(state);
+
+        Transactions.submit(stub, ctx ->
+                contract.createPatient(ctx, "{\"patientId\":\"P1\",\"doctorId\":\"D1\",\"hospitalId\":\"H1\"}"));
+
+        assertTrue(state.containsKey(edge(Indexes.DOCTOR_PATIENT, "D1", "P1")));
+        assertTrue(state.containsKey(edge(Indexes.HOSPITAL_PATIENT, "H1", "P1")));
+        assertEquals(1, Indexes.size(stub, Indexes.HOSPITAL_PATIENT, "H1"));
+
+        Transactions.submit(stub, ctx ->
+                contract.updatePatient(ctx, "{\"patientId\":\"P1\",\"doctorId\":\"D2\",\"hospitalId\":\"H2\"}"));
+
+        assertFalse(state.containsKey(edge(Indexes.DOCTOR_PATIENT, "D1", "P1")));
+        assertTrue(state.containsKey(edge(Indexes.DOCTOR_PATIENT, "D2", "P1")));
+        assertEquals(0, Indexes.size(stub, Indexes.HOSPITAL_PATIENT, "H1"));
+        assertEquals(1, Indexes.size(stub, Indexes.HOSPITAL_PATIENT, "H2"));
+
+        Transactions.submit(stub, ctx -> contract.deletePatient(ctx, "P1"));
+
+        assertFalse(state.containsKey(edge(Indexes.DOCTOR_PATIENT, "D2", "P1")));
+        assertFalse(state.containsKey(edge(Indexes.HOSPITAL_PATIENT, "H2", "P1")));
+        assertEquals(0, Indexes.size(stub, Indexes.HOSPITAL_PATIENT, "H2"));
+        assertFalse(state.containsKey("PATIENT_P1"));
+    }
+
+    @Test
+    void linkingAReportMovesItsPatientAndEdge() {
+        SortedMap<String, byte[]> state = new TreeMap<>();
+        ChaincodeStub stub = InMemoryStub.over(state);
+        LabContract labs = new LabContract();
+        Transactions.submit(stub, ctx -> contract.createPatient(ctx, "{\"patientId\":\"P1\"}"));
+        Transactions.submit(stub, ctx -> contract.createPatient(ctx, "{\"patientId\":\"P2\"}"));
+        Transactions.submit(stub, ctx -> labs.createLab(ctx, "L1", "Central", "H1"));
+        Transactions.submit(stub, ctx -> labs.createLabReport(ctx, "R1", "P1", "CBC", "ok", "L1", "2024-01-01", ""));
+
+        Transactions.submit(stub, ctx -> contract.linkReportToPatient(ctx, "P2", "R1"));
+
+        assertEquals("P2", StateCodec.decode(state.get("REPORT_R1"), LabReport.class).getPatientId());
+        assertFalse(state.containsKey(edge(Indexes.PATIENT_REPORT, "P1", "R1")));
+        assertTrue(Transactions.evaluate(stub, ctx -> contract.getReportsByPatient(ctx, "P2")).contains("\"R1\""));
+        assertEquals("[]", Transactions.evaluate(stub, ctx -> contract.getReportsByPatient(ctx, "P1")));
+
+        Transactions.submit(stub, ctx -> contract.unlinkReportFromPatient(ctx, "P2"));
+
+        assertNull(StateCodec.decode(state.get("REPORT_R1"), LabReport.class).getPatientId());
+        assertFalse(state.containsKey(edge(Indexes.PATIENT_REPORT, "P2", "R1")));
+    }
+
+    private static String edge(String index, String owner, String id) {
+        return new CompositeKey(index, owner, id).toString();
+    }
+}
@@ -0,0 +1,47 @@
+package org.rishbootdev.chaincode.index;
+
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.junit.jupiter.api.Test;
+import org.rishbootdev.chaincode.testing.InMemoryStub;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CascadeTest {
+
+    @Test
+    void pagesStopAtTheLimitAndResumeFromTheRemainingEdges() {
+        SortedMap<String, byte[]> state = new TreeMap<>();
+        ChaincodeStub stub = InMemoryStub.over(state);
+        for (String id : Arrays.asList("D1", "D2", "D3")) {
+            Indexes.add(stub, Indexes.HOSPITAL_DOCTOR, "H1", id);
+        }
+        Indexes.add(stub, Indexes.HOSPITAL_LAB, "H1", "L1");
+        Indexes.add(stub, Indexes.HOSPITAL_LAB, "H2", "L2");
+        List<String> seen = new ArrayList<>();
+
+        Cascade first = Cascade.page(stub, 2);
+        first.each(Indexes.HOSPITAL_DOCTOR, "H1", seen::add);
+        first.each(Indexes.HOSPITAL_LAB, "H1", seen::add);
+
+        assertEquals(2, first.getProcessed());
+        assertFalse(first.isComplete());
+        assertEquals(Arrays.asList("D1", "D2"), seen);
+
+        Cascade second = Cascade.page(stub, 2);
+        second.each(Indexes.HOSPITAL_DOCTOR, "H1", seen::add);
+        second.each(Indexes.HOSPITAL_LAB, "H1", seen::add);
+
+        assertEquals(2, second.getProcessed());
+        assertTrue(second.isComplete());
+        assertEquals(Arrays.asList("D1", "D2", "D3", "L1"), seen);
+        assertEquals(1, state.size());
+    }
+}
@@ -0,0 +1,103 @@
+package org.rishbootdev.chaincode.index;
+
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.junit.jupiter.api.Test;
+import org.rishbootdev.chaincode.model.Doctor;
+import org.rishbootdev.chaincode.model.Hospital;
+import org.rishbootdev.chaincode.model.Lab;
+import org.rishbootdev.chaincode.model.Patient;
+import org.rishbootdev.chaincode.model.Pharma;
+import org.rishbootdev.chaincode.model.Record;
+import org.rishbootdev.chaincode.state.StateCodec;
+import org.rishbootdev.chaincode.testing.InMemoryStub;
+
+import java.util.Arrays;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndexRegistryTest {
+
+    @Test
+    void pharmaMigrationMovesTheListIntoEdgesBothWays() {
+        SortedMap<String, byte[]> state = new TreeMap<>();
+        ChaincodeStub stub = InMemoryStub.over(state);
+        Pharma pharma = new Pharma();
+        pharma.setPharmaId("PH1");
+        pharma.setMedicineIds(Arrays.asList("M1", "M2"));
+
+        int rewritten = IndexRegistry.migration(IndexRegistry.LINKS_PHARMA).write(stub, StateCodec.encode(pharma));
+
+        assertEquals(1, rewritten);
+        assertTrue(state.containsKey(edge(Indexes.PHARMA_MEDICINE, "PH1", "M2")));
+        assertTrue(state.containsKey(edge(Indexes.MEDICINE_PHARMA, "M2", "PH1")));
+        assertTrue(StateCodec.decode(state.get("PHARMA_PH1"), Pharma.class).getMedicineIds().isEmpty());
+    }
+
+    @Test
+    void doctorMigrationLinksListedRecordsThatHaveNoDoctor() {
+        SortedMap<String, byte[]> state = new TreeMap<>();
+        ChaincodeStub stub = InMemoryStub.over(state);
+        Record record = new Record();
+        record.setRecordId("R1");
+        state.put("RECORD_R1", StateCodec.encode(record));
+        Doctor doctor = new Doctor();
+        doctor.setDoctorId("D1");
+        doctor.setRecordIds(Arrays.asList("R1", "R9"));
+
+        IndexRegistry.migration(IndexRegistry.LINKS_DOCTOR).write(stub, StateCodec.encode(doctor));
+
+        assertTrue(state.containsKey(edge(Indexes.DOCTOR_RECORD, "D1", "R1")));
+        assertFalse(state.containsKey(edge(Indexes.DOCTOR_RECORD, "D1", "R9")));
+        assertEquals("D1", StateCodec.decode(state.get("RECORD_R1"), Record.class).getDoctorId());
+    }
+
+    @Test
+    void hospitalMigrationAdoptsListedChildrenAndNeedsTheirIndexes() {
+        SortedMap<String, byte[]> state = new TreeMap<>();
+        ChaincodeStub stub = InMemoryStub.over(state);
+        Lab lab = new Lab();
+        lab.setLabId("L1");
+        state.put("LAB_L1", StateCodec.encode(lab));
+        Patient patient = new Patient();
+        patient.setPatientId("P1");
+        patient.setHospitalId("H2");
+        state.put("PATIENT_P1", StateCodec.encode(patient));
+        Hospital hospital = new Hospital();
+        hospital.setHospitalId("H1");
+        hospital.setLabIds(Arrays.asList("L1"));
+        hospital.setPatientIds(Arrays.asList("P1"));
+
+        IndexDefinition migration = IndexRegistry.migration(IndexRegistry.LINKS_HOSPITAL);
+        migration.write(stub, StateCodec.encode(hospital));
+
+        assertTrue(state.containsKey(edge(Indexes.HOSPITAL_LAB, "H1", "L1")));
+        assertFalse(state.containsKey(edge(Indexes.HOSPITAL_PATIENT, "H1", "P1")));
+        assertEquals("H1", StateCodec.decode(state.get("LAB_L1"), Lab.class).getHospitalId());
+        assertEquals("H2", StateCodec.decode(state.get("PATIENT_P1"), Patient.class).getHospitalId());
+        assertTrue(migration.getPrerequisites().contains(Indexes.HOSPITAL_PATIENT));
+    }
+
+    @Test
+    void migratedDocumentsAreLeftAlone() {
+        SortedMap<String, byte[]> state = new TreeMap<>();
+        ChaincodeStub stub = InMemoryStub.over(state);
+        Pharma pharma = new Pharma();
+        pharma.setPharmaId("PH1");
+
+        assertEquals(0, IndexRegistry.migration(IndexRegistry.LINKS_PHARMA).write(stub, StateCodec.encode(pharma)));
+        assertTrue(state.isEmpty());
+        assertFalse(IndexRegistry.names().contains(Indexes.MEDICINE_PHARMA));
+        assertThrows(ChaincodeException.class, () -> IndexRegistry.migration("links~unknown"));
+    }
+
+    private static String edge(String index, String owner, String id) {
+        return new CompositeKey(index, owner, id).toString();
+    }
+}
@@ -0,0 +1,37 @@
+package org.rishbootdev.chaincode.index;
+
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.junit.jupiter.api.Test;
+import org.rishbootdev.chaincode.testing.InMemoryStub;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NameIndexTest {
+
+    @Test
+    void foldingLowercasesAndCollapsesSeparators() {
+        assertEquals("para cetamol 500", NameIndex.fold("  Para~CETAMOL \t 500 "));
+        assertEquals("", NameIndex.fold(null));
+    }
+
+    @Test
+    void exactStopsAtTheNameWhilePrefixRunsOn() {
+        SortedMap<String, byte[]> state = new TreeMap<>();
+        ChaincodeStub stub = InMemoryStub.over(state);
+        NameIndex.add(stub, NameIndex.MEDICINE, "Paracetamol", "M1");
+        NameIndex.add(stub, NameIndex.MEDICINE, "Paracetamol Forte", "M2");
+        NameIndex.add(stub, NameIndex.MEDICINE, "Penicillin", "M3");
+
+        assertTrue(state.containsKey("MEDNAME~paracetamol forte~M2"));
+        assertEquals(Collections.singletonList("M1"), NameIndex.exact(stub, NameIndex.MEDICINE, "PARACETAMOL", 0));
+        assertEquals(Arrays.asList("M2", "M1"), NameIndex.prefix(stub, NameIndex.MEDICINE, "para", 0));
+        assertEquals(Collections.singletonList("M2"), NameIndex.prefix(stub, NameIndex.MEDICINE, "p", 1));
+        assertTrue(NameIndex.prefix(stub, NameIndex.MEDICINE, "  ", 0).isEmpty());
+    }
+}
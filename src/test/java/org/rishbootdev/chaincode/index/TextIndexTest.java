@@ -0,0 +1,54 @@
+package org.rishbootdev.chaincode.index;
+
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.junit.jupiter.api.Test;
+import org.rishbootdev.chaincode.testing.InMemoryStub;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class TextIndexTest {
+
+    @Test
+    void tokensAreCaseFoldedDedupedAndSkipSingleCharacters() {
+        Set<String> tokens = TextIndex.tokens("Acute  Bronchitis, a cough", null, "COUGH-syrup");
+
+        assertEquals(Set.of("acute", "bronchitis", "cough", "syrup"), tokens);
+    }
+
+    @Test
+    void searchIntersectsPostingsOfEveryTerm() {
+        ChaincodeStub stub = stubWithPostings(
+                Arrays.asList("R1", "R2", "R4", "R7"),
+                Arrays.asList("R2", "R3", "R7", "R9"));
+
+        assertEquals(Arrays.asList("R2", "R7"), TextIndex.search(stub, TextIndex.RECORD, "cough fever", 10));
+        assertEquals(List.of("R2"), TextIndex.search(stub, TextIndex.RECORD, "cough fever", 1));
+    }
+
+    @Test
+    void blankQueryMatchesNothing() {
+        ChaincodeStub stub = mock(ChaincodeStub.class);
+
+        assertTrue(TextIndex.search(stub, TextIndex.RECORD, " , ", 10).isEmpty());
+    }
+
+    private static ChaincodeStub stubWithPostings(List<String> coughIds, List<String> feverIds) {
+        SortedMap<String, byte[]> state = new TreeMap<>();
+        for (String id : coughIds) {
+            state.put(new CompositeKey(TextIndex.TOKEN, TextIndex.RECORD, "cough", id).toString(), new byte[]{0});
+        }
+        for (String id : feverIds) {
+            state.put(new CompositeKey(TextIndex.TOKEN, TextIndex.RECORD, "fever", id).toString(), new byte[]{0});
+        }
+        return InMemoryStub.over(state);
+    }
+}
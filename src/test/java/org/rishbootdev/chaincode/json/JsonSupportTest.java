@@ -0,0 +1,62 @@
+package org.rishbootdev.chaincode.json;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+import org.rishbootdev.chaincode.model.Doctor;
+import org.rishbootdev.chaincode.model.Hospital;
+import org.rishbootdev.chaincode.model.Lab;
+import org.rishbootdev.chaincode.model.LabReport;
+import org.rishbootdev.chaincode.model.Medicine;
+import org.rishbootdev.chaincode.model.Patient;
+import org.rishbootdev.chaincode.model.Pharma;
+import org.rishbootdev.chaincode.model.Prescription;
+import org.rishbootdev.chaincode.model.Record;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JsonSupportTest {
+
+    private final Gson reflective = new Gson();
+    private final Gson shared = JsonSupport.gson();
+
+    @Test
+    void writesTheSameJsonAsReflectiveBinding() {
+        List<Object> models = Arrays.asList(
+                new Patient("P1", "Asha <A&B>", 42, "F", null, "R9", "555", "O+", null,
+                        ids("PR1"), null, "D1", "H1"),
+                new Doctor("D1", "Rao", "Cardiology", "H1", ids("P1", "P2"), ids(), null, "555"),
+                new Hospital("H1", "City", "1 Main St", "LIC", ids("D1"), ids("P1"), null, ids("L1")),
+                new Record("REC1", "P1", "D1", "H1", "Flu", "Rest", null, "2024-01-02"),
+                new Prescription("PR1", "P1", "D1", ids("M1", null), "2024-01-02", "after meals"),
+                new LabReport("R1", "P1", "CBC", "normal", "L1", "2024-01-03", null),
+                new Lab("L1", "Central", "H1", ids("R1")),
+                new Medicine("Paracetamol", "M1", null, "500mg", 0, "2027-01-01"),
+                new Pharma("Corner", "PH1", null),
+                new Patient(), new Doctor(), new Hospital());
+
+        for (Object model : models) {
+            assertEquals(reflective.toJson(model), shared.toJson(model), model.getClass().getSimpleName());
+        }
+    }
+
+    @Test
+    void readsStoredDocumentsTheSameWayAsReflectiveBinding() {
+        String patient = "{\"patientId\":\"P1\",\"age\":\"42\",\"legacy\":{\"x\":[1,2]},\"recordIds\":null,"
+                + "\"prescriptionIds\":[\"PR1\",null],\"allergies\":true,\"contact\":5550100}";
+        String medicine = "{\"id\":\"M1\",\"stock\":null,\"name\":\"A\",\"name\":\"B\"}";
+        String doctor = "{\"doctorId\":\"D1\",\"patientId\":[\"P1\"]}";
+
+        assertEquals(reflective.fromJson(patient, Patient.class), shared.fromJson(patient, Patient.class));
+        assertEquals(reflective.fromJson(medicine, Medicine.class), shared.fromJson(medicine, Medicine.class));
+        assertEquals(reflective.fromJson(doctor, Doctor.class), shared.fromJson(doctor, Doctor.class));
+        assertEquals(reflective.fromJson("null", Lab.class), shared.fromJson("null", Lab.class));
+    }
+
+    private static List<String> ids(String... ids) {
+        return new ArrayList<>(Arrays.asList(ids));
+    }
+}
@@ -0,0 +1,26 @@
+package org.rishbootdev.chaincode.query;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AggregatesTest {
+
+    @Test
+    void arraySizeCountsElementsOfTheNamedField() {
+        String lab = "{\"labId\":\"L1\",\"notes\":{\"reportIds\":[\"X\"]},\"reportIds\":[\"R1\",\"R2\",\"R3\"]}";
+
+        assertEquals(3, Aggregates.arraySize(lab, "reportIds"));
+        assertEquals(0, Aggregates.arraySize("{\"labId\":\"L1\",\"reportIds\":null}", "reportIds"));
+        assertEquals(0, Aggregates.arraySize("", "reportIds"));
+    }
+
+    @Test
+    void intFieldDefaultsToZeroAndSkipsMalformedValues() {
+        assertEquals(12, Aggregates.intField("{\"name\":\"A\",\"stock\":12}", "stock"));
+        assertEquals(0, Aggregates.intField("{\"name\":\"A\"}", "stock"));
+        assertNull(Aggregates.intField("\"not an object\"", "stock"));
+        assertNull(Aggregates.intField("{\"stock\":1.5}", "stock"));
+    }
+}
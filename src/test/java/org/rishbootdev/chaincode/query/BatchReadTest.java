@@ -0,0 +1,44 @@
+package org.rishbootdev.chaincode.query;
+
+import com.google.gson.Gson;
+import org.hyperledger.fabric.shim.ChaincodeException;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.junit.jupiter.api.Test;
+import org.rishbootdev.chaincode.model.Patient;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BatchReadTest {
+
+    @Test
+    void returnsFoundDocumentsInOrderAndMissingIds() {
+        ChaincodeStub stub = mock(ChaincodeStub.class);
+        when(stub.getState(anyString())).thenReturn(new byte[0]);
+        when(stub.getState("PATIENT_P2")).thenReturn("{\"patientId\":\"P2\"}".getBytes(StandardCharsets.UTF_8));
+        when(stub.getState("PATIENT_P1")).thenReturn("{\"patientId\":\"P1\"}".getBytes(StandardCharsets.UTF_8));
+
+        String response = BatchRead.byIds(stub, new Gson(), "PATIENT_", Patient.class, "[\"P2\",\"P9\",\"P1\",\"P2\"]");
+
+        assertEquals("{\"found\":[{\"patientId\":\"P2\"},{\"patientId\":\"P1\"}],\"missing\":[\"P9\"]}", response);
+        verify(stub, times(1)).getState("PATIENT_P2");
+    }
+
+    @Test
+    void rejectsMalformedOrOversizedRequests() {
+        String tooMany = new Gson().toJson(Collections.nCopies(BatchRead.MAX_IDS + 1, "P1"));
+
+        assertThrows(ChaincodeException.class, () -> BatchRead.parseIds(tooMany));
+        assertThrows(ChaincodeException.class, () -> BatchRead.parseIds("{\"ids\":[]}"));
+        assertThrows(ChaincodeException.class, () -> BatchRead.parseIds("[\"P1\",7]"));
+        assertThrows(ChaincodeException.class, () -> BatchRead.parseIds("[\"P1\""));
+    }
+}
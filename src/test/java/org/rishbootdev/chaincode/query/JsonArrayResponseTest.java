@@ -0,0 +1,66 @@
+package org.rishbootdev.chaincode.query;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import org.junit.jupiter.api.Test;
+import org.rishbootdev.chaincode.json.JsonSupport;
+import org.rishbootdev.chaincode.model.Medicine;
+import org.rishbootdev.chaincode.state.StateCodec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JsonArrayResponseTest {
+
+    private final Gson gson = new Gson();
+
+    @Test
+    void matchesSerializingTheWholeList() {
+        List<Medicine> medicines = Arrays.asList(
+                new Medicine("Paracetamol", "M1", "Acme", "500mg", 40, "2027-01-01"),
+                new Medicine("Ibuprofen <forte>", "M2", null, "400mg", 0, null));
+
+        JsonArrayResponse response = new JsonArrayResponse(gson);
+        medicines.forEach(response::add);
+
+        assertEquals(2, response.size());
+        assertEquals(gson.toJson(medicines), response.toJson());
+    }
+
+    @Test
+    void storedValuesAreCopiedOrDecoded() {
+        Medicine binary = new Medicine("Ibuprofen", "M2", "Acme", "400mg", 7, null);
+        byte[] legacy = "{ \"id\": \"M1\",  \"stock\": 3 }".getBytes(StandardCharsets.UTF_8);
+        byte[] truncated = "{\"id\":\"M3\",".getBytes(StandardCharsets.UTF_8);
+
+        JsonArrayResponse response = new JsonArrayResponse(gson);
+        response.addStored(legacy, Medicine.class);
+        response.addStored(StateCodec.encode(binary), Medicine.class);
+        response.addStored(new byte[0], Medicine.class);
+        assertThrows(JsonSyntaxException.class, () -> response.addStored(truncated, Medicine.class));
+
+        assertEquals(2, response.size());
+        assertEquals("[{ \"id\": \"M1\",  \"stock\": 3 }," + JsonSupport.gson().toJson(binary) + "]", response.toJson());
+    }
+
+    @Test
+    void jsonDocumentsAreCopiedOnceChecked() {
+        JsonArrayResponse response = new JsonArrayResponse(gson);
+        response.addJson("{ \"recordId\": \"R1\" }");
+        response.addJson(null);
+        assertThrows(JsonSyntaxException.class, () -> response.addJson("{\"recordId\":"));
+        assertThrows(JsonSyntaxException.class, () -> response.addJson("{} {}"));
+
+        assertEquals(1, response.size());
+        assertEquals("[{ \"recordId\": \"R1\" }]", response.toJson());
+    }
+
+    @Test
+    void emptyResponseIsAnEmptyArray() {
+        assertEquals("[]", new JsonArrayResponse(gson).toJson());
+    }
+}
@@ -0,0 +1,31 @@
+package org.rishbootdev.chaincode.query;
+
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ProjectionTest {
+
+    @Test
+    void keepsOnlyRequestedFields() {
+        String hospital = "{\"hospitalId\":\"H1\",\"name\":\"City\",\"doctorIds\":[\"D1\",\"D2\"],"
+                + "\"patientIds\":[\"P1\"],\"address\":{\"line\":\"1 Main St\"}}";
+
+        JsonObject projected = Projection.project(hospital, Projection.fields(" name , address,", "hospitalId"));
+
+        assertEquals("{\"name\":\"City\",\"address\":{\"line\":\"1 Main St\"}}", projected.toString());
+    }
+
+    @Test
+    void fallsBackToDefaultsAndSkipsNonObjects() {
+        Set<String> fields = Projection.fields("  ", "hospitalId,name");
+
+        assertEquals(Set.of("hospitalId", "name"), fields);
+        assertNull(Projection.project("[1,2]", fields));
+        assertNull(Projection.project("{\"hospitalId\":", fields));
+    }
+}
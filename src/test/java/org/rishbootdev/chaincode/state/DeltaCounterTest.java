@@ -0,0 +1,72 @@
+package org.rishbootdev.chaincode.state;
+
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.junit.jupiter.api.Test;
+import org.rishbootdev.chaincode.testing.InMemoryStub;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+class DeltaCounterTest {
+
+    @Test
+    void eachTransactionWritesItsOwnDeltaAndReadsSumThem() {
+        SortedMap<String, byte[]> state = new TreeMap<>();
+        ChaincodeStub stub = InMemoryStub.over(state);
+
+        for (String txId : Arrays.asList("tx1", "tx2", "tx3")) {
+            when(stub.getTxId()).thenReturn(txId);
+            DeltaCounter.add(stub, DeltaCounter.STOCK, "M1", txId.equals("tx2") ? -4 : 10);
+        }
+        DeltaCounter.add(stub, DeltaCounter.STOCK, "M1", 0);
+
+        assertEquals(3, state.size());
+        assertEquals(16, DeltaCounter.pending(stub, DeltaCounter.STOCK, "M1"));
+        assertEquals(0, DeltaCounter.pending(stub, DeltaCounter.STOCK, "M2"));
+    }
+
+    @Test
+    void foldRemovesAtMostTheLimitAndReturnsTheirSum() {
+        SortedMap<String, byte[]> state = new TreeMap<>();
+        ChaincodeStub stub = InMemoryStub.over(state);
+        for (int i = 1; i <= 5; i++) {
+            when(stub.getTxId()).thenReturn("tx" + i);
+            DeltaCounter.add(stub, DeltaCounter.STOCK, "M1", i);
+        }
+
+        DeltaCounter.Folded first = DeltaCounter.fold(stub, DeltaCounter.STOCK, "M1", 2);
+        DeltaCounter.Folded rest = DeltaCounter.fold(stub, DeltaCounter.STOCK, "M1", 0);
+
+        assertEquals(2, first.getCount());
+        assertEquals(3, first.getSum());
+        assertTrue(first.hasRemaining());
+        assertEquals(3, rest.getCount());
+        assertEquals(12, rest.getSum());
+        assertFalse(rest.hasRemaining());
+        assertEquals(0, state.size());
+    }
+
+    @Test
+    void pendingAllSumsTheDeltasOfEveryId() {
+        SortedMap<String, byte[]> state = new TreeMap<>();
+        ChaincodeStub stub = InMemoryStub.over(state);
+        for (int i = 1; i <= 3; i++) {
+            when(stub.getTxId()).thenReturn("tx" + i);
+            DeltaCounter.add(stub, DeltaCounter.STOCK, "M1", 5);
+            DeltaCounter.add(stub, DeltaCounter.STOCK, "M2", -i);
+        }
+
+        Map<String, Long> pending = DeltaCounter.pendingAll(stub, DeltaCounter.STOCK);
+
+        assertEquals(2, pending.size());
+        assertEquals(15L, pending.get("M1"));
+        assertEquals(-6L, pending.get("M2"));
+    }
+}
@@ -0,0 +1,52 @@
+package org.rishbootdev.chaincode.state;
+
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.rishbootdev.chaincode.model.Lab;
+import org.rishbootdev.chaincode.model.StorageConfig;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LedgerTest {
+
+    @Test
+    void smallValuesAreWrittenWithoutReadingTheStorageConfig() {
+        ChaincodeStub stub = mock(ChaincodeStub.class);
+        Lab lab = new Lab();
+        lab.setLabId("L1");
+
+        Ledger.put(stub, "LAB_L1", lab);
+
+        verify(stub, never()).getState(Ledger.STORAGE_CONFIG_KEY);
+        verify(stub).putState("LAB_L1", StateCodec.encode(lab));
+    }
+
+    @Test
+    void largeValuesReadTheConfigOncePerUnitOfWork() {
+        ChaincodeStub peer = mock(ChaincodeStub.class);
+        when(peer.getState(Ledger.STORAGE_CONFIG_KEY))
+                .thenReturn(StateCodec.encode(new StorageConfig(StorageConfig.MIN_COMPRESSION_THRESHOLD, 0)));
+        UnitOfWork unit = new UnitOfWork(peer);
+        Lab lab = new Lab();
+        lab.setLabId("L1");
+        for (int i = 0; i < 500; i++) {
+            lab.getReportIds().add("REPORT-" + i);
+        }
+
+        Ledger.put(unit, "LAB_L1", lab);
+        Ledger.put(unit, "LAB_L2", lab);
+        unit.flush();
+
+        verify(peer, times(1)).getState(Ledger.STORAGE_CONFIG_KEY);
+        ArgumentCaptor<byte[]> stored = ArgumentCaptor.forClass(byte[].class);
+        verify(peer).putState(eq("LAB_L1"), stored.capture());
+        assertTrue(StateCodec.isCompressed(stored.getValue()));
+    }
+}
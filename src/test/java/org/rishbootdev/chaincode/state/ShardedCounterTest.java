@@ -0,0 +1,64 @@
+package org.rishbootdev.chaincode.state;
+
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.junit.jupiter.api.Test;
+import org.rishbootdev.chaincode.testing.InMemoryStub;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+class ShardedCounterTest {
+
+    @Test
+    void updatesSpreadOverShardsAndReadsSumThem() {
+        SortedMap<String, byte[]> state = new TreeMap<>();
+        ChaincodeStub stub = InMemoryStub.over(state);
+
+        for (int i = 0; i < 200; i++) {
+            when(stub.getTxId()).thenReturn("tx" + i);
+            ShardedCounter.add(stub, "hospital~patients", "H1", 1);
+        }
+        when(stub.getTxId()).thenReturn("tx-discharge");
+        ShardedCounter.add(stub, "hospital~patients", "H1", -1);
+
+        assertEquals(ShardedCounter.SHARDS, state.size());
+        assertEquals(199, ShardedCounter.value(stub, "hospital~patients", "H1"));
+        assertEquals(0, ShardedCounter.value(stub, "hospital~patients", "H2"));
+    }
+
+    @Test
+    void repeatedUpdatesInOneTransactionAccumulate() {
+        SortedMap<String, byte[]> state = new TreeMap<>();
+        ChaincodeStub stub = InMemoryStub.over(state);
+        when(stub.getTxId()).thenReturn("tx1");
+
+        for (int i = 0; i < 5; i++) {
+            ShardedCounter.add(stub, "lab~reports", "L1", -1);
+        }
+        ShardedCounter.add(stub, "lab~reports", "L1", 2);
+
+        assertEquals(1, state.size());
+        assertEquals(-3, ShardedCounter.value(stub, "lab~reports", "L1"));
+    }
+
+    @Test
+    void setCollapsesTheShardsIntoOne() {
+        SortedMap<String, byte[]> state = new TreeMap<>();
+        ChaincodeStub stub = InMemoryStub.over(state);
+        for (int i = 0; i < 40; i++) {
+            when(stub.getTxId()).thenReturn("tx" + i);
+            ShardedCounter.add(stub, "doctor~records", "D1", 1);
+        }
+        assertTrue(state.size() > 1);
+
+        when(stub.getTxId()).thenReturn("recount");
+        ShardedCounter.set(stub, "doctor~records", "D1", 12);
+
+        assertEquals(1, state.size());
+        assertEquals(12, ShardedCounter.value(stub, "doctor~records", "D1"));
+    }
+}
@@ -0,0 +1,95 @@
+package org.rishbootdev.chaincode.state;
+
+import com.google.protobuf.CodedOutputStream;
+import org.junit.jupiter.api.Test;
+import org.rishbootdev.chaincode.json.JsonSupport;
+import org.rishbootdev.chaincode.model.Lab;
+import org.rishbootdev.chaincode.model.Medicine;
+import org.rishbootdev.chaincode.model.Patient;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StateCodecTest {
+
+    @Test
+    void binaryValuesRoundTripAndAreSmallerThanJson() {
+        Patient patient = new Patient();
+        patient.setPatientId("P1");
+        patient.setName("Asha");
+        patient.setAge(41);
+        patient.setRecordIds(Arrays.asList("R1", "R2"));
+
+        byte[] encoded = StateCodec.encode(patient);
+
+        assertEquals(StateCodec.FORMAT_PROTO, encoded[0]);
+        assertEquals(patient, StateCodec.decode(encoded, Patient.class));
+        String json = JsonSupport.gson().toJson(patient);
+        assertTrue(encoded.length < json.getBytes(StandardCharsets.UTF_8).length);
+        assertEquals(json, StateCodec.toJson(encoded, Patient.class));
+    }
+
+    @Test
+    void largeValuesAreCompressedAboveTheThreshold() {
+        Lab lab = new Lab();
+        lab.setLabId("L1");
+        for (int i = 0; i < 500; i++) {
+            lab.getReportIds().add("REPORT-" + i);
+        }
+        byte[] plain = StateCodec.encode(lab);
+
+        byte[] compressed = StateCodec.encode(lab, 1024);
+
+        assertTrue(StateCodec.isCompressed(compressed));
+        assertTrue(compressed.length < plain.length / 2);
+        assertEquals(plain.length, StateCodec.uncompressedSize(compressed));
+        assertEquals(lab, StateCodec.decode(compressed, Lab.class));
+        assertEquals(StateCodec.toJson(plain, Lab.class), StateCodec.toJson(compressed, Lab.class));
+        assertArrayEquals(plain, StateCodec.encode(lab, plain.length + 1));
+        assertArrayEquals(plain, StateCodec.encode(lab, 0));
+    }
+
+    @Test
+    void legacyJsonValuesAreReadUnchanged() {
+        String json = "{\"id\":\"M1\",\"name\":\"Aspirin\",\"stock\":5}";
+        byte[] stored = json.getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(5, StateCodec.decode(stored, Medicine.class).getStock());
+        assertEquals(json, StateCodec.toJson(stored, Medicine.class));
+        assertNull(StateCodec.decode(new byte[0], Medicine.class));
+    }
+
+    @Test
+    void unknownTagsAreSkipped() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(StateCodec.FORMAT_PROTO);
+        CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+        out.writeString(1, "L1");
+        out.writeString(99, "added later");
+        out.writeString(2, "Central");
+        out.flush();
+
+        Lab lab = StateCodec.decode(bytes.toByteArray(), Lab.class);
+
+        assertEquals("L1", lab.getLabId());
+        assertEquals("Central", lab.getName());
+    }
+
+    @Test
+    void listsWithNullElementsFallBackToJson() {
+        Lab lab = new Lab();
+        lab.setLabId("L1");
+        lab.setReportIds(Arrays.asList("R1", null));
+
+        byte[] encoded = StateCodec.encode(lab);
+
+        assertEquals('{', encoded[0]);
+        assertEquals(lab, StateCodec.decode(encoded, Lab.class));
+    }
+}
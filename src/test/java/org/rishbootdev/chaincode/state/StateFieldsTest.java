@@ -0,0 +1,54 @@
+package org.rishbootdev.chaincode.state;
+
+import com.google.gson.JsonSyntaxException;
+import org.junit.jupiter.api.Test;
+import org.rishbootdev.chaincode.model.Medicine;
+import org.rishbootdev.chaincode.model.Pharma;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StateFieldsTest {
+
+    @Test
+    void readsFieldsFromEveryStoredFormat() {
+        Pharma pharma = new Pharma();
+        pharma.setName("Acme");
+        pharma.setPharmaId("PH1");
+        pharma.setMedicineIds(Arrays.asList("M1", "M2", "M3"));
+        byte[] json = "{\"name\":\"Acme\",\"pharmaId\":\"PH1\",\"medicineId\":[\"M1\",\"M2\",\"M3\"]}"
+                .getBytes(StandardCharsets.UTF_8);
+
+        for (byte[] value : Arrays.asList(json, StateCodec.encode(pharma), StateCodec.encode(pharma, 1))) {
+            assertEquals("PH1", StateFields.string(value, Pharma.class, "pharmaId"));
+            assertEquals(3, StateFields.count(value, Pharma.class, "medicineId"));
+        }
+    }
+
+    @Test
+    void absentFieldsReadAsTheirDefaults() {
+        Medicine medicine = new Medicine();
+        medicine.setId("M1");
+        byte[] binary = StateCodec.encode(medicine);
+        byte[] json = "{\"id\":\"M1\"}".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(0, StateFields.int32(binary, Medicine.class, "stock"));
+        assertEquals(0, StateFields.int32(json, Medicine.class, "stock"));
+        assertNull(StateFields.string(binary, Medicine.class, "name"));
+        assertNull(StateFields.string(json, Medicine.class, "name"));
+        assertNull(StateFields.string(new byte[0], Medicine.class, "name"));
+    }
+
+    @Test
+    void malformedValuesAreRejected() {
+        byte[] notAnObject = "\"M1\"".getBytes(StandardCharsets.UTF_8);
+        byte[] truncated = {StateCodec.FORMAT_PROTO, 0x12, 0x05, 'M'};
+
+        assertThrows(JsonSyntaxException.class, () -> StateFields.string(notAnObject, Medicine.class, "id"));
+        assertThrows(JsonSyntaxException.class, () -> StateFields.string(truncated, Medicine.class, "id"));
+    }
+}
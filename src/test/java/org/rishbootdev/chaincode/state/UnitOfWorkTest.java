@@ -0,0 +1,84 @@
+package org.rishbootdev.chaincode.state;
+
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.junit.jupiter.api.Test;
+import org.rishbootdev.chaincode.model.Patient;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UnitOfWorkTest {
+
+    @Test
+    void eachKeyIsFetchedAndDecodedOnce() {
+        ChaincodeStub peer = mock(ChaincodeStub.class);
+        when(peer.getState("PATIENT_P1")).thenReturn("{\"patientId\":\"P1\"}".getBytes(StandardCharsets.UTF_8));
+        UnitOfWork unit = new UnitOfWork(peer);
+
+        Patient first = Ledger.get(unit, "PATIENT_P1", Patient.class);
+        Patient second = Ledger.get(unit, "PATIENT_P1", Patient.class);
+        assertTrue(Ledger.exists(unit, "PATIENT_P1"));
+        assertFalse(Ledger.exists(unit, "PATIENT_P2"));
+        assertNull(Ledger.get(unit, "PATIENT_P2", Patient.class));
+
+        assertSame(first, second);
+        verify(peer, times(1)).getState("PATIENT_P1");
+        verify(peer, times(1)).getState("PATIENT_P2");
+    }
+
+    @Test
+    void writesAreCoalescedAndVisibleBeforeTheFlush() {
+        ChaincodeStub peer = mock(ChaincodeStub.class);
+        when(peer.getState(anyString())).thenReturn(new byte[0]);
+        UnitOfWork unit = new UnitOfWork(peer);
+        Patient patient = new Patient();
+        patient.setPatientId("P1");
+
+        Ledger.put(unit, "PATIENT_P1", patient);
+        patient.setName("Asha");
+        Ledger.put(unit, "PATIENT_P1", patient);
+        unit.putState("MARKER", new byte[]{1});
+        unit.delState("MARKER");
+
+        assertEquals("Asha", Ledger.get(unit, "PATIENT_P1", Patient.class).getName());
+        assertEquals(0, unit.getState("MARKER").length);
+        verify(peer, never()).putState(anyString(), any());
+        assertEquals(2, unit.pendingWrites());
+
+        unit.flush();
+
+        verify(peer, times(1)).putState(anyString(), any());
+        verify(peer).putState("PATIENT_P1", StateCodec.encode(patient));
+        verify(peer).delState("MARKER");
+        assertEquals(0, unit.pendingWrites());
+    }
+
+    @Test
+    void rollbackRestoresTheBufferAtTheSavepoint() {
+        ChaincodeStub peer = mock(ChaincodeStub.class);
+        when(peer.getState(anyString())).thenReturn(new byte[0]);
+        UnitOfWork unit = new UnitOfWork(peer);
+        unit.putState("A", new byte[]{1});
+
+        int savepoint = unit.savepoint();
+        unit.putState("A", new byte[]{2});
+        unit.putState("B", new byte[]{3});
+        unit.rollback(savepoint);
+
+        assertEquals(1, unit.getState("A")[0]);
+        assertEquals(0, unit.getState("B").length);
+        assertEquals(1, unit.pendingWrites());
+    }
+}
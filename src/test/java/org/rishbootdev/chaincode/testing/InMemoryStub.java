@@ -0,0 +1,148 @@
+package org.rishbootdev.chaincode.testing;
+
+import com.google.protobuf.ByteString;
+import org.hyperledger.fabric.protos.msp.SerializedIdentity;
+import org.hyperledger.fabric.protos.peer.QueryResponseMetadata;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.hyperledger.fabric.shim.ledger.CompositeKey;
+import org.hyperledger.fabric.shim.ledger.KeyValue;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIterator;
+import org.hyperledger.fabric.shim.ledger.QueryResultsIteratorWithMetadata;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A mocked {@link ChaincodeStub} over a sorted map of world state. Point
+ * reads and writes, range (also paginated) and partial composite key
+ * queries, and composite key handling all go to the map, so tests can
+ * assert on the keys that were written. The transaction id and timestamp
+ * can be re-stubbed, and the creator is a fixed self-signed identity so
+ * contract contexts can be built over it.
+ */
+public final class InMemoryStub {
+
+    private static final String CREATOR_CERTIFICATE =
+            "-----BEGIN CERTIFICATE-----\n"
+            + "MIIBoTCCAUegAwIBAgIUFjOqXTlv2NAyHdStSWq2EuzkiGEwCgYIKoZIzj0EAwIw\n"
+            + "JTEUMBIGA1UEAwwLdGVzdC1jbGllbnQxDTALBgNVBAoMBE9yZzEwIBcNMjYxMDE3\n"
+            + "MDIyMTQzWhgPMjEyNjA5MjMwMjIxNDNaMCUxFDASBgNVBAMMC3Rlc3QtY2xpZW50\n"
+            + "MQ0wCwYDVQQKDARPcmcxMFkwEwYHKoZIzj0CAQYIKoZIzj0DAQcDQgAEgy1mDsoV\n"
+            + "RGCSVm0E41fdwC3SHNDFB7Sv4VET2APyhmcI5Hy/qNFtFdolDw/gotaGFkngKR9J\n"
+            + "r4vZSthoKWpLM6NTMFEwHQYDVR0OBBYEFBJKHuMLOwDzONwRVXDVLyzu+8+VMB8G\n"
+            + "A1UdIwQYMBaAFBJKHuMLOwDzONwRVXDVLyzu+8+VMA8GA1UdEwEB/wQFMAMBAf8w\n"
+            + "CgYIKoZIzj0EAwIDSAAwRQIgQQA++fwCxJ+DVCBSXVcdY2Xw0mGhZ+itFRewLvQw\n"
+            + "QL8CIQDtRVmCz1ccxWoIcC3pEVXePCprvqaoLcT/o4LkXKgXKw==\n"
+            + "-----END CERTIFICATE-----\n";
+
+    private InMemoryStub() {
+    }
+
+    public static ChaincodeStub over(SortedMap<String, byte[]> state) {
+        ChaincodeStub stub = mock(ChaincodeStub.class);
+        when(stub.getTxId()).thenReturn("tx");
+        when(stub.getTxTimestamp()).thenReturn(Instant.EPOCH);
+        when(stub.getCreator()).thenReturn(SerializedIdentity.newBuilder()
+                .setMspid("Org1MSP")
+                .setIdBytes(ByteString.copyFromUtf8(CREATOR_CERTIFICATE))
+                .build()
+                .toByteArray());
+        when(stub.createCompositeKey(anyString(), any(String[].class)))
+                .thenAnswer(inv -> new CompositeKey(inv.getArgument(0),
+                        Arrays.copyOfRange(inv.getArguments(), 1, inv.getArguments().length, String[].class)));
+        when(stub.splitCompositeKey(anyString()))
+                .thenAnswer(inv -> CompositeKey.parseCompositeKey(inv.getArgument(0)));
+        when(stub.getState(anyString())).thenAnswer(inv -> state.get(inv.<String>getArgument(0)));
+        doAnswer(inv -> state.put(inv.getArgument(0), inv.getArgument(1)))
+                .when(stub).putState(anyString(), any());
+        doAnswer(inv -> state.remove(inv.<String>getArgument(0))).when(stub).delState(anyString());
+        when(stub.getStateByRange(anyString(), anyString()))
+                .thenAnswer(inv -> iteratorOf(entries(state.subMap(inv.getArgument(0), inv.getArgument(1)))));
+        when(stub.getStateByRangeWithPagination(anyString(), anyString(), anyInt(), anyString()))
+                .thenAnswer(inv -> page(state, inv.getArgument(0), inv.getArgument(1),
+                        inv.<Integer>getArgument(2), inv.getArgument(3)));
+        when(stub.getStateByPartialCompositeKey(any(CompositeKey.class)))
+                .thenAnswer(inv -> withPrefix(state, inv.getArgument(0).toString()));
+        when(stub.getStateByPartialCompositeKey(anyString()))
+                .thenAnswer(inv -> withPrefix(state, inv.getArgument(0)));
+        return stub;
+    }
+
+    public static QueryResultsIterator<KeyValue> iteratorOf(List<KeyValue> values) {
+        return new QueryResultsIterator<KeyValue>() {
+            @Override
+            public Iterator<KeyValue> iterator() {
+                return values.iterator();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    public static KeyValue keyValue(String key, byte[] value) {
+        KeyValue kv = mock(KeyValue.class);
+        when(kv.getKey()).thenReturn(key);
+        when(kv.getValue()).thenReturn(value);
+        return kv;
+    }
+
+    private static QueryResultsIteratorWithMetadata<KeyValue> page(SortedMap<String, byte[]> state,
+                                                                   String start, String end, int pageSize,
+                                                                   String bookmark) {
+        String from = bookmark.isEmpty() ? start : bookmark;
+        List<KeyValue> values = new ArrayList<>();
+        String next = "";
+        for (Map.Entry<String, byte[]> entry : state.subMap(from, end).entrySet()) {
+            if (values.size() == pageSize) {
+                next = entry.getKey();
+                break;
+            }
+            values.add(keyValue(entry.getKey(), entry.getValue()));
+        }
+        QueryResponseMetadata metadata = QueryResponseMetadata.newBuilder()
+                .setFetchedRecordsCount(values.size())
+                .setBookmark(next)
+                .build();
+        return new QueryResultsIteratorWithMetadata<KeyValue>() {
+            @Override
+            public QueryResponseMetadata getMetadata() {
+                return metadata;
+            }
+
+            @Override
+            public Iterator<KeyValue> iterator() {
+                return values.iterator();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static QueryResultsIterator<KeyValue> withPrefix(SortedMap<String, byte[]> state, String prefix) {
+        return iteratorOf(entries(state.subMap(prefix, prefix + Character.MAX_VALUE)));
+    }
+
+    private static List<KeyValue> entries(Map<String, byte[]> range) {
+        List<KeyValue> values = new ArrayList<>();
+        for (Map.Entry<String, byte[]> entry : range.entrySet()) {
+            values.add(keyValue(entry.getKey(), entry.getValue()));
+        }
+        return values;
+    }
+}
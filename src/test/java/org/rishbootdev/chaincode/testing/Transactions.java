@@ -0,0 +1,29 @@
+package org.rishbootdev.chaincode.testing;
+
+import org.hyperledger.fabric.contract.Context;
+import org.hyperledger.fabric.shim.ChaincodeStub;
+import org.rishbootdev.chaincode.context.HealthContext;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs contract functions the way the peer does: each in its own
+ * {@link HealthContext}, with the buffered writes flushed to the stub
+ * afterwards, so the next transaction reads them back from state.
+ */
+public final class Transactions {
+
+    private Transactions() {
+    }
+
+    public static void submit(ChaincodeStub peer, Consumer<Context> transaction) {
+        HealthContext ctx = new HealthContext(peer);
+        transaction.accept(ctx);
+        ctx.getUnitOfWork().flush();
+    }
+
+    public static <T> T evaluate(ChaincodeStub peer, Function<Context, T> transaction) {
+        return transaction.apply(new HealthContext(peer));
+    }
+}